@@ -0,0 +1,85 @@
+package com.smartuniversity.booking.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ configuration for the Booking service.
+ * <p>
+ * Nothing connects to the broker unless a feature that needs it is enabled, so a
+ * single instance runs without RabbitMQ.
+ */
+@Configuration
+public class BookingMessagingConfig {
+
+    public static final String EXCHANGE_NAME = "university.events";
+    public static final String RESOURCE_CATALOG_CHANGED_ROUTING_KEY = "booking.resource-catalog.changed";
+    public static final String RESERVATION_CREATED_ROUTING_KEY = "booking.reservation.created";
+    public static final String RESERVATION_CANCELED_ROUTING_KEY = "booking.reservation.canceled";
+
+    @Bean
+    public TopicExchange universityExchange() {
+        return new TopicExchange(EXCHANGE_NAME, true, false);
+    }
+
+    /**
+     * One server-named, auto-delete queue per instance, so every instance receives
+     * every catalog invalidation.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "booking.resource-cache.broadcast.enabled", havingValue = "true")
+    public Queue resourceCatalogInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "booking.resource-cache.broadcast.enabled", havingValue = "true")
+    public Binding resourceCatalogInvalidationBinding(Queue resourceCatalogInvalidationQueue,
+                                                      TopicExchange universityExchange) {
+        return BindingBuilder.bind(resourceCatalogInvalidationQueue)
+                .to(universityExchange)
+                .with(RESOURCE_CATALOG_CHANGED_ROUTING_KEY);
+    }
+
+    /**
+     * One queue per instance for cancellations as well, so every instance frees the
+     * canceled window in its interval index, not only the one that canceled it.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "booking.events.enabled", havingValue = "true")
+    public Queue reservationCanceledQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "booking.events.enabled", havingValue = "true")
+    public Binding reservationCanceledBinding(Queue reservationCanceledQueue,
+                                              TopicExchange universityExchange) {
+        return BindingBuilder.bind(reservationCanceledQueue)
+                .to(universityExchange)
+                .with(RESERVATION_CANCELED_ROUTING_KEY);
+    }
+
+    @Bean
+    public MessageConverter jacksonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
+                                         MessageConverter jacksonMessageConverter) {
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(jacksonMessageConverter);
+        return template;
+    }
+}
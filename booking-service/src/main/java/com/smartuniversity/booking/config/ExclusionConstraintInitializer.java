@@ -0,0 +1,72 @@
+package com.smartuniversity.booking.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Installs the PostgreSQL objects backing {@code booking.overbooking.mode=constraint}:
+ * a generated {@code tstzrange} period column on {@code reservations} and a GiST
+ * exclusion constraint that forbids overlapping CREATED reservations of a resource
+ * that take the whole resource. Seat bookings on shared resources are not covered and
+ * keep using the resource lock.
+ * <p>
+ * Runs after Hibernate has created or updated the schema and before the web server
+ * accepts requests. All statements are idempotent.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "booking.overbooking.mode", havingValue = "constraint")
+public class ExclusionConstraintInitializer {
+
+    public static final String CONSTRAINT_NAME = "reservations_exclusive_no_overlap";
+
+    private static final Logger logger = LoggerFactory.getLogger(ExclusionConstraintInitializer.class);
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExclusionConstraintInitializer(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void install() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                throw new IllegalStateException(
+                        "booking.overbooking.mode=constraint requires PostgreSQL but the database is " + product);
+            }
+        }
+
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+        jdbcTemplate.execute("""
+                ALTER TABLE reservations
+                    ADD COLUMN IF NOT EXISTS period tstzrange
+                    GENERATED ALWAYS AS (tstzrange(start_time, end_time, '[)')) STORED
+                """);
+        jdbcTemplate.execute("""
+                DO $$
+                BEGIN
+                    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = '%s') THEN
+                        ALTER TABLE reservations
+                            ADD CONSTRAINT %s
+                            EXCLUDE USING gist (resource_id WITH =, period WITH &&)
+                            WHERE (status = 'CREATED' AND seats IS NULL);
+                    END IF;
+                END
+                $$
+                """.formatted(CONSTRAINT_NAME, CONSTRAINT_NAME));
+        logger.info("Overbooking guard: exclusion constraint {} is installed", CONSTRAINT_NAME);
+    }
+}
@@ -0,0 +1,48 @@
+package com.smartuniversity.booking.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Fills {@code updated_at} on bookings written before the column existed, then makes it
+ * {@code NOT NULL}.
+ * <p>
+ * The entities map the column as nullable because {@code ddl-auto=update} cannot add a
+ * {@code NOT NULL} column to a table that already has rows. Old rows take their
+ * {@code created_at}, so calendar feeds and occupancy sync see them as unchanged since
+ * creation. Runs after Hibernate has updated the schema and before the web server
+ * accepts requests. All statements are idempotent.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class UpdatedAtBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpdatedAtBackfill.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UpdatedAtBackfill(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void backfill() {
+        backfill("reservations");
+        backfill("reservation_series");
+    }
+
+    private void backfill(String table) {
+        int rows = jdbcTemplate.update(
+                "UPDATE " + table + " SET updated_at = COALESCE(created_at, start_time) WHERE updated_at IS NULL");
+        if (rows > 0) {
+            logger.info("Backfilled updated_at of {} row(s) in {}", rows, table);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN updated_at SET NOT NULL");
+    }
+}
@@ -0,0 +1,9 @@
+package com.smartuniversity.booking.domain;
+
+/**
+ * Repetition unit of a recurring reservation series.
+ */
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -21,7 +22,12 @@ import java.util.UUID;
  * Reservation for a resource.
  */
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_tenant_start", columnList = "tenant_id, start_time"),
+        @Index(name = "idx_reservations_resource_start_id", columnList = "resource_id, start_time, id"),
+        @Index(name = "idx_reservations_resource_updated", columnList = "resource_id, updated_at"),
+        @Index(name = "idx_reservations_updated_id", columnList = "updated_at, id")
+})
 public class Reservation {
 
     @Id
@@ -44,6 +50,13 @@ public class Reservation {
     @Column(name = "end_time", nullable = false)
     private Instant endTime;
 
+    /**
+     * Seats taken on a shared resource, or {@code null} when the reservation takes the
+     * whole resource.
+     */
+    @Column(name = "seats")
+    private Integer seats;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private ReservationStatus status;
@@ -51,7 +64,11 @@ public class Reservation {
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
-    @Column(name = "updated_at", nullable = false)
+    /**
+     * Set on every write. Mapped as nullable so the schema update can add it to a table
+     * that has rows; {@code UpdatedAtBackfill} fills those and adds the constraint.
+     */
+    @Column(name = "updated_at")
     private Instant updatedAt;
 
     @PrePersist
@@ -114,6 +131,14 @@ public class Reservation {
         this.endTime = endTime;
     }
 
+    public Integer getSeats() {
+        return seats;
+    }
+
+    public void setSeats(Integer seats) {
+        this.seats = seats;
+    }
+
     public ReservationStatus getStatus() {
         return status;
     }
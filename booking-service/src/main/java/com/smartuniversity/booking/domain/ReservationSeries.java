@@ -0,0 +1,230 @@
+package com.smartuniversity.booking.domain;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Recurring reservation of a resource, e.g. a weekly lecture for a whole term.
+ * <p>
+ * Stored as a single row with its rule; occurrences are expanded on demand rather than
+ * materialized as individual {@link Reservation} rows.
+ */
+@Entity
+@Table(name = "reservation_series", indexes = {
+        @Index(name = "idx_reservation_series_resource_range", columnList = "resource_id, start_time, series_end"),
+        @Index(name = "idx_reservation_series_resource_updated", columnList = "resource_id, updated_at"),
+        @Index(name = "idx_reservation_series_updated", columnList = "updated_at")
+})
+public class ReservationSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "resource_id", nullable = false)
+    private Resource resource;
+
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    /** Start of the first occurrence. */
+    @Column(name = "start_time", nullable = false)
+    private Instant startTime;
+
+    /** End of the first occurrence. */
+    @Column(name = "end_time", nullable = false)
+    private Instant endTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RecurrenceFrequency frequency;
+
+    @Column(name = "repeat_interval", nullable = false)
+    private int interval = 1;
+
+    /** Last date (in {@link #timeZone}) on which an occurrence may start. */
+    @Column(name = "until_date", nullable = false)
+    private LocalDate untilDate;
+
+    @Column(name = "time_zone", nullable = false, length = 64)
+    private String timeZone = "UTC";
+
+    /** End of the last occurrence, kept so range queries can prune whole series. */
+    @Column(name = "series_end", nullable = false)
+    private Instant seriesEnd;
+
+    @ElementCollection
+    @CollectionTable(name = "reservation_series_exceptions", joinColumns = @JoinColumn(name = "series_id"))
+    @Column(name = "exception_date", nullable = false)
+    private Set<LocalDate> exceptionDates = new HashSet<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Set on every write. Mapped as nullable so the schema update can add it to a table
+     * that has rows; {@code UpdatedAtBackfill} fills those and adds the constraint.
+     */
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        Instant now = Instant.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = Instant.now();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public void setResource(Resource resource) {
+        this.resource = resource;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    public LocalDate getUntilDate() {
+        return untilDate;
+    }
+
+    public void setUntilDate(LocalDate untilDate) {
+        this.untilDate = untilDate;
+    }
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(String timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public Instant getSeriesEnd() {
+        return seriesEnd;
+    }
+
+    public void setSeriesEnd(Instant seriesEnd) {
+        this.seriesEnd = seriesEnd;
+    }
+
+    public Set<LocalDate> getExceptionDates() {
+        return exceptionDates;
+    }
+
+    public void setExceptionDates(Set<LocalDate> exceptionDates) {
+        this.exceptionDates = exceptionDates;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,92 @@
+package com.smartuniversity.booking.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Occupied 15-minute slots of a resource on one UTC day, as a 96-bit set split over
+ * two columns: slots 0-63 in {@code slotsLow} and 64-95 in {@code slotsHigh}.
+ * <p>
+ * Rows are a persisted copy of the in-memory bitsets and are written in batches; the
+ * reservations themselves remain the source of truth.
+ */
+@Entity
+@Table(name = "resource_day_occupancy")
+public class ResourceDayOccupancy implements Persistable<ResourceDayOccupancyId> {
+
+    @EmbeddedId
+    private ResourceDayOccupancyId id;
+
+    @Column(name = "slots_low", nullable = false)
+    private long slotsLow;
+
+    @Column(name = "slots_high", nullable = false)
+    private long slotsHigh;
+
+    /**
+     * Reservation changes up to this instant were applied when the row was written.
+     */
+    @Column(name = "synced_until", nullable = false)
+    private Instant syncedUntil;
+
+    @Transient
+    private boolean isNew = true;
+
+    protected ResourceDayOccupancy() {
+    }
+
+    public ResourceDayOccupancy(ResourceDayOccupancyId id) {
+        this.id = id;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public ResourceDayOccupancyId getId() {
+        return id;
+    }
+
+    /**
+     * Assigned ids would otherwise make every save a merge that selects the row first.
+     */
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public long getSlotsLow() {
+        return slotsLow;
+    }
+
+    public void setSlotsLow(long slotsLow) {
+        this.slotsLow = slotsLow;
+    }
+
+    public long getSlotsHigh() {
+        return slotsHigh;
+    }
+
+    public void setSlotsHigh(long slotsHigh) {
+        this.slotsHigh = slotsHigh;
+    }
+
+    public Instant getSyncedUntil() {
+        return syncedUntil;
+    }
+
+    public void setSyncedUntil(Instant syncedUntil) {
+        this.syncedUntil = syncedUntil;
+    }
+}
@@ -0,0 +1,54 @@
+package com.smartuniversity.booking.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Key of a {@link ResourceDayOccupancy} row: one resource on one UTC day.
+ */
+@Embeddable
+public class ResourceDayOccupancyId implements Serializable {
+
+    @Column(name = "resource_id", nullable = false)
+    private UUID resourceId;
+
+    @Column(name = "occupancy_date", nullable = false)
+    private LocalDate day;
+
+    protected ResourceDayOccupancyId() {
+    }
+
+    public ResourceDayOccupancyId(UUID resourceId, LocalDate day) {
+        this.resourceId = resourceId;
+        this.day = day;
+    }
+
+    public UUID getResourceId() {
+        return resourceId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ResourceDayOccupancyId other)) {
+            return false;
+        }
+        return resourceId.equals(other.resourceId) && day.equals(other.day);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(resourceId, day);
+    }
+}
@@ -0,0 +1,11 @@
+package com.smartuniversity.booking.domain;
+
+/**
+ * Status of a waitlist entry.
+ */
+public enum WaitlistStatus {
+    WAITING,
+    PROMOTED,
+    EXPIRED,
+    CANCELED
+}
@@ -0,0 +1,32 @@
+package com.smartuniversity.booking.messaging;
+
+import com.smartuniversity.booking.service.ReservationIntervalIndex;
+import com.smartuniversity.booking.service.WaitlistPromoter;
+import com.smartuniversity.common.events.ReservationCanceledEvent;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies cancellations made on any instance, this one included, to the local interval
+ * index. Otherwise the fast path would keep rejecting the freed window here, and
+ * waitlist entries joined on this instance would never be promoted into it.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.events.enabled", havingValue = "true")
+public class ReservationCanceledListener {
+
+    private final ReservationIntervalIndex intervalIndex;
+    private final WaitlistPromoter waitlistPromoter;
+
+    public ReservationCanceledListener(ReservationIntervalIndex intervalIndex, WaitlistPromoter waitlistPromoter) {
+        this.intervalIndex = intervalIndex;
+        this.waitlistPromoter = waitlistPromoter;
+    }
+
+    @RabbitListener(queues = "#{reservationCanceledQueue.name}")
+    public void onReservationCanceled(ReservationCanceledEvent event) {
+        intervalIndex.remove(event.resourceId(), event.reservationId());
+        waitlistPromoter.enqueue(event.resourceId());
+    }
+}
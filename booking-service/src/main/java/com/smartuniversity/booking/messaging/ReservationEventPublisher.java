@@ -0,0 +1,139 @@
+package com.smartuniversity.booking.messaging;
+
+import com.smartuniversity.booking.config.BookingMessagingConfig;
+import com.smartuniversity.common.events.ReservationCanceledEvent;
+import com.smartuniversity.common.events.ReservationCreatedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes reservation events to {@code university.events} off the request thread.
+ * <p>
+ * Committed events go into a bounded buffer. A single sender thread drains it in
+ * batches and publishes each batch back to back without waiting in between. Publisher
+ * confirms arrive asynchronously, one future per message. A nacked message is queued
+ * again until {@link #MAX_ATTEMPTS}. A permit per unconfirmed message caps how far the
+ * sender runs ahead of the broker, so only the sender thread ever waits.
+ * Requires {@code spring.rabbitmq.publisher-confirm-type=correlated}.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.events.enabled", havingValue = "true")
+public class ReservationEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationEventPublisher.class);
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final BlockingQueue<Outbound> buffer;
+    private final Semaphore unconfirmed;
+    private final int batchSize;
+    private final Thread sender;
+    private volatile boolean running = true;
+
+    public ReservationEventPublisher(RabbitTemplate rabbitTemplate,
+            @Value("${booking.events.buffer-capacity:10000}") int bufferCapacity,
+            @Value("${booking.events.batch-size:100}") int batchSize,
+            @Value("${booking.events.max-unconfirmed:1000}") int maxUnconfirmed) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.buffer = new LinkedBlockingQueue<>(bufferCapacity);
+        this.unconfirmed = new Semaphore(maxUnconfirmed);
+        this.batchSize = batchSize;
+        this.sender = new Thread(this::run, "booking-event-publisher");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    @TransactionalEventListener
+    public void onReservationCreated(ReservationCreatedEvent event) {
+        enqueue(new Outbound(BookingMessagingConfig.RESERVATION_CREATED_ROUTING_KEY, event, 1));
+    }
+
+    @TransactionalEventListener
+    public void onReservationCanceled(ReservationCanceledEvent event) {
+        enqueue(new Outbound(BookingMessagingConfig.RESERVATION_CANCELED_ROUTING_KEY, event, 1));
+    }
+
+    private void enqueue(Outbound message) {
+        // Never block a committing request; a full buffer means the broker is far behind
+        if (!buffer.offer(message)) {
+            logger.warn("Event buffer full, dropping {} event", message.routingKey());
+        }
+    }
+
+    private void run() {
+        List<Outbound> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                Outbound first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                for (Outbound message : batch) {
+                    unconfirmed.acquire();
+                    send(message);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(Outbound message) {
+        CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+        correlation.getFuture().whenComplete((confirm, failure) -> {
+            unconfirmed.release();
+            if (failure == null && confirm.isAck()) {
+                return;
+            }
+            String reason = failure != null ? failure.getMessage() : confirm.getReason();
+            retry(message, reason);
+        });
+        try {
+            rabbitTemplate.convertAndSend(BookingMessagingConfig.EXCHANGE_NAME, message.routingKey(),
+                    message.payload(), correlation);
+        } catch (AmqpException ex) {
+            // No confirm will come for a message that never left
+            unconfirmed.release();
+            retry(message, ex.getMessage());
+        }
+    }
+
+    private void retry(Outbound message, String reason) {
+        if (message.attempt() >= MAX_ATTEMPTS) {
+            logger.warn("Giving up on {} event after {} attempts: {}", message.routingKey(), message.attempt(), reason);
+            return;
+        }
+        enqueue(new Outbound(message.routingKey(), message.payload(), message.attempt() + 1));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        sender.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private record Outbound(String routingKey, Object payload, int attempt) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.smartuniversity.booking.messaging;
+
+import com.smartuniversity.booking.config.BookingMessagingConfig;
+import com.smartuniversity.common.events.ResourceCatalogChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Tells the other instances that a tenant's resource catalog changed.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.resource-cache.broadcast.enabled", havingValue = "true")
+public class ResourceCatalogBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceCatalogBroadcaster.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public ResourceCatalogBroadcaster(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    public void publish(String tenantId) {
+        try {
+            rabbitTemplate.convertAndSend(
+                    BookingMessagingConfig.EXCHANGE_NAME,
+                    BookingMessagingConfig.RESOURCE_CATALOG_CHANGED_ROUTING_KEY,
+                    new ResourceCatalogChangedEvent(tenantId, Instant.now()));
+        } catch (AmqpException ex) {
+            // The resource is already committed; other instances catch up on their next eviction
+            logger.warn("Failed to broadcast resource catalog change for tenant {}", tenantId, ex);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.smartuniversity.booking.messaging;
+
+import com.smartuniversity.booking.service.ResourceCatalogCache;
+import com.smartuniversity.common.events.ResourceCatalogChangedEvent;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the local catalog copy when any instance, this one included, changes it.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.resource-cache.broadcast.enabled", havingValue = "true")
+public class ResourceCatalogInvalidationListener {
+
+    private final ResourceCatalogCache resourceCatalogCache;
+
+    public ResourceCatalogInvalidationListener(ResourceCatalogCache resourceCatalogCache) {
+        this.resourceCatalogCache = resourceCatalogCache;
+    }
+
+    @RabbitListener(queues = "#{resourceCatalogInvalidationQueue.name}")
+    public void onResourceCatalogChanged(ResourceCatalogChangedEvent event) {
+        resourceCatalogCache.evict(event.tenantId());
+    }
+}
@@ -0,0 +1,10 @@
+package com.smartuniversity.booking.repository;
+
+import java.time.Instant;
+
+/**
+ * Row count and latest {@code updated_at} of a resource's bookings; changes whenever a
+ * booking is added or modified. {@code lastUpdated} is {@code null} when there are none.
+ */
+public record ChangeStamp(long count, Instant lastUpdated) {
+}
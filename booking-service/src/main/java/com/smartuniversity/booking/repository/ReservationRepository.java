@@ -2,31 +2,137 @@ package com.smartuniversity.booking.repository;
 
 import com.smartuniversity.booking.domain.Reservation;
 import com.smartuniversity.booking.domain.ReservationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import jakarta.persistence.LockModeType;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ReservationRepository extends JpaRepository<Reservation, UUID> {
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Reservation> findByIdAndTenantId(UUID id, String tenantId);
+
     @Query("""
-            select r from Reservation r
+            select new com.smartuniversity.booking.repository.ReservationWindow(r.id, r.resource.id, r.startTime, r.endTime, r.seats)
+            from Reservation r
             where r.resource.id = :resourceId
-              and r.tenantId = :tenantId
               and r.status = :status
-              and r.endTime > :startTime
-              and r.startTime < :endTime
+              and r.endTime > :after
             """)
-    List<Reservation> findOverlappingReservationsForUpdate(
+    List<ReservationWindow> findWindowsByResourceEndingAfter(
             @Param("resourceId") UUID resourceId,
+            @Param("status") ReservationStatus status,
+            @Param("after") Instant after);
+
+    @Query("""
+            select new com.smartuniversity.booking.repository.ReservationWindow(r.id, r.resource.id, r.startTime, r.endTime, r.seats)
+            from Reservation r
+            where r.tenantId = :tenantId
+              and r.status = :status
+              and r.endTime > :from
+              and r.startTime < :to
+            order by r.resource.id, r.startTime
+            """)
+    List<ReservationWindow> findWindowsByTenantBetween(
             @Param("tenantId") String tenantId,
             @Param("status") ReservationStatus status,
-            @Param("startTime") Instant startTime,
-            @Param("endTime") Instant endTime);
-}
\ No newline at end of file
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    @Query("""
+            select new com.smartuniversity.booking.repository.ReservationWindow(r.id, r.resource.id, r.startTime, r.endTime, r.seats)
+            from Reservation r
+            where r.resource.id = :resourceId
+              and r.status = :status
+              and r.endTime > :from
+              and r.startTime < :to
+            """)
+    List<ReservationWindow> findWindowsByResourceBetween(
+            @Param("resourceId") UUID resourceId,
+            @Param("status") ReservationStatus status,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    /**
+     * First page of a resource's reservations starting in {@code [from, to)}, in
+     * (start time, id) order. Served by {@code idx_reservations_resource_start_id}.
+     */
+    @Query("""
+            select r from Reservation r
+            where r.resource.id = :resourceId
+              and r.tenantId = :tenantId
+              and r.startTime >= :from
+              and r.startTime < :to
+            order by r.startTime, r.id
+            """)
+    List<Reservation> findPageByResource(
+            @Param("resourceId") UUID resourceId,
+            @Param("tenantId") String tenantId,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            Pageable pageable);
+
+    /**
+     * Next page after the keyset {@code (afterStart, afterId)}. The redundant
+     * {@code startTime >= afterStart} term keeps the predicate an index range scan.
+     */
+    @Query("""
+            select r from Reservation r
+            where r.resource.id = :resourceId
+              and r.tenantId = :tenantId
+              and r.startTime >= :afterStart
+              and (r.startTime > :afterStart or r.id > :afterId)
+              and r.startTime < :to
+            order by r.startTime, r.id
+            """)
+    List<Reservation> findPageByResourceAfter(
+            @Param("resourceId") UUID resourceId,
+            @Param("tenantId") String tenantId,
+            @Param("afterStart") Instant afterStart,
+            @Param("afterId") UUID afterId,
+            @Param("to") Instant to,
+            Pageable pageable);
+
+    @Query("""
+            select r from Reservation r
+            where r.resource.id = :resourceId
+            order by r.startTime, r.id
+            """)
+    List<Reservation> findAllByResourceId(@Param("resourceId") UUID resourceId);
+
+    @Query("""
+            select r from Reservation r
+            where r.resource.id = :resourceId
+              and r.updatedAt > :since
+            order by r.updatedAt
+            """)
+    List<Reservation> findChangedSince(
+            @Param("resourceId") UUID resourceId,
+            @Param("since") Instant since);
+
+    @Query("""
+            select new com.smartuniversity.booking.repository.ChangeStamp(count(r), max(r.updatedAt))
+            from Reservation r
+            where r.resource.id = :resourceId
+            """)
+    ChangeStamp findChangeStamp(@Param("resourceId") UUID resourceId);
+
+    /**
+     * Reservations of every resource changed after the keyset {@code (afterUpdated, afterId)},
+     * in (updated at, id) order. Served by {@code idx_reservations_updated_id}.
+     */
+    @Query("""
+            select r from Reservation r
+            where r.updatedAt >= :afterUpdated
+              and (r.updatedAt > :afterUpdated or r.id > :afterId)
+            order by r.updatedAt, r.id
+            """)
+    List<Reservation> findChangedAfter(
+            @Param("afterUpdated") Instant afterUpdated,
+            @Param("afterId") UUID afterId,
+            Pageable pageable);
+}
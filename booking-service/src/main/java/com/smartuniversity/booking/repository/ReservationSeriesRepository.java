@@ -0,0 +1,76 @@
+package com.smartuniversity.booking.repository;
+
+import com.smartuniversity.booking.domain.ReservationSeries;
+import com.smartuniversity.booking.domain.ReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReservationSeriesRepository extends JpaRepository<ReservationSeries, UUID> {
+
+    Optional<ReservationSeries> findByIdAndTenantId(UUID id, String tenantId);
+
+    @Query("""
+            select distinct s from ReservationSeries s
+            left join fetch s.exceptionDates
+            where s.resource.id = :resourceId
+              and s.status = :status
+              and s.seriesEnd > :from
+              and s.startTime < :to
+            """)
+    List<ReservationSeries> findByResourceBetween(
+            @Param("resourceId") UUID resourceId,
+            @Param("status") ReservationStatus status,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    @Query("""
+            select distinct s from ReservationSeries s
+            left join fetch s.exceptionDates
+            where s.tenantId = :tenantId
+              and s.status = :status
+              and s.seriesEnd > :from
+              and s.startTime < :to
+            """)
+    List<ReservationSeries> findByTenantBetween(
+            @Param("tenantId") String tenantId,
+            @Param("status") ReservationStatus status,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    @Query("""
+            select distinct s from ReservationSeries s
+            left join fetch s.exceptionDates
+            where s.resource.id = :resourceId
+            """)
+    List<ReservationSeries> findAllByResourceId(@Param("resourceId") UUID resourceId);
+
+    @Query("""
+            select distinct s from ReservationSeries s
+            left join fetch s.exceptionDates
+            where s.resource.id = :resourceId
+              and s.updatedAt > :since
+            """)
+    List<ReservationSeries> findChangedSince(
+            @Param("resourceId") UUID resourceId,
+            @Param("since") Instant since);
+
+    @Query("""
+            select new com.smartuniversity.booking.repository.ChangeStamp(count(s), max(s.updatedAt))
+            from ReservationSeries s
+            where s.resource.id = :resourceId
+            """)
+    ChangeStamp findChangeStamp(@Param("resourceId") UUID resourceId);
+
+    @Query("""
+            select distinct s from ReservationSeries s
+            left join fetch s.exceptionDates
+            where s.updatedAt > :since
+            """)
+    List<ReservationSeries> findAllChangedSince(@Param("since") Instant since);
+}
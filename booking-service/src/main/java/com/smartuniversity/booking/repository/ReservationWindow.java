@@ -0,0 +1,12 @@
+package com.smartuniversity.booking.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lightweight projection of a reservation's time window, used by read paths that
+ * do not need the full {@code Reservation} entity. {@code seats} is {@code null} when
+ * the window takes the whole resource.
+ */
+public record ReservationWindow(UUID id, UUID resourceId, Instant startTime, Instant endTime, Integer seats) {
+}
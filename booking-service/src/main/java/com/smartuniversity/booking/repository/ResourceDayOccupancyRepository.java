@@ -0,0 +1,17 @@
+package com.smartuniversity.booking.repository;
+
+import com.smartuniversity.booking.domain.ResourceDayOccupancy;
+import com.smartuniversity.booking.domain.ResourceDayOccupancyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+
+public interface ResourceDayOccupancyRepository extends JpaRepository<ResourceDayOccupancy, ResourceDayOccupancyId> {
+
+    /**
+     * Watermark of the most recent batch write, or {@code null} when nothing was written yet.
+     */
+    @Query("select max(o.syncedUntil) from ResourceDayOccupancy o")
+    Instant findSyncedUntil();
+}
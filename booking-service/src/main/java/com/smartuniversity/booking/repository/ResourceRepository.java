@@ -26,4 +26,14 @@ public interface ResourceRepository extends JpaRepository<Resource, UUID> {
     Optional<Resource> findByIdAndTenantIdForUpdate(
             @Param("id") UUID id,
             @Param("tenantId") String tenantId);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("""
+            select r from Resource r
+            where r.id = :id
+              and r.tenantId = :tenantId
+            """)
+    Optional<Resource> findByIdAndTenantIdForShare(
+            @Param("id") UUID id,
+            @Param("tenantId") String tenantId);
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.smartuniversity.booking.repository;
+
+import com.smartuniversity.booking.domain.WaitlistEntry;
+import com.smartuniversity.booking.domain.WaitlistStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, UUID> {
+
+    Optional<WaitlistEntry> findByIdAndTenantId(UUID id, String tenantId);
+
+    /**
+     * Entries of a resource in promotion (FIFO) order. Served by
+     * {@code idx_reservation_waitlist_resource_status_created}.
+     */
+    @Query("""
+            select w from WaitlistEntry w
+            where w.resource.id = :resourceId
+              and w.status = :status
+            order by w.createdAt, w.id
+            """)
+    List<WaitlistEntry> findByResourceInOrder(
+            @Param("resourceId") UUID resourceId,
+            @Param("status") WaitlistStatus status,
+            Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from WaitlistEntry w where w.id = :id")
+    Optional<WaitlistEntry> findByIdForUpdate(@Param("id") UUID id);
+}
@@ -0,0 +1,162 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.ReservationStatus;
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.web.dto.FreeWindowDto;
+import com.smartuniversity.booking.web.dto.ResourceAvailabilityDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Computes free windows for all matching resources of a tenant.
+ * <p>
+ * Uses a fixed number of queries regardless of the number of resources: one for the
+ * resources, one for the tenant's reservations in the window and one for its recurring
+ * series. Windows are ordered by resource and start time so that a single sweep yields
+ * the free windows and the seats left in each.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final Comparator<ReservationWindow> WINDOW_ORDER =
+            Comparator.comparing(ReservationWindow::resourceId).thenComparing(ReservationWindow::startTime);
+
+    private final ResourceRepository resourceRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationSeriesService seriesService;
+
+    public AvailabilityService(ResourceRepository resourceRepository,
+            ReservationRepository reservationRepository,
+            ReservationSeriesService seriesService) {
+        this.resourceRepository = resourceRepository;
+        this.reservationRepository = reservationRepository;
+        this.seriesService = seriesService;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ResourceAvailabilityDto> findAvailability(String tenantId, Instant from, Instant to,
+            String type, Integer minCapacity) {
+        if (!to.isAfter(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must be after 'from'");
+        }
+
+        Map<UUID, Resource> matching = new HashMap<>();
+        for (Resource resource : resourceRepository.findAllByTenantId(tenantId)) {
+            if (type != null && !type.equalsIgnoreCase(resource.getType())) {
+                continue;
+            }
+            if (minCapacity != null && (resource.getCapacity() == null || resource.getCapacity() < minCapacity)) {
+                continue;
+            }
+            matching.put(resource.getId(), resource);
+        }
+        if (matching.isEmpty()) {
+            return List.of();
+        }
+
+        List<ReservationWindow> windows = new ArrayList<>(reservationRepository.findWindowsByTenantBetween(
+                tenantId, ReservationStatus.CREATED, from, to));
+        List<ReservationWindow> occurrences = seriesService.occurrencesForTenant(tenantId, from, to);
+        if (!occurrences.isEmpty()) {
+            windows.addAll(occurrences);
+            windows.sort(WINDOW_ORDER);
+        }
+        Map<UUID, Integer> capacities = new HashMap<>();
+        for (Resource resource : matching.values()) {
+            capacities.put(resource.getId(), ReservationIntervalIndex.ResourceIntervals.of(resource).capacity());
+        }
+        Map<UUID, List<FreeWindowDto>> freeByResource = sweep(windows, capacities, from, to);
+
+        List<ResourceAvailabilityDto> result = new ArrayList<>(matching.size());
+        for (Resource resource : matching.values()) {
+            result.add(new ResourceAvailabilityDto(
+                    resource.getId(),
+                    resource.getName(),
+                    resource.getType(),
+                    resource.getCapacity(),
+                    freeByResource.get(resource.getId())));
+        }
+        result.sort(Comparator.comparing(ResourceAvailabilityDto::getName));
+        return result;
+    }
+
+    /**
+     * Single pass over windows sorted by (resourceId, startTime). The windows of each
+     * resource become seat deltas clipped to {@code [from, to)}; walking them in time order
+     * gives the occupancy between consecutive events, and every stretch below capacity is
+     * free, split wherever the number of free seats changes. A window without seats takes
+     * the whole resource. Resources that never appear in the windows stay fully free.
+     */
+    static Map<UUID, List<FreeWindowDto>> sweep(List<ReservationWindow> windows, Map<UUID, Integer> capacities,
+            Instant from, Instant to) {
+        Map<UUID, List<FreeWindowDto>> free = new HashMap<>();
+        UUID current = null;
+        NavigableMap<Instant, Integer> deltas = new TreeMap<>();
+        for (ReservationWindow window : windows) {
+            Integer capacity = capacities.get(window.resourceId());
+            if (capacity == null) {
+                continue;
+            }
+            if (!window.resourceId().equals(current)) {
+                closeOut(free, current, deltas, capacities, from, to);
+                current = window.resourceId();
+                deltas.clear();
+            }
+            int taken = window.seats() != null ? Math.min(window.seats(), capacity) : capacity;
+            deltas.merge(window.startTime().isAfter(from) ? window.startTime() : from, taken, Integer::sum);
+            deltas.merge(window.endTime().isBefore(to) ? window.endTime() : to, -taken, Integer::sum);
+        }
+        closeOut(free, current, deltas, capacities, from, to);
+
+        for (Map.Entry<UUID, Integer> resource : capacities.entrySet()) {
+            free.computeIfAbsent(resource.getKey(),
+                    id -> new ArrayList<>(List.of(new FreeWindowDto(from, to, resource.getValue()))));
+        }
+        return free;
+    }
+
+    private static void closeOut(Map<UUID, List<FreeWindowDto>> free, UUID resourceId,
+            NavigableMap<Instant, Integer> deltas, Map<UUID, Integer> capacities, Instant from, Instant to) {
+        if (resourceId == null) {
+            return;
+        }
+        int capacity = capacities.get(resourceId);
+        List<FreeWindowDto> windows = new ArrayList<>();
+        Instant cursor = from;
+        int occupancy = 0;
+        for (Map.Entry<Instant, Integer> delta : deltas.entrySet()) {
+            addFree(windows, cursor, delta.getKey(), capacity - occupancy);
+            occupancy += delta.getValue();
+            cursor = delta.getKey();
+        }
+        addFree(windows, cursor, to, capacity - occupancy);
+        free.put(resourceId, windows);
+    }
+
+    private static void addFree(List<FreeWindowDto> windows, Instant start, Instant end, int seats) {
+        if (!end.isAfter(start) || seats <= 0) {
+            return;
+        }
+        FreeWindowDto last = windows.isEmpty() ? null : windows.get(windows.size() - 1);
+        if (last != null && last.getEndTime().equals(start) && last.getAvailableSeats() == seats) {
+            last.setEndTime(end);
+        } else {
+            windows.add(new FreeWindowDto(start, end, seats));
+        }
+    }
+}
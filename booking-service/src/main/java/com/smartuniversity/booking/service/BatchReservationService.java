@@ -0,0 +1,209 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.Reservation;
+import com.smartuniversity.booking.domain.ReservationStatus;
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.web.dto.BatchItemStatus;
+import com.smartuniversity.booking.web.dto.BatchMode;
+import com.smartuniversity.booking.web.dto.BatchReservationItemResult;
+import com.smartuniversity.booking.web.dto.BatchReservationRequest;
+import com.smartuniversity.booking.web.dto.BatchReservationResponse;
+import com.smartuniversity.booking.web.dto.CreateReservationRequest;
+import com.smartuniversity.booking.web.dto.ReservationDto;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Books many reservations in one transaction.
+ * <p>
+ * Items are grouped by resource and each resource is locked once, in id order so that
+ * concurrent batches cannot deadlock. Overlaps against the database and within the batch
+ * are then checked in memory, and all inserts are flushed together as a JDBC batch.
+ */
+@Service
+public class BatchReservationService {
+
+    private final ResourceRepository resourceRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationIntervalIndex intervalIndex;
+    private final ReservationSeriesService seriesService;
+    private final HoldRegistry holdRegistry;
+    private final OccupancyBitsets occupancyBitsets;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BatchReservationService(ResourceRepository resourceRepository,
+            ReservationRepository reservationRepository,
+            ReservationIntervalIndex intervalIndex,
+            ReservationSeriesService seriesService,
+            HoldRegistry holdRegistry,
+            OccupancyBitsets occupancyBitsets,
+            ApplicationEventPublisher eventPublisher) {
+        this.resourceRepository = resourceRepository;
+        this.reservationRepository = reservationRepository;
+        this.intervalIndex = intervalIndex;
+        this.seriesService = seriesService;
+        this.holdRegistry = holdRegistry;
+        this.occupancyBitsets = occupancyBitsets;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public BatchReservationResponse createReservations(BatchReservationRequest request, UUID userId, String tenantId) {
+        List<CreateReservationRequest> items = request.getItems();
+        BatchMode mode = request.getMode() != null ? request.getMode() : BatchMode.ALL_OR_NOTHING;
+        BatchReservationItemResult[] results = new BatchReservationItemResult[items.size()];
+
+        Map<UUID, List<Integer>> byResource = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            CreateReservationRequest item = items.get(i);
+            if (!item.getEndTime().isAfter(item.getStartTime())) {
+                results[i] = new BatchReservationItemResult(i, BatchItemStatus.INVALID,
+                        "End time must be after start time", null);
+                continue;
+            }
+            byResource.computeIfAbsent(item.getResourceId(), id -> new ArrayList<>()).add(i);
+        }
+
+        Map<Integer, Resource> accepted = new LinkedHashMap<>();
+        Map<Integer, Integer> normalizedSeats = new HashMap<>();
+        for (Map.Entry<UUID, List<Integer>> entry : byResource.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            Optional<Resource> resource = resourceRepository.findByIdAndTenantIdForUpdate(entry.getKey(), tenantId);
+            if (resource.isEmpty()) {
+                for (int i : indexes) {
+                    results[i] = new BatchReservationItemResult(i, BatchItemStatus.NOT_FOUND, "Resource not found", null);
+                }
+                continue;
+            }
+
+            Instant from = items.get(indexes.get(0)).getStartTime();
+            Instant to = items.get(indexes.get(0)).getEndTime();
+            for (int i : indexes) {
+                from = min(from, items.get(i).getStartTime());
+                to = max(to, items.get(i).getEndTime());
+            }
+
+            // The resource row lock serializes every writer of this resource, so a plain read is enough here
+            ReservationIntervalIndex.ResourceIntervals intervals =
+                    ReservationIntervalIndex.ResourceIntervals.of(resource.get());
+            for (ReservationWindow window : reservationRepository.findWindowsByResourceBetween(
+                    entry.getKey(), ReservationStatus.CREATED, from, to)) {
+                intervals.add(new ReservationIntervalIndex.Interval(window.id(), window.startTime(), window.endTime(),
+                        window.seats()));
+            }
+            for (ReservationWindow occurrence : seriesService.occurrencesOnResource(entry.getKey(), from, to)) {
+                intervals.add(new ReservationIntervalIndex.Interval(null, occurrence.startTime(), occurrence.endTime(),
+                        null));
+            }
+            // Other users' holds count as taken, as for a single reservation
+            holdRegistry.addActiveHolds(entry.getKey(), from, to, intervals, null);
+
+            for (int i : indexes) {
+                CreateReservationRequest item = items.get(i);
+                if (item.getSeats() != null && item.getSeats() > intervals.capacity()) {
+                    results[i] = new BatchReservationItemResult(i, BatchItemStatus.INVALID,
+                            "Resource has only " + intervals.capacity() + " seat(s)", null);
+                } else if (!intervals.fits(item.getStartTime(), item.getEndTime(), item.getSeats())) {
+                    results[i] = new BatchReservationItemResult(i, BatchItemStatus.CONFLICT,
+                            "Resource already reserved for requested period", null);
+                } else {
+                    Integer seats = intervals.normalizeSeats(item.getSeats());
+                    intervals.add(new ReservationIntervalIndex.Interval(null, item.getStartTime(), item.getEndTime(),
+                            seats));
+                    accepted.put(i, resource.get());
+                    normalizedSeats.put(i, seats);
+                }
+            }
+        }
+
+        int rejected = items.size() - accepted.size();
+        if (mode == BatchMode.ALL_OR_NOTHING && rejected > 0) {
+            for (int i : accepted.keySet()) {
+                results[i] = new BatchReservationItemResult(i, BatchItemStatus.ABORTED,
+                        "Not created because other items were rejected", null);
+            }
+            return new BatchReservationResponse(mode, 0, rejected, Arrays.asList(results));
+        }
+
+        List<Reservation> reservations = new ArrayList<>(accepted.size());
+        for (Map.Entry<Integer, Resource> entry : accepted.entrySet()) {
+            CreateReservationRequest item = items.get(entry.getKey());
+            Reservation reservation = new Reservation();
+            reservation.setResource(entry.getValue());
+            reservation.setTenantId(tenantId);
+            reservation.setUserId(userId);
+            reservation.setStartTime(item.getStartTime());
+            reservation.setEndTime(item.getEndTime());
+            reservation.setSeats(normalizedSeats.get(entry.getKey()));
+            reservation.setStatus(ReservationStatus.CREATED);
+            reservations.add(reservation);
+        }
+
+        // One flush sends the inserts grouped by hibernate.jdbc.batch_size, so a constraint
+        // violation surfaces here rather than at commit
+        List<Reservation> saved;
+        try {
+            saved = reservationRepository.saveAllAndFlush(reservations);
+        } catch (DataIntegrityViolationException ex) {
+            if (BookingService.isExclusionViolation(ex)) {
+                throw conflict(reservations);
+            }
+            throw ex;
+        }
+        int position = 0;
+        for (int i : accepted.keySet()) {
+            Reservation reservation = saved.get(position++);
+            UUID resourceId = reservation.getResource().getId();
+            intervalIndex.addAfterCommit(resourceId, reservation.getId(), reservation.getStartTime(), reservation.getEndTime(),
+                    reservation.getSeats());
+            occupancyBitsets.markAfterCommit(resourceId, reservation.getStartTime(), reservation.getEndTime());
+            eventPublisher.publishEvent(BookingService.createdEvent(reservation));
+            results[i] = new BatchReservationItemResult(i, BatchItemStatus.CREATED, null, new ReservationDto(
+                    reservation.getId(),
+                    resourceId,
+                    reservation.getUserId(),
+                    reservation.getStartTime(),
+                    reservation.getEndTime(),
+                    reservation.getSeats(),
+                    reservation.getStatus()));
+        }
+        return new BatchReservationResponse(mode, saved.size(), rejected, Arrays.asList(results));
+    }
+
+    /**
+     * The exclusion constraint only covers whole-resource bookings and the failed batch
+     * does not say which one it rejected, so the first of them is reported.
+     */
+    private static ReservationConflictException conflict(List<Reservation> reservations) {
+        Reservation reported = reservations.stream()
+                .filter(reservation -> reservation.getSeats() == null)
+                .findFirst()
+                .orElse(reservations.get(0));
+        return new ReservationConflictException(reported.getResource().getId(), reported.getTenantId(),
+                reported.getStartTime(), reported.getEndTime(), reported.getSeats());
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -4,42 +4,80 @@ import com.smartuniversity.booking.domain.Reservation;
 import com.smartuniversity.booking.domain.ReservationStatus;
 import com.smartuniversity.booking.domain.Resource;
 import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
 import com.smartuniversity.booking.repository.ResourceRepository;
 import com.smartuniversity.booking.web.dto.CreateReservationRequest;
 import com.smartuniversity.booking.web.dto.ResourceDto;
 import com.smartuniversity.booking.web.dto.CreateResourceRequest;
 import com.smartuniversity.booking.web.dto.ReservationDto;
+import com.smartuniversity.booking.web.dto.ReservationPageDto;
+import com.smartuniversity.common.events.ReservationCanceledEvent;
+import com.smartuniversity.common.events.ReservationCreatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class BookingService {
 
+    /** PostgreSQL SQLSTATE for exclusion_violation. */
+    private static final String EXCLUSION_VIOLATION_SQL_STATE = "23P01";
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    /** Time spent acquiring the resource row lock in {@link #createReservation}. */
+    public static final String LOCK_WAIT_METRIC = "booking.reservation.lock.wait";
+
     private final ResourceRepository resourceRepository;
     private final ReservationRepository reservationRepository;
+    private final ReservationIntervalIndex intervalIndex;
+    private final ReservationSeriesService seriesService;
+    private final OverbookingMode overbookingMode;
+    private final ResourceCatalogCache resourceCatalogCache;
+    private final HoldRegistry holdRegistry;
+    private final OccupancyBitsets occupancyBitsets;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer lockWaitTimer;
 
     public BookingService(ResourceRepository resourceRepository,
-            ReservationRepository reservationRepository) {
+            ReservationRepository reservationRepository,
+            ReservationIntervalIndex intervalIndex,
+            ReservationSeriesService seriesService,
+            @Value("${booking.overbooking.mode:lock}") String overbookingMode,
+            ResourceCatalogCache resourceCatalogCache,
+            HoldRegistry holdRegistry,
+            OccupancyBitsets occupancyBitsets,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
         this.resourceRepository = resourceRepository;
         this.reservationRepository = reservationRepository;
-    }
-
-    @Transactional(readOnly = true)
-    public List<ResourceDto> listResources(String tenantId) {
-        return resourceRepository.findAllByTenantId(tenantId).stream()
-                .map(resource -> new ResourceDto(
-                        resource.getId(),
-                        resource.getName(),
-                        resource.getType(),
-                        resource.getCapacity()))
-                .collect(Collectors.toList());
+        this.intervalIndex = intervalIndex;
+        this.seriesService = seriesService;
+        this.overbookingMode = OverbookingMode.valueOf(overbookingMode.trim().toUpperCase(Locale.ROOT));
+        this.resourceCatalogCache = resourceCatalogCache;
+        this.holdRegistry = holdRegistry;
+        this.occupancyBitsets = occupancyBitsets;
+        this.eventPublisher = eventPublisher;
+        this.lockWaitTimer = Timer.builder(LOCK_WAIT_METRIC)
+                .description("Time spent waiting for the resource row lock when creating a reservation")
+                .register(meterRegistry);
     }
 
     @Transactional
@@ -51,30 +89,131 @@ public class BookingService {
         resource.setCapacity(request.getCapacity());
 
         Resource saved = resourceRepository.save(resource);
-        return new ResourceDto(saved.getId(), saved.getName(), saved.getType(), saved.getCapacity());
+        resourceCatalogCache.invalidateAfterCommit(tenantId);
+        return toResourceDto(saved);
     }
 
     @Transactional
     public ReservationDto createReservation(CreateReservationRequest request, UUID userId, String tenantId) {
+        return create(request, userId, tenantId, null);
+    }
+
+    /**
+     * Cancels one of the caller's reservations. Cancelling twice is a no-op. Once the
+     * cancellation commits, the freed time is offered to the resource's waitlist.
+     */
+    @Transactional
+    public ReservationDto cancelReservation(UUID reservationId, UUID userId, String tenantId) {
+        Reservation reservation = reservationRepository.findByIdAndTenantId(reservationId, tenantId)
+                .filter(candidate -> candidate.getUserId().equals(userId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reservation not found"));
+        if (reservation.getStatus() == ReservationStatus.CANCELED) {
+            return toDto(reservation);
+        }
+        reservation.setStatus(ReservationStatus.CANCELED);
+
+        UUID resourceId = reservation.getResource().getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                intervalIndex.remove(resourceId, reservationId);
+            }
+        });
+        eventPublisher.publishEvent(new ReservationSlotReleasedEvent(resourceId));
+        eventPublisher.publishEvent(new ReservationCanceledEvent(reservation.getId(), resourceId,
+                reservation.getUserId(), reservation.getTenantId(), reservation.getStartTime(),
+                reservation.getEndTime(), Instant.now()));
+        return toDto(reservation);
+    }
+
+    /**
+     * Turns a hold into a reservation. The hold keeps other users off the slot, so the
+     * resource lock is normally uncontended and held only for the insert.
+     */
+    @Transactional
+    public ReservationDto confirmHold(UUID holdId, UUID userId, String tenantId) {
+        HoldRegistry.Hold hold = holdRegistry.find(holdId)
+                .filter(candidate -> candidate.tenantId().equals(tenantId) && candidate.userId().equals(userId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Hold not found or expired"));
+
+        CreateReservationRequest request = new CreateReservationRequest();
+        request.setResourceId(hold.resourceId());
+        request.setStartTime(hold.startTime());
+        request.setEndTime(hold.endTime());
+        request.setSeats(hold.seats());
+        ReservationDto reservation = create(request, userId, tenantId, holdId);
+
+        // On rollback the hold stays until it expires, so the user can retry
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                holdRegistry.release(holdId);
+            }
+        });
+        return reservation;
+    }
+
+    private ReservationDto create(CreateReservationRequest request, UUID userId, String tenantId, UUID confirmedHoldId) {
         if (request.getEndTime().isBefore(request.getStartTime())
                 || request.getEndTime().equals(request.getStartTime())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "End time must be after start time");
         }
 
-        Resource resource = resourceRepository.findByIdAndTenantIdForUpdate(request.getResourceId(), tenantId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Resource not found"));
-
         Instant start = request.getStartTime();
         Instant end = request.getEndTime();
 
-        List<Reservation> overlapping = reservationRepository.findOverlappingReservationsForUpdate(
-                resource.getId(),
-                tenantId,
-                ReservationStatus.CREATED,
-                start,
-                end);
-        if (!overlapping.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Resource already reserved for requested period");
+        // Fast path: reject known conflicts from memory so only likely winners queue on the row lock
+        if (intervalIndex.hasConflict(request.getResourceId(), tenantId, start, end, request.getSeats())
+                || holdRegistry.hasConflict(request.getResourceId(), tenantId, start, end, request.getSeats(),
+                        confirmedHoldId)) {
+            throw conflict(request, tenantId);
+        }
+
+        Resource resource;
+        ReservationIntervalIndex.ResourceIntervals occupancy;
+        Integer seats;
+        boolean guardedByConstraint = false;
+        if (overbookingMode == OverbookingMode.CONSTRAINT) {
+            resource = resourceRepository.findByIdAndTenantId(request.getResourceId(), tenantId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Resource not found"));
+            occupancy = ReservationIntervalIndex.ResourceIntervals.of(resource);
+            seats = validateSeats(request.getSeats(), occupancy);
+            if (seats == null) {
+                // Whole-resource bookings are guarded by the exclusion constraint and only need to
+                // exclude writers it does not see: seat bookings and series, which both take the
+                // row lock. A share lock keeps them out while letting other whole-resource bookings
+                // proceed in parallel.
+                guardedByConstraint = true;
+                lockWaitTimer.record(
+                        () -> resourceRepository.findByIdAndTenantIdForShare(request.getResourceId(), tenantId));
+            } else {
+                lockWaitTimer.record(
+                        () -> resourceRepository.findByIdAndTenantIdForUpdate(request.getResourceId(), tenantId));
+            }
+        } else {
+            resource = lockWaitTimer.record(
+                    () -> resourceRepository.findByIdAndTenantIdForUpdate(request.getResourceId(), tenantId))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Resource not found"));
+            occupancy = ReservationIntervalIndex.ResourceIntervals.of(resource);
+            seats = validateSeats(request.getSeats(), occupancy);
+        }
+
+        if (!guardedByConstraint || occupancy.capacity() > 1) {
+            for (ReservationWindow window : reservationRepository.findWindowsByResourceBetween(
+                    resource.getId(), ReservationStatus.CREATED, start, end)) {
+                occupancy.add(new ReservationIntervalIndex.Interval(window.id(), window.startTime(), window.endTime(),
+                        window.seats()));
+            }
+        }
+        // Series occurrences are not rows, so the constraint cannot see them; the lock held above
+        // keeps new series out until this transaction ends
+        for (ReservationWindow occurrence : seriesService.occurrencesOnResource(resource.getId(), start, end)) {
+            occupancy.add(new ReservationIntervalIndex.Interval(null, occurrence.startTime(), occurrence.endTime(),
+                    null));
+        }
+        holdRegistry.addActiveHolds(resource.getId(), start, end, occupancy, confirmedHoldId);
+        if (!occupancy.fits(start, end, seats)) {
+            throw conflict(request, tenantId);
         }
 
         Reservation reservation = new Reservation();
@@ -83,15 +222,119 @@ public class BookingService {
         reservation.setUserId(userId);
         reservation.setStartTime(start);
         reservation.setEndTime(end);
+        reservation.setSeats(seats);
         reservation.setStatus(ReservationStatus.CREATED);
 
-        Reservation saved = reservationRepository.save(reservation);
+        Reservation saved = guardedByConstraint
+                ? insertGuardedByConstraint(reservation)
+                : reservationRepository.save(reservation);
+        intervalIndex.addAfterCommit(resource.getId(), saved.getId(), saved.getStartTime(), saved.getEndTime(),
+                saved.getSeats());
+        occupancyBitsets.markAfterCommit(resource.getId(), saved.getStartTime(), saved.getEndTime());
+        eventPublisher.publishEvent(createdEvent(saved));
+        return toDto(saved);
+    }
+
+    /**
+     * Reservations of a resource starting in {@code [from, to)}, one keyset page at a time.
+     */
+    @Transactional(readOnly = true)
+    public ReservationPageDto listReservations(UUID resourceId, String tenantId, Instant from, Instant to,
+            String cursor, int limit) {
+        if (!to.isAfter(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must be after 'from'");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "'limit' must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (resourceRepository.findByIdAndTenantId(resourceId, tenantId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Resource not found");
+        }
+
+        // One extra row tells whether another page follows without a count query
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<Reservation> rows;
+        if (cursor == null) {
+            rows = reservationRepository.findPageByResource(resourceId, tenantId, from, to, page);
+        } else {
+            ReservationCursor after = ReservationCursor.decode(cursor);
+            Instant afterStart = after.startTime().isBefore(from) ? from : after.startTime();
+            rows = reservationRepository.findPageByResourceAfter(resourceId, tenantId, afterStart, after.id(), to, page);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Reservation last = rows.get(limit - 1);
+            nextCursor = new ReservationCursor(last.getStartTime(), last.getId()).encode();
+        }
+        return new ReservationPageDto(rows.stream().map(BookingService::toDto).collect(Collectors.toList()), nextCursor);
+    }
+
+    static Integer validateSeats(Integer seats, ReservationIntervalIndex.ResourceIntervals occupancy) {
+        if (seats != null && seats > occupancy.capacity()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Resource has only " + occupancy.capacity() + " seat(s)");
+        }
+        return occupancy.normalizeSeats(seats);
+    }
+
+    private Reservation insertGuardedByConstraint(Reservation reservation) {
+        try {
+            return reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException ex) {
+            if (isExclusionViolation(ex)) {
+                throw new ReservationConflictException(reservation.getResource().getId(), reservation.getTenantId(),
+                        reservation.getStartTime(), reservation.getEndTime(), reservation.getSeats());
+            }
+            throw ex;
+        }
+    }
+
+    static boolean isExclusionViolation(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION_SQL_STATE.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ResourceDto toResourceDto(Resource resource) {
+        return new ResourceDto(resource.getId(), resource.getName(), resource.getType(), resource.getCapacity());
+    }
+
+    private static ReservationDto toDto(Reservation reservation) {
         return new ReservationDto(
-                saved.getId(),
-                resource.getId(),
-                saved.getUserId(),
-                saved.getStartTime(),
-                saved.getEndTime(),
-                saved.getStatus());
+                reservation.getId(),
+                reservation.getResource().getId(),
+                reservation.getUserId(),
+                reservation.getStartTime(),
+                reservation.getEndTime(),
+                reservation.getSeats(),
+                reservation.getStatus());
+    }
+
+    /**
+     * Spring event for a new reservation; listeners that publish it externally must wait
+     * for the commit.
+     */
+    static ReservationCreatedEvent createdEvent(Reservation reservation) {
+        return new ReservationCreatedEvent(
+                reservation.getId(),
+                reservation.getResource().getId(),
+                reservation.getUserId(),
+                reservation.getTenantId(),
+                reservation.getStartTime(),
+                reservation.getEndTime(),
+                reservation.getSeats(),
+                reservation.getCreatedAt());
+    }
+
+    private static ReservationConflictException conflict(CreateReservationRequest request, String tenantId) {
+        return new ReservationConflictException(request.getResourceId(), tenantId, request.getStartTime(),
+                request.getEndTime(), request.getSeats());
     }
 }
\ No newline at end of file
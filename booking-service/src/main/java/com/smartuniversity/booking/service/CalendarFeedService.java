@@ -0,0 +1,169 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.Reservation;
+import com.smartuniversity.booking.domain.ReservationSeries;
+import com.smartuniversity.booking.domain.ReservationStatus;
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ChangeStamp;
+import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationSeriesRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-resource iCalendar feed.
+ * <p>
+ * The feed is versioned by the count and latest {@code updated_at} of the resource's
+ * reservations and series, which two aggregate queries answer from the
+ * {@code (resource_id, updated_at)} indexes. That version is the ETag, so an unchanged
+ * calendar is revalidated without loading any booking. Each response also carries a
+ * sync token; passing it back returns only the bookings changed since.
+ */
+@Service
+public class CalendarFeedService {
+
+    /**
+     * Changes are re-sent for this long before a sync token, so a booking whose
+     * transaction committed after a slightly later one is not skipped. Clients replace
+     * events by UID, so re-sent events are harmless.
+     */
+    static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private final ResourceRepository resourceRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationSeriesRepository seriesRepository;
+
+    public CalendarFeedService(ResourceRepository resourceRepository,
+            ReservationRepository reservationRepository,
+            ReservationSeriesRepository seriesRepository) {
+        this.resourceRepository = resourceRepository;
+        this.reservationRepository = reservationRepository;
+        this.seriesRepository = seriesRepository;
+    }
+
+    public record CalendarFeed(String etag, String syncToken, String body) {
+    }
+
+    /**
+     * ETag of the feed that {@link #render} would return, computed without loading bookings.
+     */
+    @Transactional(readOnly = true)
+    public String etag(UUID resourceId, String tenantId, String syncToken) {
+        Resource resource = findResource(resourceId, tenantId);
+        Instant since = syncToken != null ? decodeSyncToken(syncToken) : null;
+        return etag(stamp(resource), since);
+    }
+
+    @Transactional(readOnly = true)
+    public CalendarFeed render(UUID resourceId, String tenantId, String syncToken) {
+        Resource resource = findResource(resourceId, tenantId);
+        Instant since = syncToken != null ? decodeSyncToken(syncToken) : null;
+
+        // Stamped before reading rows, so the next token can only lag behind what is returned
+        Stamp stamp = stamp(resource);
+
+        List<Reservation> reservations;
+        List<ReservationSeries> series;
+        if (since == null) {
+            reservations = reservationRepository.findAllByResourceId(resource.getId());
+            series = seriesRepository.findAllByResourceId(resource.getId());
+        } else {
+            Instant changedAfter = since.minus(SYNC_OVERLAP);
+            reservations = reservationRepository.findChangedSince(resource.getId(), changedAfter);
+            series = seriesRepository.findChangedSince(resource.getId(), changedAfter);
+        }
+
+        ICalendarWriter writer = new ICalendarWriter(resource.getName());
+        for (Reservation reservation : reservations) {
+            writer.event(
+                    reservation.getId() + "@booking.smartuniversity",
+                    latest(reservation.getUpdatedAt(), reservation.getCreatedAt()),
+                    reservation.getStartTime(),
+                    reservation.getEndTime(),
+                    resource.getName() + " reservation",
+                    reservation.getStatus() == ReservationStatus.CANCELED);
+        }
+        for (ReservationSeries item : series) {
+            boolean cancelled = item.getStatus() == ReservationStatus.CANCELED;
+            for (ReservationWindow occurrence : RecurrenceExpander.expand(item, Instant.MIN, Instant.MAX)) {
+                writer.event(
+                        item.getId() + "-" + ICalendarWriter.formatUtc(occurrence.startTime()) + "@booking.smartuniversity",
+                        latest(item.getUpdatedAt(), item.getCreatedAt()),
+                        occurrence.startTime(),
+                        occurrence.endTime(),
+                        resource.getName() + " recurring reservation",
+                        cancelled);
+            }
+        }
+
+        Instant nextSince = latest(since, latest(stamp.reservations().lastUpdated(), stamp.series().lastUpdated()));
+        String nextToken = encodeSyncToken(nextSince != null ? nextSince : Instant.EPOCH);
+        return new CalendarFeed(etag(stamp, since), nextToken, writer.finish());
+    }
+
+    private Resource findResource(UUID resourceId, String tenantId) {
+        return resourceRepository.findByIdAndTenantId(resourceId, tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Resource not found"));
+    }
+
+    private Stamp stamp(Resource resource) {
+        return new Stamp(
+                reservationRepository.findChangeStamp(resource.getId()),
+                seriesRepository.findChangeStamp(resource.getId()));
+    }
+
+    /**
+     * Full and incremental feeds are different representations, so the token is part of the tag.
+     */
+    private static String etag(Stamp stamp, Instant since) {
+        StringBuilder tag = new StringBuilder("\"")
+                .append(version(stamp.reservations()))
+                .append('-')
+                .append(version(stamp.series()));
+        if (since != null) {
+            tag.append('-').append(since.getEpochSecond()).append('.').append(since.getNano());
+        }
+        return tag.append('"').toString();
+    }
+
+    private static String version(ChangeStamp stamp) {
+        Instant lastUpdated = stamp.lastUpdated();
+        return lastUpdated == null
+                ? stamp.count() + ".0"
+                : stamp.count() + "." + lastUpdated.getEpochSecond() + "." + lastUpdated.getNano();
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+
+    static String encodeSyncToken(Instant since) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(since.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Instant decodeSyncToken(String token) {
+        try {
+            return Instant.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+        }
+    }
+
+    private record Stamp(ChangeStamp reservations, ChangeStamp series) {
+    }
+}
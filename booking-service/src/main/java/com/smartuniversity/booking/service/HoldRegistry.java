@@ -0,0 +1,130 @@
+package com.smartuniversity.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tentative holds on a slot, kept in memory only.
+ * <p>
+ * Holds are indexed per resource in the same interval structure as reservations, so
+ * booking checks can count them as occupied. They expire through a hashed timing wheel
+ * instead of a database poller; reads also ignore holds past their expiry, so a late
+ * tick never extends one.
+ */
+@Component
+public class HoldRegistry {
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final ConcurrentMap<UUID, Entry> holds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, ReservationIntervalIndex.ResourceIntervals> byResource = new ConcurrentHashMap<>();
+    private final TimingWheel<UUID> expiryWheel;
+
+    public HoldRegistry(@Value("${booking.holds.wheel-tick:1s}") Duration tick) {
+        this.expiryWheel = new TimingWheel<>(tick, WHEEL_SIZE, this::release);
+        this.expiryWheel.start("booking-hold-expiry");
+    }
+
+    public record Hold(UUID id, UUID resourceId, String tenantId, UUID userId, Instant startTime, Instant endTime,
+            Integer seats, Instant expiresAt) {
+
+        boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+
+    private record Entry(Hold hold, TimingWheel.Timeout<UUID> timeout) {
+    }
+
+    /**
+     * Registers the hold unless it would push the window over capacity. {@code occupancy}
+     * holds the reservations of the window and is checked together with the other
+     * active holds of the resource, atomically with the registration.
+     */
+    boolean tryHold(Hold hold, ReservationIntervalIndex.ResourceIntervals occupancy, Duration ttl) {
+        ReservationIntervalIndex.ResourceIntervals resourceHolds = byResource.computeIfAbsent(hold.resourceId(),
+                id -> new ReservationIntervalIndex.ResourceIntervals(hold.tenantId(), occupancy.capacity()));
+        synchronized (resourceHolds) {
+            addActiveHolds(hold.resourceId(), hold.startTime(), hold.endTime(), occupancy, null);
+            if (!occupancy.fits(hold.startTime(), hold.endTime(), hold.seats())) {
+                return false;
+            }
+            resourceHolds.add(new ReservationIntervalIndex.Interval(hold.id(), hold.startTime(), hold.endTime(),
+                    hold.seats()));
+            holds.put(hold.id(), new Entry(hold, expiryWheel.schedule(hold.id(), ttl)));
+            return true;
+        }
+    }
+
+    public Optional<Hold> find(UUID holdId) {
+        Entry entry = holds.get(holdId);
+        if (entry == null || entry.hold().isExpired(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.hold());
+    }
+
+    /**
+     * Adds the active holds overlapping {@code [start, end)} to {@code occupancy}, except
+     * {@code excludedHoldId}, which is the hold being confirmed.
+     */
+    void addActiveHolds(UUID resourceId, Instant start, Instant end,
+            ReservationIntervalIndex.ResourceIntervals occupancy, UUID excludedHoldId) {
+        ReservationIntervalIndex.ResourceIntervals resourceHolds = byResource.get(resourceId);
+        if (resourceHolds == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (ReservationIntervalIndex.Interval interval : resourceHolds.overlapping(start, end)) {
+            Entry entry = holds.get(interval.reservationId());
+            if (entry == null || entry.hold().isExpired(now) || interval.reservationId().equals(excludedHoldId)) {
+                continue;
+            }
+            occupancy.add(new ReservationIntervalIndex.Interval(null, interval.start(), interval.end(), interval.seats()));
+        }
+    }
+
+    /**
+     * Returns {@code true} if other users' active holds alone leave too few seats in the window.
+     */
+    boolean hasConflict(UUID resourceId, String tenantId, Instant start, Instant end, Integer seats,
+            UUID excludedHoldId) {
+        ReservationIntervalIndex.ResourceIntervals resourceHolds = byResource.get(resourceId);
+        if (resourceHolds == null) {
+            return false;
+        }
+        ReservationIntervalIndex.ResourceIntervals active =
+                new ReservationIntervalIndex.ResourceIntervals(tenantId, resourceHolds.capacity());
+        addActiveHolds(resourceId, start, end, active, excludedHoldId);
+        return !active.fits(start, end, seats);
+    }
+
+    public void release(UUID holdId) {
+        Entry entry = holds.remove(holdId);
+        if (entry == null) {
+            return;
+        }
+        expiryWheel.cancel(entry.timeout());
+        ReservationIntervalIndex.ResourceIntervals resourceHolds = byResource.get(entry.hold().resourceId());
+        if (resourceHolds != null) {
+            resourceHolds.remove(holdId);
+        }
+    }
+
+    int size() {
+        return holds.size();
+    }
+
+    @PreDestroy
+    void stop() {
+        expiryWheel.stop();
+    }
+}
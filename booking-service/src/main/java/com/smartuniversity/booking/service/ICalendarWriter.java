@@ -0,0 +1,72 @@
+package com.smartuniversity.booking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Minimal RFC 5545 writer: one VCALENDAR of UTC VEVENTs, with text escaping and
+ * line folding at 75 octets.
+ */
+final class ICalendarWriter {
+
+    private static final DateTimeFormatter UTC_DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final StringBuilder out = new StringBuilder();
+
+    ICalendarWriter(String calendarName) {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//Smart University//Booking Service//EN");
+        line("CALSCALE:GREGORIAN");
+        line("X-WR-CALNAME:" + escape(calendarName));
+    }
+
+    void event(String uid, Instant stamp, Instant start, Instant end, String summary, boolean cancelled) {
+        line("BEGIN:VEVENT");
+        line("UID:" + uid);
+        line("DTSTAMP:" + UTC_DATE_TIME.format(stamp));
+        line("DTSTART:" + UTC_DATE_TIME.format(start));
+        line("DTEND:" + UTC_DATE_TIME.format(end));
+        line("SUMMARY:" + escape(summary));
+        line("STATUS:" + (cancelled ? "CANCELLED" : "CONFIRMED"));
+        line("END:VEVENT");
+    }
+
+    String finish() {
+        line("END:VCALENDAR");
+        return out.toString();
+    }
+
+    static String formatUtc(Instant instant) {
+        return UTC_DATE_TIME.format(instant);
+    }
+
+    private void line(String content) {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int width = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+            if (octets + width > MAX_LINE_OCTETS) {
+                // Continuation lines start with a space, which counts towards their length
+                out.append("\r\n ");
+                octets = 1;
+            }
+            out.appendCodePoint(codePoint);
+            octets += width;
+            i += Character.charCount(codePoint);
+        }
+        out.append("\r\n");
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,371 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.Reservation;
+import com.smartuniversity.booking.domain.ReservationSeries;
+import com.smartuniversity.booking.domain.ReservationStatus;
+import com.smartuniversity.booking.domain.ResourceDayOccupancy;
+import com.smartuniversity.booking.domain.ResourceDayOccupancyId;
+import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationSeriesRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
+import com.smartuniversity.booking.repository.ResourceDayOccupancyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Occupied 15-minute slots per resource and UTC day, kept in memory as 96-bit sets
+ * ({@code long[2]}) so utilization over a whole semester is a few thousand
+ * {@link Long#bitCount} calls instead of a scan of the reservations table.
+ * <p>
+ * A slot counts as occupied when any active reservation or series occurrence overlaps
+ * it, whatever its seat count. Bits are set right after each local commit; a periodic
+ * sync then applies changes made by other instances and cancellations, which rebuild
+ * the affected days from the database, and writes the changed days to
+ * {@link ResourceDayOccupancy} in one batch. On startup the persisted days are loaded
+ * and only reservations changed since the last batch are replayed.
+ */
+@Component
+public class OccupancyBitsets {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancyBitsets.class);
+
+    static final int SLOTS_PER_DAY = 96;
+    static final long SLOT_NANOS = Duration.ofMinutes(15).toNanos();
+    private static final long DAY_NANOS = Duration.ofDays(1).toNanos();
+    /** Re-read window behind the watermark for transactions that committed late. */
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+    private static final int SYNC_PAGE_SIZE = 1000;
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationSeriesRepository seriesRepository;
+    private final ResourceDayOccupancyRepository occupancyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentMap<UUID, ResourceDays> resources = new ConcurrentHashMap<>();
+    private final Set<ResourceDayOccupancyId> dirty = ConcurrentHashMap.newKeySet();
+    /** Reservation changes up to this instant are reflected in memory; {@code null} until warmed. */
+    private volatile Instant syncedUntil;
+
+    public OccupancyBitsets(ReservationRepository reservationRepository,
+            ReservationSeriesRepository seriesRepository,
+            ResourceDayOccupancyRepository occupancyRepository,
+            PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.seriesRepository = seriesRepository;
+        this.occupancyRepository = occupancyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isReady() {
+        return syncedUntil != null;
+    }
+
+    /**
+     * Marks {@code [start, end)} as occupied once the surrounding transaction commits.
+     */
+    public void markAfterCommit(UUID resourceId, Instant start, Instant end) {
+        markAfterCommit(resourceId, List.of(new ReservationWindow(null, resourceId, start, end, null)));
+    }
+
+    public void markAfterCommit(UUID resourceId, List<ReservationWindow> windows) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    windows.forEach(window -> mark(resourceId, window.startTime(), window.endTime()));
+                }
+            });
+        } else {
+            windows.forEach(window -> mark(resourceId, window.startTime(), window.endTime()));
+        }
+    }
+
+    public void mark(UUID resourceId, Instant start, Instant end) {
+        ResourceDays days = resources.computeIfAbsent(resourceId, id -> new ResourceDays());
+        LocalDate last = dayOf(end.minusNanos(1));
+        for (LocalDate day = dayOf(start); !day.isAfter(last); day = day.plusDays(1)) {
+            if (days.set(day, start, end)) {
+                dirty.add(new ResourceDayOccupancyId(resourceId, day));
+            }
+        }
+    }
+
+    /**
+     * Copies of the bitsets of the resource for the days in {@code [from, to)}; days
+     * without any occupied slot are absent.
+     */
+    public NavigableMap<LocalDate, long[]> days(UUID resourceId, LocalDate from, LocalDate to) {
+        ResourceDays days = resources.get(resourceId);
+        return days != null ? days.copy(from, to) : new TreeMap<>();
+    }
+
+    /**
+     * Recomputes the days {@code [from, to)} of a resource from the database, which is
+     * the only way to clear bits: a slot may still be covered by another reservation.
+     */
+    public void rebuild(UUID resourceId, LocalDate from, LocalDate to) {
+        Instant start = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = to.atStartOfDay(ZoneOffset.UTC).toInstant();
+        List<ReservationWindow> windows = new ArrayList<>(reservationRepository.findWindowsByResourceBetween(
+                resourceId, ReservationStatus.CREATED, start, end));
+        for (ReservationSeries series : seriesRepository.findByResourceBetween(
+                resourceId, ReservationStatus.CREATED, start, end)) {
+            windows.addAll(RecurrenceExpander.expand(series, start, end));
+        }
+
+        Map<LocalDate, long[]> rebuilt = new HashMap<>();
+        for (ReservationWindow window : windows) {
+            LocalDate first = max(dayOf(window.startTime()), from);
+            LocalDate last = min(dayOf(window.endTime().minusNanos(1)), to.minusDays(1));
+            for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+                setSlots(rebuilt.computeIfAbsent(day, d -> new long[2]), day, window.startTime(), window.endTime());
+            }
+        }
+
+        ResourceDays days = resources.computeIfAbsent(resourceId, id -> new ResourceDays());
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            if (days.replace(day, rebuilt.get(day))) {
+                dirty.add(new ResourceDayOccupancyId(resourceId, day));
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warm() {
+        for (ResourceDayOccupancy row : occupancyRepository.findAll()) {
+            resources.computeIfAbsent(row.getId().getResourceId(), id -> new ResourceDays())
+                    .or(row.getId().getDay(), new long[]{row.getSlotsLow(), row.getSlotsHigh()});
+        }
+        Instant persisted = occupancyRepository.findSyncedUntil();
+        // Without persisted days this replays every reservation once
+        Instant since = persisted != null ? persisted : Instant.EPOCH;
+        syncedUntil = catchUp(since);
+        log.info("Occupancy bitsets warmed for {} resource(s), synced until {}", resources.size(), syncedUntil);
+    }
+
+    /**
+     * Applies reservation changes made since the last sync, then persists every changed
+     * day in one batch.
+     */
+    @Scheduled(fixedDelayString = "${booking.occupancy.sync-interval-ms:10000}")
+    public synchronized void sync() {
+        if (syncedUntil == null) {
+            return;
+        }
+        syncedUntil = catchUp(syncedUntil);
+        flush();
+    }
+
+    public void clear() {
+        resources.clear();
+        dirty.clear();
+    }
+
+    private Instant catchUp(Instant since) {
+        Instant from = since.minus(SYNC_OVERLAP);
+        Instant watermark = since;
+        Map<UUID, LocalDate[]> toRebuild = new HashMap<>();
+
+        Instant afterUpdated = from;
+        UUID afterId = MIN_ID;
+        List<Reservation> page;
+        do {
+            page = reservationRepository.findChangedAfter(afterUpdated, afterId, PageRequest.of(0, SYNC_PAGE_SIZE));
+            for (Reservation reservation : page) {
+                UUID resourceId = reservation.getResource().getId();
+                if (reservation.getStatus() == ReservationStatus.CREATED) {
+                    mark(resourceId, reservation.getStartTime(), reservation.getEndTime());
+                } else {
+                    widen(toRebuild, resourceId, reservation.getStartTime(), reservation.getEndTime());
+                }
+                afterUpdated = reservation.getUpdatedAt();
+                afterId = reservation.getId();
+                watermark = max(watermark, afterUpdated);
+            }
+        } while (page.size() == SYNC_PAGE_SIZE);
+
+        for (ReservationSeries series : seriesRepository.findAllChangedSince(from)) {
+            UUID resourceId = series.getResource().getId();
+            if (series.getStatus() == ReservationStatus.CREATED) {
+                for (ReservationWindow occurrence : RecurrenceExpander.expand(
+                        series, series.getStartTime(), series.getSeriesEnd())) {
+                    mark(resourceId, occurrence.startTime(), occurrence.endTime());
+                }
+            } else {
+                widen(toRebuild, resourceId, series.getStartTime(), series.getSeriesEnd());
+            }
+            watermark = max(watermark, series.getUpdatedAt());
+        }
+
+        toRebuild.forEach((resourceId, range) -> rebuild(resourceId, range[0], range[1]));
+        return watermark;
+    }
+
+    private void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<ResourceDayOccupancyId> keys = new ArrayList<>(dirty);
+        keys.forEach(dirty::remove);
+        Instant watermark = syncedUntil;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<ResourceDayOccupancyId, ResourceDayOccupancy> rows = new HashMap<>();
+                for (ResourceDayOccupancy row : occupancyRepository.findAllById(keys)) {
+                    rows.put(row.getId(), row);
+                }
+                List<ResourceDayOccupancy> inserts = new ArrayList<>();
+                for (ResourceDayOccupancyId key : keys) {
+                    ResourceDays days = resources.get(key.getResourceId());
+                    if (days == null) {
+                        continue;
+                    }
+                    long[] words = days.get(key.getDay());
+                    ResourceDayOccupancy row = rows.get(key);
+                    if (row == null) {
+                        row = new ResourceDayOccupancy(key);
+                        inserts.add(row);
+                    }
+                    row.setSlotsLow(words[0]);
+                    row.setSlotsHigh(words[1]);
+                    row.setSyncedUntil(watermark);
+                }
+                // Updates of loaded rows are flushed at commit; both go out as JDBC batches
+                occupancyRepository.saveAll(inserts);
+            });
+        } catch (RuntimeException ex) {
+            dirty.addAll(keys);
+            log.warn("Failed to persist {} occupancy day(s), will retry", keys.size(), ex);
+        }
+    }
+
+    /**
+     * Sets the slots of {@code day} overlapped by {@code [start, end)}, rounding the
+     * start down and the end up to slot boundaries. Returns whether a bit changed.
+     */
+    static boolean setSlots(long[] words, LocalDate day, Instant start, Instant end) {
+        Instant dayStart = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        long startNanos = start.isAfter(dayStart) ? Duration.between(dayStart, start).toNanos() : 0;
+        long endNanos = Math.min(DAY_NANOS, Math.max(0, Duration.between(dayStart, end).toNanos()));
+        int from = (int) (startNanos / SLOT_NANOS);
+        int to = (int) ((endNanos + SLOT_NANOS - 1) / SLOT_NANOS);
+        boolean changed = false;
+        for (int slot = from; slot < to; slot++) {
+            long bit = 1L << (slot & 63);
+            if ((words[slot >>> 6] & bit) == 0) {
+                words[slot >>> 6] |= bit;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Number of occupied slots within hour {@code hour} (0-23) of a day. An hour's four
+     * slots never straddle the two words.
+     */
+    static int occupiedInHour(long[] words, int hour) {
+        int slot = hour * 4;
+        return Long.bitCount((words[slot >>> 6] >>> (slot & 63)) & 0xF);
+    }
+
+    static LocalDate dayOf(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static void widen(Map<UUID, LocalDate[]> ranges, UUID resourceId, Instant start, Instant end) {
+        LocalDate from = dayOf(start);
+        LocalDate to = dayOf(end.minusNanos(1)).plusDays(1);
+        ranges.merge(resourceId, new LocalDate[]{from, to},
+                (a, b) -> new LocalDate[]{min(a[0], b[0]), max(a[1], b[1])});
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * Bitsets of one resource keyed by day.
+     */
+    private static final class ResourceDays {
+
+        private final NavigableMap<LocalDate, long[]> byDay = new TreeMap<>();
+
+        synchronized boolean set(LocalDate day, Instant start, Instant end) {
+            return setSlots(byDay.computeIfAbsent(day, d -> new long[2]), day, start, end);
+        }
+
+        synchronized void or(LocalDate day, long[] words) {
+            long[] current = byDay.computeIfAbsent(day, d -> new long[2]);
+            current[0] |= words[0];
+            current[1] |= words[1];
+        }
+
+        synchronized boolean replace(LocalDate day, long[] words) {
+            long[] current = byDay.get(day);
+            if (words == null) {
+                if (current == null) {
+                    return false;
+                }
+                // Keep an empty set rather than removing it, so the persisted row is cleared too
+                boolean changed = current[0] != 0 || current[1] != 0;
+                current[0] = 0;
+                current[1] = 0;
+                return changed;
+            }
+            if (current != null && current[0] == words[0] && current[1] == words[1]) {
+                return false;
+            }
+            byDay.put(day, words);
+            return true;
+        }
+
+        synchronized long[] get(LocalDate day) {
+            long[] words = byDay.get(day);
+            return words != null ? words.clone() : new long[2];
+        }
+
+        synchronized NavigableMap<LocalDate, long[]> copy(LocalDate from, LocalDate to) {
+            NavigableMap<LocalDate, long[]> copy = new TreeMap<>();
+            byDay.subMap(from, true, to, false).forEach((day, words) -> {
+                if (words[0] != 0 || words[1] != 0) {
+                    copy.put(day, words.clone());
+                }
+            });
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.smartuniversity.booking.service;
+
+/**
+ * Strategy used to prevent two active reservations of a resource from overlapping.
+ * Selected with {@code booking.overbooking.mode}.
+ */
+public enum OverbookingMode {
+    /** Lock the resource row and the overlapping reservations before inserting. */
+    LOCK,
+    /**
+     * Insert optimistically and let a PostgreSQL GiST exclusion constraint on
+     * (resource_id, period) reject overlaps. Requires PostgreSQL.
+     */
+    CONSTRAINT
+}
@@ -0,0 +1,71 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.RecurrenceFrequency;
+import com.smartuniversity.booking.domain.ReservationSeries;
+import com.smartuniversity.booking.repository.ReservationWindow;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Expands a {@link ReservationSeries} rule into concrete occurrences.
+ * <p>
+ * Steps are taken in the series time zone, so a weekly 09:00 lecture stays at 09:00
+ * local time across daylight-saving changes.
+ */
+final class RecurrenceExpander {
+
+    static final int MAX_OCCURRENCES = 1000;
+
+    private RecurrenceExpander() {
+    }
+
+    /**
+     * Number of rule steps between the first occurrence and the until date, exceptions included.
+     */
+    static long stepCount(ReservationSeries series) {
+        LocalDate firstDate = series.getStartTime().atZone(ZoneId.of(series.getTimeZone())).toLocalDate();
+        long days = ChronoUnit.DAYS.between(firstDate, series.getUntilDate());
+        if (days < 0) {
+            return 0;
+        }
+        long stepDays = (long) series.getInterval() * (series.getFrequency() == RecurrenceFrequency.WEEKLY ? 7 : 1);
+        return days / stepDays + 1;
+    }
+
+    /**
+     * Occurrences of the series overlapping {@code [from, to)}, ordered by start time.
+     */
+    static List<ReservationWindow> expand(ReservationSeries series, Instant from, Instant to) {
+        ZoneId zone = ZoneId.of(series.getTimeZone());
+        ZonedDateTime first = series.getStartTime().atZone(zone);
+        Duration length = Duration.between(series.getStartTime(), series.getEndTime());
+        UUID resourceId = series.getResource().getId();
+
+        List<ReservationWindow> occurrences = new ArrayList<>();
+        for (int k = 0; k < MAX_OCCURRENCES; k++) {
+            ZonedDateTime start = series.getFrequency() == RecurrenceFrequency.WEEKLY
+                    ? first.plusWeeks((long) k * series.getInterval())
+                    : first.plusDays((long) k * series.getInterval());
+            if (start.toLocalDate().isAfter(series.getUntilDate()) || !start.toInstant().isBefore(to)) {
+                break;
+            }
+            if (series.getExceptionDates().contains(start.toLocalDate())) {
+                continue;
+            }
+            Instant occurrenceStart = start.toInstant();
+            Instant occurrenceEnd = occurrenceStart.plus(length);
+            if (occurrenceEnd.isAfter(from)) {
+                occurrences.add(new ReservationWindow(series.getId(), resourceId, occurrenceStart, occurrenceEnd, null));
+            }
+        }
+        return occurrences;
+    }
+}
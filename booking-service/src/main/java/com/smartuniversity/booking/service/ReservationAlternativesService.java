@@ -0,0 +1,181 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.ReservationStatus;
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.web.dto.ReservationConflictDto;
+import com.smartuniversity.booking.web.dto.ResourceDto;
+import com.smartuniversity.booking.web.dto.TimeWindowDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Suggests where a rejected reservation could go instead: the nearest free windows of
+ * the same length on the same resource, and similar resources free at the requested time.
+ * <p>
+ * Reservations come from {@link ReservationIntervalIndex} and holds from
+ * {@link HoldRegistry}; only series occurrences are read from the database, one query
+ * for the resource and one for the tenant. Suggestions are hints taken without locks,
+ * so booking one may still conflict.
+ */
+@Service
+public class ReservationAlternativesService {
+
+    /** Resources checked at most when looking for similar ones. */
+    private static final int MAX_SIMILAR_CHECKED = 50;
+
+    private final ResourceRepository resourceRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationIntervalIndex intervalIndex;
+    private final ReservationSeriesService seriesService;
+    private final HoldRegistry holdRegistry;
+    private final int count;
+    private final Duration searchHorizon;
+
+    public ReservationAlternativesService(ResourceRepository resourceRepository,
+            ReservationRepository reservationRepository,
+            ReservationIntervalIndex intervalIndex,
+            ReservationSeriesService seriesService,
+            HoldRegistry holdRegistry,
+            @Value("${booking.alternatives.count:3}") int count,
+            @Value("${booking.alternatives.search-horizon:7d}") Duration searchHorizon) {
+        this.resourceRepository = resourceRepository;
+        this.reservationRepository = reservationRepository;
+        this.intervalIndex = intervalIndex;
+        this.seriesService = seriesService;
+        this.holdRegistry = holdRegistry;
+        this.count = count;
+        this.searchHorizon = searchHorizon;
+    }
+
+    @Transactional(readOnly = true)
+    public ReservationConflictDto suggest(ReservationConflictException conflict) {
+        ReservationConflictDto body = new ReservationConflictDto(conflict.getReason(), List.of(), List.of());
+        Optional<Resource> resource = resourceRepository.findByIdAndTenantId(conflict.getResourceId(),
+                conflict.getTenantId());
+        if (resource.isEmpty()) {
+            return body;
+        }
+        body.setAlternativeWindows(nearestWindows(resource.get(), conflict.getStartTime(), conflict.getEndTime(),
+                conflict.getSeats()));
+        body.setAlternativeResources(similarResources(resource.get(), conflict.getStartTime(), conflict.getEndTime(),
+                conflict.getSeats()));
+        return body;
+    }
+
+    /**
+     * Up to {@code count} free windows of the requested length within the search horizon,
+     * nearest start first. Whether a window fits only changes when one of its ends crosses
+     * the start or end of a busy interval, so the nearest fitting windows start or end
+     * exactly on such a boundary and those are the only candidates tried.
+     */
+    private List<TimeWindowDto> nearestWindows(Resource resource, Instant start, Instant end, Integer seats) {
+        Duration length = Duration.between(start, end);
+        Instant from = start.minus(searchHorizon);
+        Instant to = end.plus(searchHorizon);
+        ReservationIntervalIndex.ResourceIntervals occupancy = occupancy(resource, from, to,
+                seriesService.occurrencesOnResource(resource.getId(), from, to));
+
+        TreeSet<Instant> candidates = new TreeSet<>();
+        for (ReservationIntervalIndex.Interval interval : occupancy.overlapping(from, to)) {
+            for (Instant boundary : List.of(interval.start(), interval.end())) {
+                candidates.add(boundary);
+                candidates.add(boundary.minus(length));
+            }
+        }
+
+        List<Instant> fitting = new ArrayList<>();
+        for (Instant candidate : candidates) {
+            Instant candidateEnd = candidate.plus(length);
+            if (!candidate.isBefore(from) && !candidateEnd.isAfter(to)
+                    && occupancy.fits(candidate, candidateEnd, seats)) {
+                fitting.add(candidate);
+            }
+        }
+        fitting.sort(Comparator.comparing((Instant candidate) -> Duration.between(start, candidate).abs())
+                .thenComparing(Comparator.naturalOrder()));
+        return fitting.stream()
+                .limit(count)
+                .map(candidate -> new TimeWindowDto(candidate, candidate.plus(length)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Up to {@code count} other resources of the same type, with room for the request,
+     * that are free for the requested window. Smallest fitting capacity first.
+     */
+    private List<ResourceDto> similarResources(Resource original, Instant start, Instant end, Integer seats) {
+        if (original.getType() == null) {
+            return List.of();
+        }
+        int needed = seats != null ? seats : capacityOf(original);
+        List<Resource> candidates = resourceRepository.findAllByTenantId(original.getTenantId()).stream()
+                .filter(candidate -> !candidate.getId().equals(original.getId()))
+                .filter(candidate -> original.getType().equalsIgnoreCase(candidate.getType()))
+                .filter(candidate -> capacityOf(candidate) >= needed)
+                .sorted(Comparator.comparingInt(ReservationAlternativesService::capacityOf)
+                        .thenComparing(Resource::getName))
+                .limit(MAX_SIMILAR_CHECKED)
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, List<ReservationWindow>> occurrences = seriesService
+                .occurrencesForTenant(original.getTenantId(), start, end).stream()
+                .collect(Collectors.groupingBy(ReservationWindow::resourceId));
+        List<ResourceDto> free = new ArrayList<>();
+        for (Resource candidate : candidates) {
+            ReservationIntervalIndex.ResourceIntervals occupancy = occupancy(candidate, start, end,
+                    occurrences.getOrDefault(candidate.getId(), List.of()));
+            // Seats are counted against the candidate, so a whole-room request stays a whole-room request
+            if (occupancy.fits(start, end, seats)) {
+                free.add(BookingService.toResourceDto(candidate));
+                if (free.size() == count) {
+                    break;
+                }
+            }
+        }
+        return free;
+    }
+
+    private ReservationIntervalIndex.ResourceIntervals occupancy(Resource resource, Instant from, Instant to,
+            List<ReservationWindow> occurrences) {
+        ReservationIntervalIndex.ResourceIntervals occupancy = ReservationIntervalIndex.ResourceIntervals.of(resource);
+        Optional<List<ReservationIntervalIndex.Interval>> indexed =
+                intervalIndex.overlapping(resource.getId(), resource.getTenantId(), from, to);
+        if (indexed.isPresent()) {
+            indexed.get().forEach(occupancy::add);
+        } else {
+            for (ReservationWindow window : reservationRepository.findWindowsByResourceBetween(
+                    resource.getId(), ReservationStatus.CREATED, from, to)) {
+                occupancy.add(new ReservationIntervalIndex.Interval(window.id(), window.startTime(), window.endTime(),
+                        window.seats()));
+            }
+        }
+        for (ReservationWindow occurrence : occurrences) {
+            occupancy.add(new ReservationIntervalIndex.Interval(null, occurrence.startTime(), occurrence.endTime(),
+                    null));
+        }
+        holdRegistry.addActiveHolds(resource.getId(), from, to, occupancy, null);
+        return occupancy;
+    }
+
+    private static int capacityOf(Resource resource) {
+        return resource.getCapacity() != null ? resource.getCapacity() : 1;
+    }
+}
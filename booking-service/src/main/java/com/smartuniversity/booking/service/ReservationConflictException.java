@@ -0,0 +1,51 @@
+package com.smartuniversity.booking.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * 409 for a reservation whose window is taken. Carries the request so the web layer
+ * can suggest alternatives once the transaction has rolled back and the resource lock
+ * is released.
+ */
+public class ReservationConflictException extends ResponseStatusException {
+
+    private final UUID resourceId;
+    private final String tenantId;
+    private final Instant startTime;
+    private final Instant endTime;
+    private final Integer seats;
+
+    public ReservationConflictException(UUID resourceId, String tenantId, Instant startTime, Instant endTime,
+            Integer seats) {
+        super(HttpStatus.CONFLICT, "Resource already reserved for requested period");
+        this.resourceId = resourceId;
+        this.tenantId = tenantId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.seats = seats;
+    }
+
+    public UUID getResourceId() {
+        return resourceId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public Integer getSeats() {
+        return seats;
+    }
+}
@@ -0,0 +1,95 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.ReservationStatus;
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.web.dto.CreateHoldRequest;
+import com.smartuniversity.booking.web.dto.HoldDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Places and releases tentative holds; {@link BookingService#confirmHold} turns them
+ * into reservations.
+ * <p>
+ * Placing a hold reads the window without locking the resource. A reservation that
+ * commits concurrently can still overlap the hold; confirming then fails with 409
+ * under the resource lock, which remains authoritative.
+ */
+@Service
+public class ReservationHoldService {
+
+    private final ResourceRepository resourceRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationSeriesService seriesService;
+    private final HoldRegistry holdRegistry;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    public ReservationHoldService(ResourceRepository resourceRepository,
+            ReservationRepository reservationRepository,
+            ReservationSeriesService seriesService,
+            HoldRegistry holdRegistry,
+            @Value("${booking.holds.default-ttl:5m}") Duration defaultTtl,
+            @Value("${booking.holds.max-ttl:15m}") Duration maxTtl) {
+        this.resourceRepository = resourceRepository;
+        this.reservationRepository = reservationRepository;
+        this.seriesService = seriesService;
+        this.holdRegistry = holdRegistry;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+    }
+
+    @Transactional(readOnly = true)
+    public HoldDto createHold(CreateHoldRequest request, UUID userId, String tenantId) {
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "End time must be after start time");
+        }
+        Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : defaultTtl;
+        if (ttl.compareTo(maxTtl) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Holds may last at most " + maxTtl.toSeconds() + " seconds");
+        }
+
+        Resource resource = resourceRepository.findByIdAndTenantId(request.getResourceId(), tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Resource not found"));
+        ReservationIntervalIndex.ResourceIntervals occupancy = ReservationIntervalIndex.ResourceIntervals.of(resource);
+        Integer seats = BookingService.validateSeats(request.getSeats(), occupancy);
+
+        Instant start = request.getStartTime();
+        Instant end = request.getEndTime();
+        for (ReservationWindow window : reservationRepository.findWindowsByResourceBetween(
+                resource.getId(), ReservationStatus.CREATED, start, end)) {
+            occupancy.add(new ReservationIntervalIndex.Interval(window.id(), window.startTime(), window.endTime(),
+                    window.seats()));
+        }
+        for (ReservationWindow occurrence : seriesService.occurrencesOnResource(resource.getId(), start, end)) {
+            occupancy.add(new ReservationIntervalIndex.Interval(null, occurrence.startTime(), occurrence.endTime(),
+                    null));
+        }
+
+        HoldRegistry.Hold hold = new HoldRegistry.Hold(UUID.randomUUID(), resource.getId(), tenantId, userId,
+                start, end, seats, Instant.now().plus(ttl));
+        if (!holdRegistry.tryHold(hold, occupancy, ttl)) {
+            throw new ReservationConflictException(resource.getId(), tenantId, start, end, seats);
+        }
+        return new HoldDto(hold.id(), hold.resourceId(), hold.userId(), hold.startTime(), hold.endTime(),
+                hold.seats(), hold.expiresAt());
+    }
+
+    public void releaseHold(UUID holdId, UUID userId, String tenantId) {
+        HoldRegistry.Hold hold = holdRegistry.find(holdId)
+                .filter(candidate -> candidate.tenantId().equals(tenantId) && candidate.userId().equals(userId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Hold not found or expired"));
+        holdRegistry.release(hold.id());
+    }
+}
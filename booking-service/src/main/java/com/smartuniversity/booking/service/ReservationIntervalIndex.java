@@ -0,0 +1,376 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.ReservationStatus;
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of active reservations per resource.
+ * <p>
+ * Reservations either take the whole resource or a number of seats of a shared one;
+ * a request is rejected when the peak occupancy of its window plus the seats it asks
+ * for would exceed the resource capacity.
+ * <p>
+ * Each resource is warmed lazily from {@link ReservationRepository} on first use and
+ * kept current after every committed insert. Only reservations ending after now, less
+ * the retention margin, are loaded, and a scheduled pass drops those that have since
+ * ended, so the index holds the bookable horizon rather than the whole history.
+ * <p>
+ * The index is only a fast path: a hit
+ * rejects a request without taking any lock, while a miss still goes through the
+ * database check in {@link BookingService}, which remains the source of truth.
+ * Cancellations made on other instances only reach this index through reservation
+ * events; while {@code booking.events.enabled} is off, a hit is confirmed against the
+ * database before it is reported, and a stale resource is evicted.
+ * That check runs under the resource row lock, except for whole-resource bookings in
+ * {@code constraint} mode, where the exclusion constraint decides between them.
+ */
+@Component
+public class ReservationIntervalIndex {
+
+    private final ReservationRepository reservationRepository;
+    private final ResourceRepository resourceRepository;
+    private final boolean enabled;
+    private final Duration retention;
+    private final boolean confirmHits;
+
+    private final ConcurrentMap<UUID, ResourceIntervals> resources = new ConcurrentHashMap<>();
+    /**
+     * Removals per resource, counted even while the resource is not indexed, so a warm
+     * that overlapped one can tell its snapshot may be stale.
+     */
+    private final ConcurrentMap<UUID, AtomicLong> removals = new ConcurrentHashMap<>();
+
+    public ReservationIntervalIndex(ReservationRepository reservationRepository,
+            ResourceRepository resourceRepository,
+            @Value("${booking.interval-index.enabled:true}") boolean enabled,
+            @Value("${booking.interval-index.retention:1h}") Duration retention,
+            @Value("${booking.events.enabled:false}") boolean eventsEnabled) {
+        this.reservationRepository = reservationRepository;
+        this.resourceRepository = resourceRepository;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.confirmHits = !eventsEnabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns {@code true} if the active reservations known for the resource leave fewer
+     * than {@code seats} seats free at some point of the half-open window {@code [start, end)}.
+     * A {@code null} seat count asks for the whole resource.
+     */
+    public boolean hasConflict(UUID resourceId, String tenantId, Instant start, Instant end, Integer seats) {
+        if (!enabled) {
+            return false;
+        }
+        return intervalsFor(resourceId, tenantId)
+                .map(intervals -> !intervals.fits(start, end, seats)
+                        && confirmed(resourceId, intervals, start, end, seats))
+                .orElse(false);
+    }
+
+    /**
+     * Re-checks a hit against the reservations currently in the database when no cancellation
+     * events are received. A hit the database does not bear out evicts the resource, so it is
+     * warmed again on next use.
+     */
+    private boolean confirmed(UUID resourceId, ResourceIntervals intervals, Instant start, Instant end,
+            Integer seats) {
+        if (!confirmHits) {
+            return true;
+        }
+        ResourceIntervals current = new ResourceIntervals(intervals.tenantId, intervals.capacity());
+        for (ReservationWindow window : reservationRepository.findWindowsByResourceBetween(
+                resourceId, ReservationStatus.CREATED, start, end)) {
+            current.add(new Interval(window.id(), window.startTime(), window.endTime(), window.seats()));
+        }
+        if (current.fits(start, end, seats)) {
+            resources.remove(resourceId, intervals);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Active reservations known for the resource that overlap {@code [start, end)}, or
+     * empty when the index is disabled or the resource is unknown for the tenant.
+     */
+    Optional<List<Interval>> overlapping(UUID resourceId, String tenantId, Instant start, Instant end) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return intervalsFor(resourceId, tenantId).map(intervals -> intervals.overlapping(start, end));
+    }
+
+    /**
+     * Adds a reservation to the index once the surrounding transaction commits, so a
+     * rolled-back insert never leaves a phantom interval behind.
+     */
+    public void addAfterCommit(UUID resourceId, UUID reservationId, Instant start, Instant end, Integer seats) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(resourceId, reservationId, start, end, seats);
+                }
+            });
+        } else {
+            add(resourceId, reservationId, start, end, seats);
+        }
+    }
+
+    public void add(UUID resourceId, UUID reservationId, Instant start, Instant end, Integer seats) {
+        ResourceIntervals intervals = resources.get(resourceId);
+        if (intervals != null) {
+            intervals.add(new Interval(reservationId, start, end, seats));
+        }
+    }
+
+    public void remove(UUID resourceId, UUID reservationId) {
+        // Counted before the lookup: a warm that has not published its entry yet sees the count change
+        removals.computeIfAbsent(resourceId, id -> new AtomicLong()).incrementAndGet();
+        ResourceIntervals intervals = resources.get(resourceId);
+        if (intervals != null) {
+            intervals.remove(reservationId);
+        }
+    }
+
+    public void evict(UUID resourceId) {
+        removals.computeIfAbsent(resourceId, id -> new AtomicLong()).incrementAndGet();
+        resources.remove(resourceId);
+    }
+
+    public void clear() {
+        resources.clear();
+    }
+
+    /**
+     * Drops reservations that ended before now less the retention margin. Requests for
+     * such windows simply miss the fast path.
+     */
+    @Scheduled(fixedDelayString = "${booking.interval-index.prune-interval-ms:60000}")
+    public void prune() {
+        pruneEndedBefore(Instant.now().minus(retention));
+    }
+
+    void pruneEndedBefore(Instant cutoff) {
+        for (ResourceIntervals intervals : resources.values()) {
+            intervals.pruneEndedBefore(cutoff);
+        }
+    }
+
+    private Optional<ResourceIntervals> intervalsFor(UUID resourceId, String tenantId) {
+        ResourceIntervals intervals = resources.get(resourceId);
+        if (intervals == null) {
+            // Warm outside of computeIfAbsent so the map bin is not held during the queries.
+            // A reservation committed while warming may be missed; that only costs a fast-path
+            // miss. One removed while warming may still be in the snapshot, so such a warm is
+            // discarded rather than risk a false conflict.
+            long removalsBefore = removalCount(resourceId);
+            Optional<Resource> resource = resourceRepository.findById(resourceId);
+            if (resource.isEmpty()) {
+                return Optional.empty();
+            }
+            ResourceIntervals warmed = ResourceIntervals.of(resource.get());
+            for (ReservationWindow window : reservationRepository.findWindowsByResourceEndingAfter(
+                    resourceId, ReservationStatus.CREATED, Instant.now().minus(retention))) {
+                warmed.add(new Interval(window.id(), window.startTime(), window.endTime(), window.seats()));
+            }
+            ResourceIntervals existing = resources.putIfAbsent(resourceId, warmed);
+            if (existing != null) {
+                intervals = existing;
+            } else if (removalCount(resourceId) != removalsBefore) {
+                resources.remove(resourceId, warmed);
+                return Optional.empty();
+            } else {
+                intervals = warmed;
+            }
+        }
+        if (!intervals.tenantId.equals(tenantId)) {
+            return Optional.empty();
+        }
+        return Optional.of(intervals);
+    }
+
+    private long removalCount(UUID resourceId) {
+        AtomicLong count = removals.get(resourceId);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * A reserved window; {@code seats} is {@code null} when it takes the whole resource.
+     */
+    record Interval(UUID reservationId, Instant start, Instant end, Integer seats) {
+    }
+
+    /**
+     * Intervals of one resource in a red-black tree keyed by start time. Tracking the
+     * longest duration seen bounds the range of starts that can overlap a window, so a
+     * lookup is a single sub-map scan instead of a pass over every reservation.
+     */
+    static final class ResourceIntervals {
+
+        private final String tenantId;
+        private final int capacity;
+        private final NavigableMap<Instant, List<Interval>> byStart = new TreeMap<>();
+        private final Map<UUID, Interval> byId = new HashMap<>();
+        private Duration longest = Duration.ZERO;
+
+        ResourceIntervals(String tenantId, int capacity) {
+            this.tenantId = tenantId;
+            this.capacity = Math.max(1, capacity);
+        }
+
+        static ResourceIntervals of(Resource resource) {
+            return new ResourceIntervals(resource.getTenantId(),
+                    resource.getCapacity() != null ? resource.getCapacity() : 1);
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        /**
+         * Maps a requested seat count to the stored one: {@code null} for the whole
+         * resource, which is also what asking for every seat amounts to.
+         */
+        Integer normalizeSeats(Integer seats) {
+            return seats == null || seats >= capacity ? null : seats;
+        }
+
+        synchronized void add(Interval interval) {
+            // Anonymous intervals (null id) are only used for transient checks and cannot be removed
+            if (interval.reservationId() != null && byId.putIfAbsent(interval.reservationId(), interval) != null) {
+                return;
+            }
+            byStart.computeIfAbsent(interval.start(), key -> new ArrayList<>(1)).add(interval);
+            Duration duration = Duration.between(interval.start(), interval.end());
+            if (duration.compareTo(longest) > 0) {
+                longest = duration;
+            }
+        }
+
+        synchronized void remove(UUID reservationId) {
+            Interval interval = byId.remove(reservationId);
+            if (interval == null) {
+                return;
+            }
+            List<Interval> bucket = byStart.get(interval.start());
+            if (bucket != null) {
+                bucket.remove(interval);
+                if (bucket.isEmpty()) {
+                    byStart.remove(interval.start());
+                }
+            }
+        }
+
+        /**
+         * Removes intervals ending at or before {@code cutoff}. Only starts before the
+         * cutoff can qualify, so the scan stops there.
+         */
+        synchronized void pruneEndedBefore(Instant cutoff) {
+            Iterator<List<Interval>> buckets = byStart.headMap(cutoff, false).values().iterator();
+            while (buckets.hasNext()) {
+                List<Interval> bucket = buckets.next();
+                bucket.removeIf(interval -> {
+                    if (interval.end().isAfter(cutoff)) {
+                        return false;
+                    }
+                    if (interval.reservationId() != null) {
+                        byId.remove(interval.reservationId());
+                    }
+                    return true;
+                });
+                if (bucket.isEmpty()) {
+                    buckets.remove();
+                }
+            }
+        }
+
+        /**
+         * Returns {@code true} if {@code seats} more seats (the whole resource when
+         * {@code null}) can be taken throughout {@code [start, end)}.
+         */
+        synchronized boolean fits(Instant start, Instant end, Integer seats) {
+            if (normalizeSeats(seats) == null) {
+                return !overlaps(start, end);
+            }
+            return peakOccupancy(start, end) + seats <= capacity;
+        }
+
+        /**
+         * Highest number of seats taken at any instant of {@code [start, end)}. Sweeps the
+         * start and end events of the overlapping intervals only, clipped to the window.
+         */
+        synchronized int peakOccupancy(Instant start, Instant end) {
+            NavigableMap<Instant, Integer> deltas = new TreeMap<>();
+            for (Interval interval : overlapping(start, end)) {
+                int taken = interval.seats() != null ? Math.min(interval.seats(), capacity) : capacity;
+                deltas.merge(interval.start().isAfter(start) ? interval.start() : start, taken, Integer::sum);
+                deltas.merge(interval.end().isBefore(end) ? interval.end() : end, -taken, Integer::sum);
+            }
+            int occupancy = 0;
+            int peak = 0;
+            for (int delta : deltas.values()) {
+                occupancy += delta;
+                peak = Math.max(peak, occupancy);
+            }
+            return peak;
+        }
+
+        synchronized List<Interval> overlapping(Instant start, Instant end) {
+            List<Interval> result = new ArrayList<>();
+            for (List<Interval> bucket : byStart.subMap(start.minus(longest), false, end, false).values()) {
+                for (Interval interval : bucket) {
+                    if (interval.end().isAfter(start)) {
+                        result.add(interval);
+                    }
+                }
+            }
+            return result;
+        }
+
+        synchronized boolean overlaps(Instant start, Instant end) {
+            for (List<Interval> bucket : byStart.subMap(start.minus(longest), false, end, false).values()) {
+                for (Interval interval : bucket) {
+                    if (interval.end().isAfter(start)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        synchronized int size() {
+            return byId.size();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.ReservationSeries;
+import com.smartuniversity.booking.domain.ReservationStatus;
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationSeriesRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.web.dto.CreateSeriesRequest;
+import com.smartuniversity.booking.web.dto.SeriesDto;
+import com.smartuniversity.booking.web.dto.TimeWindowDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Recurring reservations.
+ * <p>
+ * A series is stored as one row and checked against the resource with one range query
+ * for single reservations and one for other series, regardless of how many occurrences
+ * it has. Occurrences are only expanded in memory, for conflict checks and when a
+ * calendar window is read.
+ */
+@Service
+public class ReservationSeriesService {
+
+    private final ResourceRepository resourceRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationSeriesRepository seriesRepository;
+    private final HoldRegistry holdRegistry;
+    private final OccupancyBitsets occupancyBitsets;
+
+    public ReservationSeriesService(ResourceRepository resourceRepository,
+            ReservationRepository reservationRepository,
+            ReservationSeriesRepository seriesRepository,
+            HoldRegistry holdRegistry,
+            OccupancyBitsets occupancyBitsets) {
+        this.resourceRepository = resourceRepository;
+        this.reservationRepository = reservationRepository;
+        this.seriesRepository = seriesRepository;
+        this.holdRegistry = holdRegistry;
+        this.occupancyBitsets = occupancyBitsets;
+    }
+
+    @Transactional
+    public SeriesDto createSeries(CreateSeriesRequest request, UUID userId, String tenantId) {
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "End time must be after start time");
+        }
+        String timeZone = request.getTimeZone() != null ? request.getTimeZone() : "UTC";
+        try {
+            ZoneId.of(timeZone);
+        } catch (DateTimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown time zone " + timeZone);
+        }
+
+        ReservationSeries series = new ReservationSeries();
+        series.setTenantId(tenantId);
+        series.setUserId(userId);
+        series.setStartTime(request.getStartTime());
+        series.setEndTime(request.getEndTime());
+        series.setFrequency(request.getFrequency());
+        series.setInterval(request.getInterval());
+        series.setUntilDate(request.getUntilDate());
+        series.setTimeZone(timeZone);
+        series.setExceptionDates(request.getExceptionDates() != null
+                ? new HashSet<>(request.getExceptionDates())
+                : new HashSet<>());
+        series.setStatus(ReservationStatus.CREATED);
+
+        long steps = RecurrenceExpander.stepCount(series);
+        if (steps > RecurrenceExpander.MAX_OCCURRENCES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A series may not have more than " + RecurrenceExpander.MAX_OCCURRENCES + " occurrences");
+        }
+
+        Resource resource = resourceRepository.findByIdAndTenantIdForUpdate(request.getResourceId(), tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Resource not found"));
+        series.setResource(resource);
+
+        List<ReservationWindow> occurrences = RecurrenceExpander.expand(series, Instant.MIN, Instant.MAX);
+        if (occurrences.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Series has no occurrences");
+        }
+        Instant from = occurrences.get(0).startTime();
+        Instant to = occurrences.get(occurrences.size() - 1).endTime();
+
+        // Occurrences take the whole resource, so any overlapping reservation or hold, seat bookings included, conflicts
+        ReservationIntervalIndex.ResourceIntervals busy = ReservationIntervalIndex.ResourceIntervals.of(resource);
+        for (ReservationWindow window : reservationRepository.findWindowsByResourceBetween(
+                resource.getId(), ReservationStatus.CREATED, from, to)) {
+            busy.add(new ReservationIntervalIndex.Interval(null, window.startTime(), window.endTime(), window.seats()));
+        }
+        for (ReservationWindow window : occurrencesOnResource(resource.getId(), from, to)) {
+            busy.add(new ReservationIntervalIndex.Interval(null, window.startTime(), window.endTime(), null));
+        }
+        holdRegistry.addActiveHolds(resource.getId(), from, to, busy, null);
+
+        List<ReservationWindow> conflicts = new ArrayList<>();
+        for (ReservationWindow occurrence : occurrences) {
+            if (busy.overlaps(occurrence.startTime(), occurrence.endTime())) {
+                conflicts.add(occurrence);
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Resource already reserved for "
+                    + conflicts.size() + " occurrence(s) of the series, first at " + conflicts.get(0).startTime());
+        }
+
+        series.setSeriesEnd(to);
+        ReservationSeries saved = seriesRepository.save(series);
+        occupancyBitsets.markAfterCommit(resource.getId(), occurrences);
+        return toDto(saved, occurrences.size());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TimeWindowDto> listOccurrences(UUID seriesId, String tenantId, Instant from, Instant to) {
+        if (!to.isAfter(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must be after 'from'");
+        }
+        ReservationSeries series = seriesRepository.findByIdAndTenantId(seriesId, tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Series not found"));
+        return RecurrenceExpander.expand(series, from, to).stream()
+                .map(window -> new TimeWindowDto(window.startTime(), window.endTime()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Occurrences of active series on the resource that overlap {@code [from, to)}.
+     * Callers that need a consistent answer must hold the resource lock.
+     */
+    public List<ReservationWindow> occurrencesOnResource(UUID resourceId, Instant from, Instant to) {
+        List<ReservationWindow> occurrences = new ArrayList<>();
+        for (ReservationSeries series : seriesRepository.findByResourceBetween(
+                resourceId, ReservationStatus.CREATED, from, to)) {
+            occurrences.addAll(RecurrenceExpander.expand(series, from, to));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Occurrences of all active series of the tenant that overlap {@code [from, to)}.
+     */
+    public List<ReservationWindow> occurrencesForTenant(String tenantId, Instant from, Instant to) {
+        List<ReservationWindow> occurrences = new ArrayList<>();
+        for (ReservationSeries series : seriesRepository.findByTenantBetween(
+                tenantId, ReservationStatus.CREATED, from, to)) {
+            occurrences.addAll(RecurrenceExpander.expand(series, from, to));
+        }
+        return occurrences;
+    }
+
+    private SeriesDto toDto(ReservationSeries series, int occurrenceCount) {
+        return new SeriesDto(
+                series.getId(),
+                series.getResource().getId(),
+                series.getUserId(),
+                series.getStartTime(),
+                series.getEndTime(),
+                series.getFrequency(),
+                series.getInterval(),
+                series.getUntilDate(),
+                series.getTimeZone(),
+                series.getExceptionDates(),
+                occurrenceCount,
+                series.getStatus());
+    }
+}
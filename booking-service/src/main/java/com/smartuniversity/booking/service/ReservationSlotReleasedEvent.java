@@ -0,0 +1,9 @@
+package com.smartuniversity.booking.service;
+
+import java.util.UUID;
+
+/**
+ * Published when booked time on a resource becomes free again, e.g. on cancellation.
+ */
+public record ReservationSlotReleasedEvent(UUID resourceId) {
+}
@@ -0,0 +1,126 @@
+package com.smartuniversity.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.booking.messaging.ResourceCatalogBroadcaster;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.web.dto.ResourceDto;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Per-tenant cache of the serialized resource list and its strong ETag.
+ * <p>
+ * Bounded to the most recently used tenants. An entry is dropped after a resource of
+ * the tenant is committed and, when broadcasting is enabled, on every other instance
+ * through RabbitMQ.
+ */
+@Component
+public class ResourceCatalogCache {
+
+    private final ResourceRepository resourceRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<ResourceCatalogBroadcaster> broadcaster;
+
+    private final Map<String, CachedCatalog> catalogs;
+
+    /**
+     * Bumped on every eviction. A load that raced with an eviction may have read the old
+     * catalog, so it is returned but not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResourceCatalogCache(ResourceRepository resourceRepository,
+            ObjectMapper objectMapper,
+            ObjectProvider<ResourceCatalogBroadcaster> broadcaster,
+            @Value("${booking.resource-cache.max-tenants:256}") int maxTenants) {
+        this.resourceRepository = resourceRepository;
+        this.objectMapper = objectMapper;
+        this.broadcaster = broadcaster;
+        this.catalogs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedCatalog> eldest) {
+                return size() > maxTenants;
+            }
+        };
+    }
+
+    public record CachedCatalog(byte[] body, String etag) {
+    }
+
+    public CachedCatalog get(String tenantId) {
+        synchronized (catalogs) {
+            CachedCatalog cached = catalogs.get(tenantId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long seen = generation.get();
+        List<ResourceDto> resources = resourceRepository.findAllByTenantId(tenantId).stream()
+                .map(BookingService::toResourceDto)
+                .collect(Collectors.toList());
+        CachedCatalog loaded = serialize(resources);
+        synchronized (catalogs) {
+            if (generation.get() == seen) {
+                catalogs.put(tenantId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Evicts the tenant here and on the other instances once the surrounding transaction
+     * commits, so a reload cannot pick up the catalog from before the change.
+     */
+    public void invalidateAfterCommit(String tenantId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(tenantId);
+                }
+            });
+        } else {
+            invalidate(tenantId);
+        }
+    }
+
+    public void evict(String tenantId) {
+        synchronized (catalogs) {
+            generation.incrementAndGet();
+            catalogs.remove(tenantId);
+        }
+    }
+
+    public void clear() {
+        synchronized (catalogs) {
+            generation.incrementAndGet();
+            catalogs.clear();
+        }
+    }
+
+    private void invalidate(String tenantId) {
+        evict(tenantId);
+        broadcaster.ifAvailable(publisher -> publisher.publish(tenantId));
+    }
+
+    private CachedCatalog serialize(List<ResourceDto> resources) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(resources);
+            return new CachedCatalog(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize resource catalog", ex);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.smartuniversity.booking.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: timeouts are hashed into {@code size} buckets by their deadline
+ * tick, and each tick only visits one bucket. Scheduling and cancelling are O(1) and a
+ * tick costs O(timeouts in the bucket), however many timeouts are pending overall.
+ * Expiry is accurate to one tick.
+ */
+final class TimingWheel<T> {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Set<Timeout<T>>> buckets;
+    private final Consumer<T> onExpiry;
+    private ScheduledExecutorService ticker;
+    private long currentTick;
+
+    /**
+     * @param size number of buckets, rounded up to a power of two
+     */
+    TimingWheel(Duration tick, int size, Consumer<T> onExpiry) {
+        if (tick.isZero() || tick.isNegative()) {
+            throw new IllegalArgumentException("tick must be positive");
+        }
+        int buckets = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        this.tickNanos = tick.toNanos();
+        this.mask = buckets - 1;
+        this.buckets = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            this.buckets.add(new HashSet<>());
+        }
+        this.onExpiry = onExpiry;
+    }
+
+    /**
+     * Starts advancing the wheel once per tick on a daemon thread.
+     */
+    synchronized void start(String threadName) {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    synchronized Timeout<T> schedule(T item, Duration delay) {
+        long ticks = Math.max(1, (delay.toNanos() + tickNanos - 1) / tickNanos);
+        Timeout<T> timeout = new Timeout<>(item, currentTick + ticks);
+        buckets.get((int) (timeout.deadlineTick & mask)).add(timeout);
+        return timeout;
+    }
+
+    synchronized void cancel(Timeout<T> timeout) {
+        buckets.get((int) (timeout.deadlineTick & mask)).remove(timeout);
+    }
+
+    /**
+     * Moves the wheel forward by one tick and fires the timeouts that are due.
+     */
+    void advance() {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            currentTick++;
+            // Timeouts more than one rotation away share the bucket and stay until their round comes
+            buckets.get((int) (currentTick & mask)).removeIf(timeout -> {
+                if (timeout.deadlineTick <= currentTick) {
+                    expired.add(timeout.item);
+                    return true;
+                }
+                return false;
+            });
+        }
+        // Callbacks run outside the wheel lock so they may schedule or cancel
+        for (T item : expired) {
+            onExpiry.accept(item);
+        }
+    }
+
+    synchronized int pending() {
+        int pending = 0;
+        for (Set<Timeout<T>> bucket : buckets) {
+            pending += bucket.size();
+        }
+        return pending;
+    }
+
+    static final class Timeout<T> {
+
+        private final T item;
+        private final long deadlineTick;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
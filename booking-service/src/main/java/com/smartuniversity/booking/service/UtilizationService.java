@@ -0,0 +1,109 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.web.dto.ResourceUtilizationDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utilization reports computed from {@link OccupancyBitsets}; only the resource list
+ * is read from the database.
+ */
+@Service
+public class UtilizationService {
+
+    static final int MAX_RANGE_DAYS = 366;
+    private static final int SLOTS_PER_HOUR = 4;
+
+    private final ResourceRepository resourceRepository;
+    private final OccupancyBitsets occupancyBitsets;
+
+    public UtilizationService(ResourceRepository resourceRepository, OccupancyBitsets occupancyBitsets) {
+        this.resourceRepository = resourceRepository;
+        this.occupancyBitsets = occupancyBitsets;
+    }
+
+    /**
+     * Utilization of every matching resource of the tenant over the UTC days
+     * {@code [from, to)}.
+     */
+    public List<ResourceUtilizationDto> utilization(String tenantId, LocalDate from, LocalDate to, String type) {
+        if (!to.isAfter(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must be after 'from'");
+        }
+        long dayCount = ChronoUnit.DAYS.between(from, to);
+        if (dayCount > MAX_RANGE_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range may not exceed " + MAX_RANGE_DAYS + " days");
+        }
+        if (!occupancyBitsets.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Occupancy data is still loading");
+        }
+
+        int[] daysPerWeekday = new int[7];
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            daysPerWeekday[day.getDayOfWeek().getValue() - 1]++;
+        }
+
+        List<ResourceUtilizationDto> result = new ArrayList<>();
+        for (Resource resource : resourceRepository.findAllByTenantId(tenantId)) {
+            if (type != null && !type.equalsIgnoreCase(resource.getType())) {
+                continue;
+            }
+            result.add(summarize(resource, occupancyBitsets.days(resource.getId(), from, to),
+                    dayCount, daysPerWeekday));
+        }
+        result.sort(Comparator.comparing(ResourceUtilizationDto::getName));
+        return result;
+    }
+
+    private static ResourceUtilizationDto summarize(Resource resource, Map<LocalDate, long[]> days, long dayCount,
+            int[] daysPerWeekday) {
+        int[] byHour = new int[24];
+        int[][] byWeekdayHour = new int[7][24];
+        long occupied = 0;
+        for (Map.Entry<LocalDate, long[]> entry : days.entrySet()) {
+            int weekday = entry.getKey().getDayOfWeek().getValue() - 1;
+            long[] words = entry.getValue();
+            occupied += Long.bitCount(words[0]) + Long.bitCount(words[1]);
+            for (int hour = 0; hour < 24; hour++) {
+                int slots = OccupancyBitsets.occupiedInHour(words, hour);
+                byHour[hour] += slots;
+                byWeekdayHour[weekday][hour] += slots;
+            }
+        }
+
+        double[] hourly = new double[24];
+        double[][] weekdayHourly = new double[7][24];
+        for (int hour = 0; hour < 24; hour++) {
+            hourly[hour] = ratio(byHour[hour], dayCount * SLOTS_PER_HOUR);
+            for (int weekday = 0; weekday < 7; weekday++) {
+                weekdayHourly[weekday][hour] = ratio(byWeekdayHour[weekday][hour],
+                        (long) daysPerWeekday[weekday] * SLOTS_PER_HOUR);
+            }
+        }
+        return new ResourceUtilizationDto(
+                resource.getId(),
+                resource.getName(),
+                resource.getType(),
+                resource.getCapacity(),
+                occupied / (double) SLOTS_PER_HOUR,
+                ratio(occupied, dayCount * OccupancyBitsets.SLOTS_PER_DAY),
+                hourly,
+                weekdayHourly);
+    }
+
+    private static double ratio(long part, long whole) {
+        // Four decimals are plenty for a heatmap and keep the payload small
+        return whole == 0 ? 0 : Math.round(part * 10_000.0 / whole) / 10_000.0;
+    }
+}
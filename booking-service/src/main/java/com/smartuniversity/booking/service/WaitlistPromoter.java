@@ -0,0 +1,126 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.WaitlistEntry;
+import com.smartuniversity.booking.domain.WaitlistStatus;
+import com.smartuniversity.booking.repository.WaitlistEntryRepository;
+import com.smartuniversity.booking.web.dto.CreateReservationRequest;
+import com.smartuniversity.booking.web.dto.ReservationDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Books waitlisted requests into time that became free.
+ * <p>
+ * Releases only mark the resource as pending; a scheduled pass then handles every
+ * pending resource at once, so a burst of cancellations costs one pass per resource and
+ * none of it runs on the request thread. Entries are tried in FIFO order through
+ * {@link BookingService#createReservation}, i.e. with the same locking and overlap
+ * checks as a direct booking, each in its own transaction together with the entry update.
+ */
+@Component
+public class WaitlistPromoter {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistPromoter.class);
+
+    /** Entries tried per resource and pass; the rest wait for the next release. */
+    static final int BATCH_SIZE = 100;
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final BookingService bookingService;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    public WaitlistPromoter(WaitlistEntryRepository waitlistRepository,
+            BookingService bookingService,
+            PlatformTransactionManager transactionManager) {
+        this.waitlistRepository = waitlistRepository;
+        this.bookingService = bookingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSlotReleased(ReservationSlotReleasedEvent event) {
+        enqueue(event.resourceId());
+    }
+
+    public void enqueue(UUID resourceId) {
+        pending.add(resourceId);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.waitlist.promotion-interval-ms:1000}")
+    public void promotePending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<UUID> batch = new ArrayList<>(pending);
+        batch.forEach(pending::remove);
+        for (UUID resourceId : batch) {
+            try {
+                int promoted = promote(resourceId);
+                if (promoted > 0) {
+                    log.debug("Promoted {} waitlist entries on resource {}", promoted, resourceId);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Waitlist promotion failed for resource {}", resourceId, ex);
+            }
+        }
+    }
+
+    /**
+     * One FIFO pass over the waiting entries of a resource; returns how many were booked.
+     */
+    int promote(UUID resourceId) {
+        Instant now = Instant.now();
+        int promoted = 0;
+        for (WaitlistEntry entry : waitlistRepository.findByResourceInOrder(
+                resourceId, WaitlistStatus.WAITING, PageRequest.of(0, BATCH_SIZE))) {
+            if (!entry.getStartTime().isAfter(now)) {
+                transactionTemplate.executeWithoutResult(status -> waitlistRepository.findByIdForUpdate(entry.getId())
+                        .filter(locked -> locked.getStatus() == WaitlistStatus.WAITING)
+                        .ifPresent(locked -> locked.setStatus(WaitlistStatus.EXPIRED)));
+                continue;
+            }
+            try {
+                Boolean booked = transactionTemplate.execute(status -> promoteEntry(entry.getId()));
+                if (Boolean.TRUE.equals(booked)) {
+                    promoted++;
+                }
+            } catch (ReservationConflictException ex) {
+                // Still taken: the entry keeps its place in the queue
+            }
+        }
+        return promoted;
+    }
+
+    private boolean promoteEntry(UUID entryId) {
+        // The row lock keeps two instances from promoting the same entry
+        WaitlistEntry entry = waitlistRepository.findByIdForUpdate(entryId)
+                .filter(locked -> locked.getStatus() == WaitlistStatus.WAITING)
+                .orElse(null);
+        if (entry == null) {
+            return false;
+        }
+        CreateReservationRequest request = new CreateReservationRequest();
+        request.setResourceId(entry.getResource().getId());
+        request.setStartTime(entry.getStartTime());
+        request.setEndTime(entry.getEndTime());
+        request.setSeats(entry.getSeats());
+        ReservationDto reservation = bookingService.createReservation(request, entry.getUserId(), entry.getTenantId());
+        entry.setStatus(WaitlistStatus.PROMOTED);
+        entry.setReservationId(reservation.getId());
+        return true;
+    }
+}
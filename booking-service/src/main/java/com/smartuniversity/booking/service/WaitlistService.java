@@ -0,0 +1,102 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.domain.WaitlistEntry;
+import com.smartuniversity.booking.domain.WaitlistStatus;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.repository.WaitlistEntryRepository;
+import com.smartuniversity.booking.web.dto.CreateReservationRequest;
+import com.smartuniversity.booking.web.dto.WaitlistEntryDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Joining and leaving a resource's waitlist; {@link WaitlistPromoter} does the booking.
+ */
+@Service
+public class WaitlistService {
+
+    private final ResourceRepository resourceRepository;
+    private final WaitlistEntryRepository waitlistRepository;
+    private final WaitlistPromoter promoter;
+
+    public WaitlistService(ResourceRepository resourceRepository,
+            WaitlistEntryRepository waitlistRepository,
+            WaitlistPromoter promoter) {
+        this.resourceRepository = resourceRepository;
+        this.waitlistRepository = waitlistRepository;
+        this.promoter = promoter;
+    }
+
+    @Transactional
+    public WaitlistEntryDto join(CreateReservationRequest request, UUID userId, String tenantId) {
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "End time must be after start time");
+        }
+        if (!request.getStartTime().isAfter(Instant.now())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot wait for a window that has started");
+        }
+        Resource resource = resourceRepository.findByIdAndTenantId(request.getResourceId(), tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Resource not found"));
+        Integer seats = BookingService.validateSeats(request.getSeats(),
+                ReservationIntervalIndex.ResourceIntervals.of(resource));
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setResource(resource);
+        entry.setTenantId(tenantId);
+        entry.setUserId(userId);
+        entry.setStartTime(request.getStartTime());
+        entry.setEndTime(request.getEndTime());
+        entry.setSeats(seats);
+        entry.setStatus(WaitlistStatus.WAITING);
+        WaitlistEntry saved = waitlistRepository.save(entry);
+
+        // The window may already be free; the next pass books it right away in that case
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                promoter.enqueue(resource.getId());
+            }
+        });
+        return toDto(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public WaitlistEntryDto get(UUID entryId, UUID userId, String tenantId) {
+        return toDto(findOwn(entryId, userId, tenantId));
+    }
+
+    @Transactional
+    public void leave(UUID entryId, UUID userId, String tenantId) {
+        WaitlistEntry entry = findOwn(entryId, userId, tenantId);
+        if (entry.getStatus() != WaitlistStatus.WAITING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Entry is already " + entry.getStatus());
+        }
+        entry.setStatus(WaitlistStatus.CANCELED);
+    }
+
+    private WaitlistEntry findOwn(UUID entryId, UUID userId, String tenantId) {
+        return waitlistRepository.findByIdAndTenantId(entryId, tenantId)
+                .filter(entry -> entry.getUserId().equals(userId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Waitlist entry not found"));
+    }
+
+    private static WaitlistEntryDto toDto(WaitlistEntry entry) {
+        return new WaitlistEntryDto(
+                entry.getId(),
+                entry.getResource().getId(),
+                entry.getUserId(),
+                entry.getStartTime(),
+                entry.getEndTime(),
+                entry.getSeats(),
+                entry.getStatus(),
+                entry.getReservationId());
+    }
+}
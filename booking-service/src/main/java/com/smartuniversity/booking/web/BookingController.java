@@ -1,24 +1,46 @@
 package com.smartuniversity.booking.web;
 
+import com.smartuniversity.booking.service.AvailabilityService;
+import com.smartuniversity.booking.service.BatchReservationService;
 import com.smartuniversity.booking.service.BookingService;
+import com.smartuniversity.booking.service.ResourceCatalogCache;
+import com.smartuniversity.booking.service.UtilizationService;
+import com.smartuniversity.booking.web.dto.BatchMode;
+import com.smartuniversity.booking.web.dto.BatchReservationRequest;
+import com.smartuniversity.booking.web.dto.BatchReservationResponse;
 import com.smartuniversity.booking.web.dto.CreateReservationRequest;
 import com.smartuniversity.booking.web.dto.CreateResourceRequest;
 import com.smartuniversity.booking.web.dto.ReservationDto;
+import com.smartuniversity.booking.web.dto.ReservationPageDto;
+import com.smartuniversity.booking.web.dto.ResourceAvailabilityDto;
 import com.smartuniversity.booking.web.dto.ResourceDto;
+import com.smartuniversity.booking.web.dto.ResourceUtilizationDto;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -31,15 +53,57 @@ import java.util.UUID;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final AvailabilityService availabilityService;
+    private final BatchReservationService batchReservationService;
+    private final ResourceCatalogCache resourceCatalogCache;
+    private final UtilizationService utilizationService;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService,
+            AvailabilityService availabilityService,
+            BatchReservationService batchReservationService,
+            ResourceCatalogCache resourceCatalogCache,
+            UtilizationService utilizationService) {
         this.bookingService = bookingService;
+        this.availabilityService = availabilityService;
+        this.batchReservationService = batchReservationService;
+        this.resourceCatalogCache = resourceCatalogCache;
+        this.utilizationService = utilizationService;
     }
 
-    @GetMapping("/resources")
+    @GetMapping(value = "/resources", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "List resources", description = "Returns all bookable resources for the current tenant")
-    public List<ResourceDto> listResources(@RequestHeader("X-Tenant-Id") String tenantId) {
-        return bookingService.listResources(tenantId);
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ResourceDto.class))))
+    public ResponseEntity<byte[]> listResources(@RequestHeader("X-Tenant-Id") String tenantId, WebRequest webRequest) {
+        ResourceCatalogCache.CachedCatalog catalog = resourceCatalogCache.get(tenantId);
+        if (webRequest.checkNotModified(catalog.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(catalog.etag())
+                .body(catalog.body());
+    }
+
+    @GetMapping("/resources/availability")
+    @Operation(summary = "Search availability", description = "Returns the free windows of every matching resource in one call")
+    public List<ResourceAvailabilityDto> findAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+        return availabilityService.findAvailability(tenantId, from, to, type, minCapacity);
+    }
+
+    @GetMapping("/resources/utilization")
+    @Operation(summary = "Resource utilization", description = "Hour-by-hour occupancy per resource over UTC days [from, to), served from in-memory bitsets")
+    public List<ResourceUtilizationDto> findUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String type,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+        return utilizationService.utilization(tenantId, from, to, type);
     }
 
     @PostMapping("/resources")
@@ -65,4 +129,56 @@ public class BookingController {
         ReservationDto reservation = bookingService.createReservation(request, userId, tenantId);
         return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
     }
+
+    @PostMapping("/reservations/{id}/cancel")
+    @Operation(summary = "Cancel reservation", description = "Cancels one of the caller's reservations and offers the freed time to the waitlist")
+    public ResponseEntity<ReservationDto> cancelReservation(
+            @PathVariable("id") UUID id,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UUID userId = UUID.fromString(userIdHeader);
+        return ResponseEntity.ok(bookingService.cancelReservation(id, userId, tenantId));
+    }
+
+    @GetMapping("/reservations")
+    @Operation(summary = "List reservations", description = "Pages through a resource's reservations by start time using an opaque cursor")
+    public ReservationPageDto listReservations(
+            @RequestParam UUID resourceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+        return bookingService.listReservations(resourceId, tenantId, from, to, cursor, limit);
+    }
+
+    @PostMapping("/reservations/batch")
+    @Operation(summary = "Create reservations in bulk", description = "Books many slots at once, locking each resource only once")
+    public ResponseEntity<BatchReservationResponse> createReservations(
+            @Valid @RequestBody BatchReservationRequest request,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UUID userId = UUID.fromString(userIdHeader);
+        BatchReservationResponse response = batchReservationService.createReservations(request, userId, tenantId);
+
+        HttpStatus status;
+        if (response.getRejected() == 0) {
+            status = HttpStatus.CREATED;
+        } else if (response.getMode() == BatchMode.ALL_OR_NOTHING) {
+            status = HttpStatus.CONFLICT;
+        } else {
+            status = HttpStatus.OK;
+        }
+        return ResponseEntity.status(status).body(response);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.smartuniversity.booking.web;
+
+import com.smartuniversity.booking.service.CalendarFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * iCalendar feed of a resource's bookings.
+ */
+@RestController
+@RequestMapping("/booking/resources")
+@Tag(name = "Booking calendar", description = "iCalendar feeds with ETag revalidation and incremental sync")
+public class ReservationCalendarController {
+
+    public static final String SYNC_TOKEN_HEADER = "X-Sync-Token";
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final CalendarFeedService calendarFeedService;
+
+    public ReservationCalendarController(CalendarFeedService calendarFeedService) {
+        this.calendarFeedService = calendarFeedService;
+    }
+
+    @GetMapping("/{id}/calendar.ics")
+    @Operation(summary = "Resource calendar", description = "Returns the resource's bookings as iCalendar; pass syncToken to receive only changes")
+    public ResponseEntity<String> calendar(
+            @PathVariable("id") UUID id,
+            @RequestParam(required = false) String syncToken,
+            @RequestHeader("X-Tenant-Id") String tenantId,
+            WebRequest webRequest) {
+
+        // Revalidation only runs the aggregate queries behind the ETag
+        if (webRequest.checkNotModified(calendarFeedService.etag(id, tenantId, syncToken))) {
+            return null;
+        }
+
+        CalendarFeedService.CalendarFeed feed = calendarFeedService.render(id, tenantId, syncToken);
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .cacheControl(CacheControl.noCache())
+                .eTag(feed.etag())
+                .header(SYNC_TOKEN_HEADER, feed.syncToken())
+                .body(feed.body());
+    }
+}
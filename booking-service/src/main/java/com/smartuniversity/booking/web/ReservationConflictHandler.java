@@ -0,0 +1,29 @@
+package com.smartuniversity.booking.web;
+
+import com.smartuniversity.booking.service.ReservationAlternativesService;
+import com.smartuniversity.booking.service.ReservationConflictException;
+import com.smartuniversity.booking.web.dto.ReservationConflictDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns a rejected reservation into a 409 that lists alternatives, so a client can pick
+ * one instead of retrying nearby times blindly. Runs after the booking transaction has
+ * rolled back, so the lookup never extends the resource lock.
+ */
+@RestControllerAdvice
+public class ReservationConflictHandler {
+
+    private final ReservationAlternativesService alternativesService;
+
+    public ReservationConflictHandler(ReservationAlternativesService alternativesService) {
+        this.alternativesService = alternativesService;
+    }
+
+    @ExceptionHandler(ReservationConflictException.class)
+    public ResponseEntity<ReservationConflictDto> handleConflict(ReservationConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(alternativesService.suggest(ex));
+    }
+}
@@ -0,0 +1,86 @@
+package com.smartuniversity.booking.web;
+
+import com.smartuniversity.booking.service.BookingService;
+import com.smartuniversity.booking.service.ReservationHoldService;
+import com.smartuniversity.booking.web.dto.CreateHoldRequest;
+import com.smartuniversity.booking.web.dto.HoldDto;
+import com.smartuniversity.booking.web.dto.ReservationDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+/**
+ * REST API for short-lived holds on a slot.
+ */
+@RestController
+@RequestMapping("/booking/holds")
+@Tag(name = "Booking holds", description = "Tentative holds that keep a slot while the user completes a booking")
+public class ReservationHoldController {
+
+    private final ReservationHoldService holdService;
+    private final BookingService bookingService;
+
+    public ReservationHoldController(ReservationHoldService holdService, BookingService bookingService) {
+        this.holdService = holdService;
+        this.bookingService = bookingService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Create hold", description = "Holds a slot for a limited time so other users cannot book it")
+    public ResponseEntity<HoldDto> createHold(
+            @Valid @RequestBody CreateHoldRequest request,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UUID userId = UUID.fromString(userIdHeader);
+        HoldDto hold = holdService.createHold(request, userId, tenantId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    @PostMapping("/{id}/confirm")
+    @Operation(summary = "Confirm hold", description = "Turns the caller's hold into a reservation")
+    public ResponseEntity<ReservationDto> confirmHold(
+            @PathVariable("id") UUID id,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UUID userId = UUID.fromString(userIdHeader);
+        ReservationDto reservation = bookingService.confirmHold(id, userId, tenantId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Release hold", description = "Releases the caller's hold before it expires")
+    public ResponseEntity<Void> releaseHold(
+            @PathVariable("id") UUID id,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        holdService.releaseHold(id, UUID.fromString(userIdHeader), tenantId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.smartuniversity.booking.web;
+
+import com.smartuniversity.booking.service.ReservationSeriesService;
+import com.smartuniversity.booking.web.dto.CreateSeriesRequest;
+import com.smartuniversity.booking.web.dto.SeriesDto;
+import com.smartuniversity.booking.web.dto.TimeWindowDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST API for recurring reservation series.
+ */
+@RestController
+@RequestMapping("/booking/series")
+@Tag(name = "Booking series", description = "Recurring reservations such as weekly lectures")
+public class ReservationSeriesController {
+
+    private final ReservationSeriesService seriesService;
+
+    public ReservationSeriesController(ReservationSeriesService seriesService) {
+        this.seriesService = seriesService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Create series", description = "Books every occurrence of a recurring rule, rejecting the series if any occurrence conflicts")
+    public ResponseEntity<SeriesDto> createSeries(
+            @Valid @RequestBody CreateSeriesRequest request,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UUID userId = UUID.fromString(userIdHeader);
+        SeriesDto series = seriesService.createSeries(request, userId, tenantId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(series);
+    }
+
+    @GetMapping("/{id}/occurrences")
+    @Operation(summary = "List occurrences", description = "Expands the series into concrete occurrences within a calendar window")
+    public List<TimeWindowDto> listOccurrences(
+            @PathVariable("id") UUID id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+        return seriesService.listOccurrences(id, tenantId, from, to);
+    }
+}
@@ -0,0 +1,80 @@
+package com.smartuniversity.booking.web;
+
+import com.smartuniversity.booking.service.WaitlistService;
+import com.smartuniversity.booking.web.dto.CreateReservationRequest;
+import com.smartuniversity.booking.web.dto.WaitlistEntryDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+/**
+ * REST API for the reservation waitlist.
+ */
+@RestController
+@RequestMapping("/booking/waitlist")
+@Tag(name = "Booking waitlist", description = "Queue for a taken window, booked automatically when it frees up")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    public WaitlistController(WaitlistService waitlistService) {
+        this.waitlistService = waitlistService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Join waitlist", description = "Queues the caller for a window; it is booked in FIFO order once free")
+    public ResponseEntity<WaitlistEntryDto> join(
+            @Valid @RequestBody CreateReservationRequest request,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        UUID userId = UUID.fromString(userIdHeader);
+        return ResponseEntity.status(HttpStatus.CREATED).body(waitlistService.join(request, userId, tenantId));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get waitlist entry", description = "Returns the status of the caller's entry and, once promoted, its reservation")
+    public ResponseEntity<WaitlistEntryDto> get(
+            @PathVariable("id") UUID id,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return ResponseEntity.ok(waitlistService.get(id, UUID.fromString(userIdHeader), tenantId));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Leave waitlist", description = "Withdraws the caller's waiting entry")
+    public ResponseEntity<Void> leave(
+            @PathVariable("id") UUID id,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+
+        if (!StringUtils.hasText(userIdHeader)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        waitlistService.leave(id, UUID.fromString(userIdHeader), tenantId);
+        return ResponseEntity.noContent().build();
+    }
+}
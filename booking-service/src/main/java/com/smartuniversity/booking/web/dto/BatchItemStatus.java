@@ -0,0 +1,13 @@
+package com.smartuniversity.booking.web.dto;
+
+/**
+ * Outcome of a single item within a reservation batch.
+ */
+public enum BatchItemStatus {
+    CREATED,
+    CONFLICT,
+    NOT_FOUND,
+    INVALID,
+    /** Bookable, but not created because another item failed in ALL_OR_NOTHING mode. */
+    ABORTED
+}
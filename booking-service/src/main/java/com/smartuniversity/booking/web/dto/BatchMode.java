@@ -0,0 +1,11 @@
+package com.smartuniversity.booking.web.dto;
+
+/**
+ * How a reservation batch reacts to items that cannot be booked.
+ */
+public enum BatchMode {
+    /** Nothing is created unless every item can be booked. */
+    ALL_OR_NOTHING,
+    /** Bookable items are created; the others are reported individually. */
+    PARTIAL
+}
@@ -0,0 +1,51 @@
+package com.smartuniversity.booking.web.dto;
+
+public class BatchReservationItemResult {
+
+    private int index;
+    private BatchItemStatus status;
+    private String message;
+    private ReservationDto reservation;
+
+    public BatchReservationItemResult() {
+    }
+
+    public BatchReservationItemResult(int index, BatchItemStatus status, String message, ReservationDto reservation) {
+        this.index = index;
+        this.status = status;
+        this.message = message;
+        this.reservation = reservation;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public BatchItemStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BatchItemStatus status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public ReservationDto getReservation() {
+        return reservation;
+    }
+
+    public void setReservation(ReservationDto reservation) {
+        this.reservation = reservation;
+    }
+}
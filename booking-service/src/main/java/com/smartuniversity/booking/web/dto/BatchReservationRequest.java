@@ -0,0 +1,33 @@
+package com.smartuniversity.booking.web.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchReservationRequest {
+
+    @NotEmpty
+    @Size(max = 1000)
+    @Valid
+    private List<CreateReservationRequest> items;
+
+    private BatchMode mode = BatchMode.ALL_OR_NOTHING;
+
+    public List<CreateReservationRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CreateReservationRequest> items) {
+        this.items = items;
+    }
+
+    public BatchMode getMode() {
+        return mode;
+    }
+
+    public void setMode(BatchMode mode) {
+        this.mode = mode;
+    }
+}
@@ -0,0 +1,53 @@
+package com.smartuniversity.booking.web.dto;
+
+import java.util.List;
+
+public class BatchReservationResponse {
+
+    private BatchMode mode;
+    private int created;
+    private int rejected;
+    private List<BatchReservationItemResult> results;
+
+    public BatchReservationResponse() {
+    }
+
+    public BatchReservationResponse(BatchMode mode, int created, int rejected, List<BatchReservationItemResult> results) {
+        this.mode = mode;
+        this.created = created;
+        this.rejected = rejected;
+        this.results = results;
+    }
+
+    public BatchMode getMode() {
+        return mode;
+    }
+
+    public void setMode(BatchMode mode) {
+        this.mode = mode;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<BatchReservationItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchReservationItemResult> results) {
+        this.results = results;
+    }
+}
@@ -1,5 +1,6 @@
 package com.smartuniversity.booking.web.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 import java.time.Instant;
@@ -16,6 +17,12 @@ public class CreateReservationRequest {
     @NotNull
     private Instant endTime;
 
+    /**
+     * Seats to take on a shared resource; omit to reserve the whole resource.
+     */
+    @Min(1)
+    private Integer seats;
+
     public UUID getResourceId() {
         return resourceId;
     }
@@ -39,4 +46,12 @@ public class CreateReservationRequest {
     public void setEndTime(Instant endTime) {
         this.endTime = endTime;
     }
+
+    public Integer getSeats() {
+        return seats;
+    }
+
+    public void setSeats(Integer seats) {
+        this.seats = seats;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.smartuniversity.booking.web.dto;
+
+import com.smartuniversity.booking.domain.RecurrenceFrequency;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+public class CreateSeriesRequest {
+
+    @NotNull
+    private UUID resourceId;
+
+    /** Start of the first occurrence. */
+    @NotNull
+    private Instant startTime;
+
+    /** End of the first occurrence. */
+    @NotNull
+    private Instant endTime;
+
+    @NotNull
+    private RecurrenceFrequency frequency;
+
+    @Min(1)
+    private int interval = 1;
+
+    @NotNull
+    private LocalDate untilDate;
+
+    @Size(max = 64)
+    private String timeZone = "UTC";
+
+    private Set<LocalDate> exceptionDates = new HashSet<>();
+
+    public UUID getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(UUID resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    public LocalDate getUntilDate() {
+        return untilDate;
+    }
+
+    public void setUntilDate(LocalDate untilDate) {
+        this.untilDate = untilDate;
+    }
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(String timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public Set<LocalDate> getExceptionDates() {
+        return exceptionDates;
+    }
+
+    public void setExceptionDates(Set<LocalDate> exceptionDates) {
+        this.exceptionDates = exceptionDates;
+    }
+}
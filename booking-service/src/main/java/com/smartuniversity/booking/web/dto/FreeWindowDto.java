@@ -0,0 +1,43 @@
+package com.smartuniversity.booking.web.dto;
+
+import java.time.Instant;
+
+public class FreeWindowDto {
+
+    private Instant startTime;
+    private Instant endTime;
+    private int availableSeats;
+
+    public FreeWindowDto() {
+    }
+
+    public FreeWindowDto(Instant startTime, Instant endTime, int availableSeats) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.availableSeats = availableSeats;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    public void setAvailableSeats(int availableSeats) {
+        this.availableSeats = availableSeats;
+    }
+}
@@ -0,0 +1,85 @@
+package com.smartuniversity.booking.web.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class HoldDto {
+
+    private UUID id;
+    private UUID resourceId;
+    private UUID userId;
+    private Instant startTime;
+    private Instant endTime;
+    private Integer seats;
+    private Instant expiresAt;
+
+    public HoldDto() {
+    }
+
+    public HoldDto(UUID id, UUID resourceId, UUID userId, Instant startTime, Instant endTime, Integer seats,
+            Instant expiresAt) {
+        this.id = id;
+        this.resourceId = resourceId;
+        this.userId = userId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.seats = seats;
+        this.expiresAt = expiresAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(UUID resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    public Integer getSeats() {
+        return seats;
+    }
+
+    public void setSeats(Integer seats) {
+        this.seats = seats;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,47 @@
+package com.smartuniversity.booking.web.dto;
+
+import java.util.List;
+
+/**
+ * Body of a 409 for a reservation, with places the request could go instead.
+ */
+public class ReservationConflictDto {
+
+    private String message;
+    private List<TimeWindowDto> alternativeWindows;
+    private List<ResourceDto> alternativeResources;
+
+    public ReservationConflictDto() {
+    }
+
+    public ReservationConflictDto(String message, List<TimeWindowDto> alternativeWindows,
+            List<ResourceDto> alternativeResources) {
+        this.message = message;
+        this.alternativeWindows = alternativeWindows;
+        this.alternativeResources = alternativeResources;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<TimeWindowDto> getAlternativeWindows() {
+        return alternativeWindows;
+    }
+
+    public void setAlternativeWindows(List<TimeWindowDto> alternativeWindows) {
+        this.alternativeWindows = alternativeWindows;
+    }
+
+    public List<ResourceDto> getAlternativeResources() {
+        return alternativeResources;
+    }
+
+    public void setAlternativeResources(List<ResourceDto> alternativeResources) {
+        this.alternativeResources = alternativeResources;
+    }
+}
@@ -12,17 +12,20 @@ public class ReservationDto {
     private UUID userId;
     private Instant startTime;
     private Instant endTime;
+    private Integer seats;
     private ReservationStatus status;
 
     public ReservationDto() {
     }
 
-    public ReservationDto(UUID id, UUID resourceId, UUID userId, Instant startTime, Instant endTime, ReservationStatus status) {
+    public ReservationDto(UUID id, UUID resourceId, UUID userId, Instant startTime, Instant endTime,
+            Integer seats, ReservationStatus status) {
         this.id = id;
         this.resourceId = resourceId;
         this.userId = userId;
         this.startTime = startTime;
         this.endTime = endTime;
+        this.seats = seats;
         this.status = status;
     }
 
@@ -66,6 +69,14 @@ public class ReservationDto {
         this.endTime = endTime;
     }
 
+    public Integer getSeats() {
+        return seats;
+    }
+
+    public void setSeats(Integer seats) {
+        this.seats = seats;
+    }
+
     public ReservationStatus getStatus() {
         return status;
     }
@@ -0,0 +1,37 @@
+package com.smartuniversity.booking.web.dto;
+
+import java.util.List;
+
+public class ReservationPageDto {
+
+    private List<ReservationDto> items;
+
+    /**
+     * Cursor for the next page, or {@code null} when this is the last page.
+     */
+    private String nextCursor;
+
+    public ReservationPageDto() {
+    }
+
+    public ReservationPageDto(List<ReservationDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ReservationDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReservationDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,65 @@
+package com.smartuniversity.booking.web.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public class ResourceAvailabilityDto {
+
+    private UUID resourceId;
+    private String name;
+    private String type;
+    private Integer capacity;
+    private List<FreeWindowDto> freeWindows;
+
+    public ResourceAvailabilityDto() {
+    }
+
+    public ResourceAvailabilityDto(UUID resourceId, String name, String type, Integer capacity,
+            List<FreeWindowDto> freeWindows) {
+        this.resourceId = resourceId;
+        this.name = name;
+        this.type = type;
+        this.capacity = capacity;
+        this.freeWindows = freeWindows;
+    }
+
+    public UUID getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(UUID resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public List<FreeWindowDto> getFreeWindows() {
+        return freeWindows;
+    }
+
+    public void setFreeWindows(List<FreeWindowDto> freeWindows) {
+        this.freeWindows = freeWindows;
+    }
+}
@@ -0,0 +1,96 @@
+package com.smartuniversity.booking.web.dto;
+
+import java.util.UUID;
+
+public class ResourceUtilizationDto {
+
+    private UUID resourceId;
+    private String name;
+    private String type;
+    private Integer capacity;
+    private double bookedHours;
+    private double utilization;
+    /** Share of occupied time per UTC hour of day, 24 entries. */
+    private double[] hourly;
+    /** Share of occupied time per day of week (Monday first) and UTC hour, 7 x 24 entries. */
+    private double[][] weekdayHourly;
+
+    public ResourceUtilizationDto() {
+    }
+
+    public ResourceUtilizationDto(UUID resourceId, String name, String type, Integer capacity,
+            double bookedHours, double utilization, double[] hourly, double[][] weekdayHourly) {
+        this.resourceId = resourceId;
+        this.name = name;
+        this.type = type;
+        this.capacity = capacity;
+        this.bookedHours = bookedHours;
+        this.utilization = utilization;
+        this.hourly = hourly;
+        this.weekdayHourly = weekdayHourly;
+    }
+
+    public UUID getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(UUID resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public double getBookedHours() {
+        return bookedHours;
+    }
+
+    public void setBookedHours(double bookedHours) {
+        this.bookedHours = bookedHours;
+    }
+
+    public double getUtilization() {
+        return utilization;
+    }
+
+    public void setUtilization(double utilization) {
+        this.utilization = utilization;
+    }
+
+    public double[] getHourly() {
+        return hourly;
+    }
+
+    public void setHourly(double[] hourly) {
+        this.hourly = hourly;
+    }
+
+    public double[][] getWeekdayHourly() {
+        return weekdayHourly;
+    }
+
+    public void setWeekdayHourly(double[][] weekdayHourly) {
+        this.weekdayHourly = weekdayHourly;
+    }
+}
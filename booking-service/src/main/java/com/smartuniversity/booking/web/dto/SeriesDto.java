@@ -0,0 +1,141 @@
+package com.smartuniversity.booking.web.dto;
+
+import com.smartuniversity.booking.domain.RecurrenceFrequency;
+import com.smartuniversity.booking.domain.ReservationStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+public class SeriesDto {
+
+    private UUID id;
+    private UUID resourceId;
+    private UUID userId;
+    private Instant startTime;
+    private Instant endTime;
+    private RecurrenceFrequency frequency;
+    private int interval;
+    private LocalDate untilDate;
+    private String timeZone;
+    private Set<LocalDate> exceptionDates;
+    private int occurrenceCount;
+    private ReservationStatus status;
+
+    public SeriesDto() {
+    }
+
+    public SeriesDto(UUID id, UUID resourceId, UUID userId, Instant startTime, Instant endTime,
+            RecurrenceFrequency frequency, int interval, LocalDate untilDate, String timeZone,
+            Set<LocalDate> exceptionDates, int occurrenceCount, ReservationStatus status) {
+        this.id = id;
+        this.resourceId = resourceId;
+        this.userId = userId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.frequency = frequency;
+        this.interval = interval;
+        this.untilDate = untilDate;
+        this.timeZone = timeZone;
+        this.exceptionDates = exceptionDates;
+        this.occurrenceCount = occurrenceCount;
+        this.status = status;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(UUID resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    public LocalDate getUntilDate() {
+        return untilDate;
+    }
+
+    public void setUntilDate(LocalDate untilDate) {
+        this.untilDate = untilDate;
+    }
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(String timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public Set<LocalDate> getExceptionDates() {
+        return exceptionDates;
+    }
+
+    public void setExceptionDates(Set<LocalDate> exceptionDates) {
+        this.exceptionDates = exceptionDates;
+    }
+
+    public int getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(int occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+}
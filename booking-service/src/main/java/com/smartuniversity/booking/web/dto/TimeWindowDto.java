@@ -0,0 +1,33 @@
+package com.smartuniversity.booking.web.dto;
+
+import java.time.Instant;
+
+public class TimeWindowDto {
+
+    private Instant startTime;
+    private Instant endTime;
+
+    public TimeWindowDto() {
+    }
+
+    public TimeWindowDto(Instant startTime, Instant endTime) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+}
@@ -0,0 +1,97 @@
+package com.smartuniversity.booking.web.dto;
+
+import com.smartuniversity.booking.domain.WaitlistStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class WaitlistEntryDto {
+
+    private UUID id;
+    private UUID resourceId;
+    private UUID userId;
+    private Instant startTime;
+    private Instant endTime;
+    private Integer seats;
+    private WaitlistStatus status;
+    private UUID reservationId;
+
+    public WaitlistEntryDto() {
+    }
+
+    public WaitlistEntryDto(UUID id, UUID resourceId, UUID userId, Instant startTime, Instant endTime, Integer seats,
+            WaitlistStatus status, UUID reservationId) {
+        this.id = id;
+        this.resourceId = resourceId;
+        this.userId = userId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.seats = seats;
+        this.status = status;
+        this.reservationId = reservationId;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(UUID resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    public Integer getSeats() {
+        return seats;
+    }
+
+    public void setSeats(Integer seats) {
+        this.seats = seats;
+    }
+
+    public WaitlistStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(WaitlistStatus status) {
+        this.status = status;
+    }
+
+    public UUID getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(UUID reservationId) {
+        this.reservationId = reservationId;
+    }
+}
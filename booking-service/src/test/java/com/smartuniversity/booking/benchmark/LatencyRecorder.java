@@ -0,0 +1,42 @@
+package com.smartuniversity.booking.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-capacity, lock-free latency sample buffer. Samples beyond the capacity are dropped.
+ */
+final class LatencyRecorder {
+
+    private final long[] samples;
+    private final AtomicInteger count = new AtomicInteger();
+
+    LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    void record(long nanos) {
+        int slot = count.getAndIncrement();
+        if (slot < samples.length) {
+            samples[slot] = nanos;
+        }
+    }
+
+    int size() {
+        return Math.min(count.get(), samples.length);
+    }
+
+    /**
+     * Returns the given percentile (0-100] in milliseconds.
+     */
+    double percentileMillis(double percentile) {
+        int size = size();
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(rank, size - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.smartuniversity.booking.benchmark;
+
+import com.smartuniversity.booking.BookingServiceApplication;
+import com.smartuniversity.booking.domain.ReservationStatus;
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.service.BookingService;
+import com.smartuniversity.booking.service.OverbookingMode;
+import com.smartuniversity.booking.web.dto.CreateReservationRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the two overbooking guards under contention on a single resource.
+ * <p>
+ * Needs a PostgreSQL database, since the constraint mode relies on a GiST exclusion
+ * constraint, and is therefore skipped unless {@code booking.benchmark.jdbc-url} is set:
+ * <pre>
+ * mvn -pl booking-service test -Dtest=OverbookingModeBenchmark \
+ *     -Dbooking.benchmark.jdbc-url=jdbc:postgresql://localhost:5432/bookingdb \
+ *     -Dbooking.benchmark.username=booking -Dbooking.benchmark.password=booking
+ * </pre>
+ * The interval index is disabled so that every request reaches the database guard.
+ */
+@EnabledIfSystemProperty(named = "booking.benchmark.jdbc-url", matches = ".+")
+class OverbookingModeBenchmark {
+
+    private static final int THREADS = Integer.getInteger("booking.benchmark.threads", 32);
+    private static final int REQUESTS = Integer.getInteger("booking.benchmark.requests", 20_000);
+    private static final int SLOTS = Integer.getInteger("booking.benchmark.slots", 2_000);
+    private static final String TENANT = "benchmark";
+
+    @Test
+    void compareLockAndConstraintModes() throws InterruptedException {
+        Result lock = run(OverbookingMode.LOCK);
+        Result constraint = run(OverbookingMode.CONSTRAINT);
+
+        System.out.println(lock);
+        System.out.println(constraint);
+        // Failed requests would otherwise pass for fast ones and inflate the throughput
+        assertThat(lock.errors()).isZero();
+        assertThat(constraint.errors()).isZero();
+    }
+
+    private Result run(OverbookingMode mode) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BookingServiceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                // Command-line arguments, so they take precedence over application.yml; SecurityConfig
+                // needs a servlet context, whose port is not used
+                .run(
+                        "--spring.datasource.url=" + System.getProperty("booking.benchmark.jdbc-url"),
+                        "--spring.datasource.username=" + System.getProperty("booking.benchmark.username", "booking"),
+                        "--spring.datasource.password=" + System.getProperty("booking.benchmark.password", "booking"),
+                        "--spring.datasource.hikari.maximum-pool-size=" + THREADS,
+                        "--server.port=0",
+                        "--booking.interval-index.enabled=false",
+                        "--booking.overbooking.mode=" + mode.name().toLowerCase(Locale.ROOT))) {
+            ResourceRepository resourceRepository = context.getBean(ResourceRepository.class);
+            ReservationRepository reservationRepository = context.getBean(ReservationRepository.class);
+            BookingService bookingService = context.getBean(BookingService.class);
+
+            Resource resource = new Resource();
+            resource.setTenantId(TENANT);
+            resource.setName("Benchmark room " + mode);
+            resource.setType("CLASSROOM");
+            resource.setCapacity(1);
+            UUID resourceId = resourceRepository.save(resource).getId();
+
+            // Half-hour requests aligned to quarter hours, so neighbouring slots also collide
+            Instant base = Instant.parse("2030-01-01T00:00:00Z");
+            LatencyRecorder latencies = new LatencyRecorder(REQUESTS);
+            AtomicInteger created = new AtomicInteger();
+            AtomicInteger conflicts = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            AtomicInteger next = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(THREADS);
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            long startedAt = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                executor.submit(() -> {
+                    try {
+                        while (next.getAndIncrement() < REQUESTS) {
+                            Instant start = base.plus(Duration.ofMinutes(15L * ThreadLocalRandom.current().nextInt(SLOTS)));
+                            CreateReservationRequest request = new CreateReservationRequest();
+                            request.setResourceId(resourceId);
+                            request.setStartTime(start);
+                            request.setEndTime(start.plus(Duration.ofMinutes(30)));
+
+                            long begin = System.nanoTime();
+                            try {
+                                bookingService.createReservation(request, UUID.randomUUID(), TENANT);
+                                created.incrementAndGet();
+                            } catch (ResponseStatusException ex) {
+                                if (ex.getStatusCode().value() == HttpStatus.CONFLICT.value()) {
+                                    conflicts.incrementAndGet();
+                                } else {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (RuntimeException ex) {
+                                errors.incrementAndGet();
+                            } finally {
+                                latencies.record(System.nanoTime() - begin);
+                            }
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            long elapsed = System.nanoTime() - startedAt;
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+
+            // Whatever the interleaving, the committed reservations must not overlap
+            List<ReservationWindow> windows = new ArrayList<>(reservationRepository.findWindowsByResourceBetween(
+                    resourceId, ReservationStatus.CREATED, base, base.plus(Duration.ofMinutes(15L * SLOTS + 30))));
+            windows.sort(Comparator.comparing(ReservationWindow::startTime));
+            assertThat(windows).hasSize(created.get());
+            for (int i = 1; i < windows.size(); i++) {
+                assertThat(windows.get(i).startTime()).isAfterOrEqualTo(windows.get(i - 1).endTime());
+            }
+            return new Result(mode, created.get(), conflicts.get(), errors.get(),
+                    REQUESTS / (elapsed / 1_000_000_000.0),
+                    latencies.percentileMillis(50), latencies.percentileMillis(99));
+        }
+    }
+
+    private record Result(OverbookingMode mode, int created, int conflicts, int errors, double throughput,
+            double p50Millis, double p99Millis) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%-10s created=%d conflicts=%d errors=%d throughput=%.0f req/s p50=%.2f ms p99=%.2f ms",
+                    mode, created, conflicts, errors, throughput, p50Millis, p99Millis);
+        }
+    }
+}
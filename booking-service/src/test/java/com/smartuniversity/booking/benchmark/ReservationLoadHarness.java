@@ -0,0 +1,219 @@
+package com.smartuniversity.booking.benchmark;
+
+import com.smartuniversity.booking.BookingServiceApplication;
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.service.BookingService;
+import com.smartuniversity.booking.web.dto.CreateReservationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contention load harness for {@link BookingService#createReservation}.
+ * <p>
+ * Runs each {@link Workload} in a fresh application context and prints throughput,
+ * latency percentiles, time spent waiting for the resource lock and the 409 rate.
+ * Opt-in, since a run takes minutes:
+ * <pre>
+ * mvn -pl booking-service test -Dtest=ReservationLoadHarness -Dbooking.load.enabled=true
+ * </pre>
+ * Without {@code booking.load.jdbc-url} the harness runs against in-memory H2 in
+ * PostgreSQL mode; lock behaviour differs from PostgreSQL, so compare numbers only
+ * within one database. Other knobs: {@code booking.load.threads}, {@code .requests},
+ * {@code .resources}, {@code .slots}, {@code .zipf-exponent}, {@code .pool-size}, and any
+ * {@code booking.*} property such as {@code -Dbooking.overbooking.mode=constraint}.
+ */
+@EnabledIfSystemProperty(named = "booking.load.enabled", matches = "true")
+class ReservationLoadHarness {
+
+    private static final int THREADS = Integer.getInteger("booking.load.threads", 200);
+    private static final int REQUESTS = Integer.getInteger("booking.load.requests", 50_000);
+    private static final int RESOURCES = Integer.getInteger("booking.load.resources", 100);
+    private static final int SLOTS = Integer.getInteger("booking.load.slots", 500);
+    private static final double ZIPF_EXPONENT = Double.parseDouble(System.getProperty("booking.load.zipf-exponent", "1.1"));
+    private static final int POOL_SIZE = Integer.getInteger("booking.load.pool-size", 50);
+
+    private static final Instant BASE = Instant.parse("2030-01-07T00:00:00Z");
+    private static final Duration SLOT = Duration.ofMinutes(30);
+
+    enum Workload {
+        /** Every request targets the same resource. */
+        HOT,
+        /** Resources are picked with a Zipf distribution, so a few are hot and most are cold. */
+        ZIPF,
+        /** Every request gets its own resource and slot; nothing ever conflicts. */
+        DISJOINT
+    }
+
+    @ParameterizedTest
+    @EnumSource(Workload.class)
+    void run(Workload workload) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BookingServiceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(arguments())) {
+            BookingService bookingService = context.getBean(BookingService.class);
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            String tenantId = "load-" + UUID.randomUUID();
+            List<UUID> resources = createResources(context.getBean(ResourceRepository.class), tenantId);
+            ZipfSampler zipf = new ZipfSampler(resources.size(), ZIPF_EXPONENT);
+
+            LatencyRecorder latencies = new LatencyRecorder(REQUESTS);
+            AtomicInteger created = new AtomicInteger();
+            AtomicInteger conflicts = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            AtomicLong sequence = new AtomicLong();
+            CountDownLatch ready = new CountDownLatch(THREADS);
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(THREADS);
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                executor.submit(() -> {
+                    ready.countDown();
+                    try {
+                        start.await();
+                        long n;
+                        while ((n = sequence.getAndIncrement()) < REQUESTS) {
+                            CreateReservationRequest request = nextRequest(workload, n, resources, zipf);
+                            long begin = System.nanoTime();
+                            try {
+                                bookingService.createReservation(request, UUID.randomUUID(), tenantId);
+                                created.incrementAndGet();
+                            } catch (ResponseStatusException ex) {
+                                if (ex.getStatusCode().value() == HttpStatus.CONFLICT.value()) {
+                                    conflicts.incrementAndGet();
+                                } else {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (RuntimeException ex) {
+                                errors.incrementAndGet();
+                            } finally {
+                                latencies.record(System.nanoTime() - begin);
+                            }
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            ready.await();
+            long startedAt = System.nanoTime();
+            start.countDown();
+            done.await();
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+
+            Timer lockWait = meterRegistry.find(BookingService.LOCK_WAIT_METRIC).timer();
+            System.out.printf(Locale.ROOT,
+                    "%-8s threads=%d requests=%d throughput=%.0f req/s p50=%.2f ms p99=%.2f ms p999=%.2f ms "
+                            + "lockWait[count=%d mean=%.2f ms max=%.2f ms total=%.1f s] created=%d 409=%.1f%% errors=%d%n",
+                    workload, THREADS, REQUESTS, REQUESTS / seconds,
+                    latencies.percentileMillis(50), latencies.percentileMillis(99), latencies.percentileMillis(99.9),
+                    lockWait != null ? lockWait.count() : 0,
+                    lockWait != null ? lockWait.mean(TimeUnit.MILLISECONDS) : 0,
+                    lockWait != null ? lockWait.max(TimeUnit.MILLISECONDS) : 0,
+                    lockWait != null ? lockWait.totalTime(TimeUnit.SECONDS) : 0,
+                    created.get(), 100.0 * conflicts.get() / REQUESTS, errors.get());
+
+            assertThat(errors.get()).isZero();
+            if (workload == Workload.DISJOINT) {
+                assertThat(conflicts.get()).isZero();
+            }
+        }
+    }
+
+    private static CreateReservationRequest nextRequest(Workload workload, long n, List<UUID> resources,
+            ZipfSampler zipf) {
+        int resource;
+        long slot;
+        switch (workload) {
+            case HOT -> {
+                resource = 0;
+                slot = ThreadLocalRandom.current().nextInt(SLOTS);
+            }
+            case ZIPF -> {
+                resource = zipf.next();
+                slot = ThreadLocalRandom.current().nextInt(SLOTS);
+            }
+            default -> {
+                // Walks all resources before moving to the next slot, so no two requests share one
+                resource = (int) (n % resources.size());
+                slot = n / resources.size();
+            }
+        }
+        Instant start = BASE.plus(SLOT.multipliedBy(slot));
+        CreateReservationRequest request = new CreateReservationRequest();
+        request.setResourceId(resources.get(resource));
+        request.setStartTime(start);
+        request.setEndTime(start.plus(SLOT));
+        return request;
+    }
+
+    private static List<UUID> createResources(ResourceRepository resourceRepository, String tenantId) {
+        List<Resource> resources = new ArrayList<>(RESOURCES);
+        for (int i = 0; i < RESOURCES; i++) {
+            Resource resource = new Resource();
+            resource.setTenantId(tenantId);
+            resource.setName("Load room " + i);
+            resource.setType("CLASSROOM");
+            resource.setCapacity(1);
+            resources.add(resource);
+        }
+        return resourceRepository.saveAll(resources).stream().map(Resource::getId).toList();
+    }
+
+    /**
+     * Passed as command-line arguments, which take precedence over {@code application.yml};
+     * builder default properties would not.
+     */
+    private static String[] arguments() {
+        List<String> properties = new ArrayList<>();
+        String jdbcUrl = System.getProperty("booking.load.jdbc-url");
+        if (jdbcUrl != null) {
+            properties.add("spring.datasource.url=" + jdbcUrl);
+            properties.add("spring.datasource.username=" + System.getProperty("booking.load.username", "booking"));
+            properties.add("spring.datasource.password=" + System.getProperty("booking.load.password", "booking"));
+        } else {
+            // Fresh database per run; LOCK_TIMEOUT keeps H2 from failing queued row-lock waiters
+            properties.add("spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID()
+                    + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;LOCK_TIMEOUT=60000");
+            properties.add("spring.datasource.driver-class-name=org.h2.Driver");
+            properties.add("spring.datasource.username=sa");
+            properties.add("spring.datasource.password=");
+            properties.add("spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        }
+        properties.add("spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE);
+        properties.add("spring.datasource.hikari.connection-timeout=120000");
+        // SecurityConfig needs a servlet context; the port is not used
+        properties.add("server.port=0");
+        return properties.stream().map(property -> "--" + property).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,46 @@
+package com.smartuniversity.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OccupancyBitsetsTests {
+
+    private static final LocalDate DAY = LocalDate.parse("2024-05-06");
+
+    @Test
+    void slotsAreRoundedOutToQuarterHours() {
+        long[] words = new long[2];
+        assertThat(OccupancyBitsets.setSlots(words, DAY,
+                Instant.parse("2024-05-06T09:10:00Z"), Instant.parse("2024-05-06T09:31:00Z"))).isTrue();
+
+        // 09:00-09:45: slots 36, 37 and 38
+        assertThat(Long.bitCount(words[0]) + Long.bitCount(words[1])).isEqualTo(3);
+        assertThat(OccupancyBitsets.occupiedInHour(words, 9)).isEqualTo(3);
+        assertThat(OccupancyBitsets.occupiedInHour(words, 10)).isZero();
+
+        // Already set: nothing changes
+        assertThat(OccupancyBitsets.setSlots(words, DAY,
+                Instant.parse("2024-05-06T09:00:00Z"), Instant.parse("2024-05-06T09:15:00Z"))).isFalse();
+    }
+
+    @Test
+    void windowsAreClippedToTheDay() {
+        long[] words = new long[2];
+        OccupancyBitsets.setSlots(words, DAY,
+                Instant.parse("2024-05-05T22:00:00Z"), Instant.parse("2024-05-06T00:30:00Z"));
+        assertThat(OccupancyBitsets.occupiedInHour(words, 0)).isEqualTo(2);
+        assertThat(OccupancyBitsets.occupiedInHour(words, 23)).isZero();
+
+        long[] lateWords = new long[2];
+        OccupancyBitsets.setSlots(lateWords, DAY,
+                Instant.parse("2024-05-06T23:00:00Z"), Instant.parse("2024-05-07T02:00:00Z"));
+        // Hour 23 lives in the high word, slots 92-95
+        assertThat(lateWords[0]).isZero();
+        assertThat(OccupancyBitsets.occupiedInHour(lateWords, 23)).isEqualTo(4);
+        assertThat(Long.bitCount(lateWords[1])).isEqualTo(4);
+    }
+}
@@ -0,0 +1,168 @@
+package com.smartuniversity.booking.service;
+
+import com.smartuniversity.booking.domain.ReservationStatus;
+import com.smartuniversity.booking.domain.Resource;
+import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationWindow;
+import com.smartuniversity.booking.repository.ResourceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationIntervalIndexTests {
+
+    private final ReservationRepository reservationRepository = Mockito.mock(ReservationRepository.class);
+    private final ResourceRepository resourceRepository = Mockito.mock(ResourceRepository.class);
+    private final ReservationIntervalIndex index =
+            new ReservationIntervalIndex(reservationRepository, resourceRepository, true, Duration.ofHours(1), true);
+
+    private final UUID resourceId = UUID.randomUUID();
+    private final String tenantId = "engineering";
+    private final Instant nine = Instant.parse("2024-01-01T09:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        Resource resource = new Resource();
+        resource.setId(resourceId);
+        resource.setTenantId(tenantId);
+        when(resourceRepository.findById(resourceId)).thenReturn(Optional.of(resource));
+
+        ReservationWindow existing = new ReservationWindow(UUID.randomUUID(), resourceId, nine, nine.plusSeconds(3600),
+                null);
+        when(reservationRepository.findWindowsByResourceEndingAfter(eq(resourceId), eq(ReservationStatus.CREATED),
+                any(Instant.class))).thenReturn(List.of(existing));
+    }
+
+    @Test
+    void warmedReservationsAreReportedAsConflicts() {
+        assertThat(index.hasConflict(resourceId, tenantId, nine.plusSeconds(1800), nine.plusSeconds(5400), null)).isTrue();
+        assertThat(index.hasConflict(resourceId, tenantId, nine.minusSeconds(1800), nine.plusSeconds(60), null)).isTrue();
+    }
+
+    @Test
+    void adjacentWindowsDoNotConflict() {
+        assertThat(index.hasConflict(resourceId, tenantId, nine.minusSeconds(3600), nine, null)).isFalse();
+        assertThat(index.hasConflict(resourceId, tenantId, nine.plusSeconds(3600), nine.plusSeconds(7200), null)).isFalse();
+    }
+
+    @Test
+    void addedAndRemovedReservationsAreTracked() {
+        UUID reservationId = UUID.randomUUID();
+        Instant noon = Instant.parse("2024-01-01T12:00:00Z");
+        index.hasConflict(resourceId, tenantId, noon, noon.plusSeconds(60), null);
+
+        index.add(resourceId, reservationId, noon, noon.plusSeconds(3600), null);
+        assertThat(index.hasConflict(resourceId, tenantId, noon.plusSeconds(600), noon.plusSeconds(1200), null)).isTrue();
+
+        index.remove(resourceId, reservationId);
+        assertThat(index.hasConflict(resourceId, tenantId, noon.plusSeconds(600), noon.plusSeconds(1200), null)).isFalse();
+    }
+
+    @Test
+    void warmingSkipsReservationsEndedBeforeTheRetentionMargin() {
+        Instant before = Instant.now();
+        index.hasConflict(resourceId, tenantId, nine, nine.plusSeconds(60), null);
+
+        ArgumentCaptor<Instant> after = ArgumentCaptor.forClass(Instant.class);
+        verify(reservationRepository).findWindowsByResourceEndingAfter(eq(resourceId), eq(ReservationStatus.CREATED),
+                after.capture());
+        assertThat(after.getValue()).isBetween(before.minus(Duration.ofHours(1)), Instant.now().minus(Duration.ofHours(1)));
+    }
+
+    @Test
+    void pruningDropsEndedReservationsOnly() {
+        index.hasConflict(resourceId, tenantId, nine, nine.plusSeconds(60), null);
+        UUID later = UUID.randomUUID();
+        index.add(resourceId, later, nine.plusSeconds(1800), nine.plusSeconds(7200), null);
+
+        index.pruneEndedBefore(nine.plusSeconds(3600));
+        assertThat(index.hasConflict(resourceId, tenantId, nine, nine.plusSeconds(1800), null)).isFalse();
+        assertThat(index.hasConflict(resourceId, tenantId, nine.plusSeconds(3600), nine.plusSeconds(3660), null)).isTrue();
+
+        // The surviving reservation is still tracked by id
+        index.remove(resourceId, later);
+        assertThat(index.hasConflict(resourceId, tenantId, nine.plusSeconds(3600), nine.plusSeconds(3660), null)).isFalse();
+    }
+
+    @Test
+    void warmingDiscardsSnapshotsOverlappingARemoval() {
+        ReservationWindow canceled = new ReservationWindow(UUID.randomUUID(), resourceId, nine, nine.plusSeconds(3600),
+                null);
+        // The cancel commits after the warm query read the reservation, before the index is published
+        when(reservationRepository.findWindowsByResourceEndingAfter(eq(resourceId), eq(ReservationStatus.CREATED),
+                any(Instant.class)))
+                .thenAnswer(invocation -> {
+                    index.remove(resourceId, canceled.id());
+                    return List.of(canceled);
+                })
+                .thenReturn(List.of());
+
+        assertThat(index.hasConflict(resourceId, tenantId, nine, nine.plusSeconds(60), null)).isFalse();
+        assertThat(index.hasConflict(resourceId, tenantId, nine, nine.plusSeconds(60), null)).isFalse();
+        verify(reservationRepository, times(2)).findWindowsByResourceEndingAfter(eq(resourceId),
+                eq(ReservationStatus.CREATED), any(Instant.class));
+    }
+
+    @Test
+    void hitsAreConfirmedAgainstTheDatabaseWithoutCancellationEvents() {
+        ReservationIntervalIndex unconfirmed =
+                new ReservationIntervalIndex(reservationRepository, resourceRepository, true, Duration.ofHours(1), false);
+        // Canceled on another instance: still indexed here, gone from the database
+        when(reservationRepository.findWindowsByResourceBetween(eq(resourceId), eq(ReservationStatus.CREATED),
+                any(Instant.class), any(Instant.class))).thenReturn(List.of());
+
+        assertThat(unconfirmed.hasConflict(resourceId, tenantId, nine, nine.plusSeconds(60), null)).isFalse();
+        verify(reservationRepository).findWindowsByResourceBetween(eq(resourceId), eq(ReservationStatus.CREATED),
+                eq(nine), eq(nine.plusSeconds(60)));
+
+        // The stale resource was evicted and warms again on next use
+        unconfirmed.hasConflict(resourceId, tenantId, nine, nine.plusSeconds(60), null);
+        verify(reservationRepository, times(2)).findWindowsByResourceEndingAfter(eq(resourceId),
+                eq(ReservationStatus.CREATED), any(Instant.class));
+    }
+
+    @Test
+    void otherTenantsNeverSeeConflicts() {
+        assertThat(index.hasConflict(resourceId, "medicine", nine, nine.plusSeconds(3600), null)).isFalse();
+    }
+
+    @Test
+    void seatBookingsFitUntilPeakOccupancyReachesCapacity() {
+        ReservationIntervalIndex.ResourceIntervals lab = new ReservationIntervalIndex.ResourceIntervals(tenantId, 40);
+        lab.add(new ReservationIntervalIndex.Interval(UUID.randomUUID(), nine, nine.plusSeconds(3600), 25));
+        lab.add(new ReservationIntervalIndex.Interval(UUID.randomUUID(), nine.plusSeconds(3600), nine.plusSeconds(7200), 30));
+
+        // Back-to-back bookings never add up: the peak is 30, not 55
+        assertThat(lab.peakOccupancy(nine, nine.plusSeconds(7200))).isEqualTo(30);
+        assertThat(lab.fits(nine, nine.plusSeconds(7200), 10)).isTrue();
+        assertThat(lab.fits(nine, nine.plusSeconds(7200), 11)).isFalse();
+        assertThat(lab.fits(nine, nine.plusSeconds(1800), 15)).isTrue();
+        assertThat(lab.fits(nine, nine.plusSeconds(1800), null)).isFalse();
+        assertThat(lab.fits(nine.plusSeconds(7200), nine.plusSeconds(9000), null)).isTrue();
+    }
+
+    @Test
+    void wholeResourceReservationsTakeEverySeat() {
+        ReservationIntervalIndex.ResourceIntervals lab = new ReservationIntervalIndex.ResourceIntervals(tenantId, 40);
+        lab.add(new ReservationIntervalIndex.Interval(UUID.randomUUID(), nine, nine.plusSeconds(3600), null));
+
+        assertThat(lab.peakOccupancy(nine.minusSeconds(600), nine.plusSeconds(600))).isEqualTo(40);
+        assertThat(lab.fits(nine.plusSeconds(600), nine.plusSeconds(1200), 1)).isFalse();
+        assertThat(lab.normalizeSeats(40)).isNull();
+        assertThat(lab.normalizeSeats(39)).isEqualTo(39);
+    }
+}
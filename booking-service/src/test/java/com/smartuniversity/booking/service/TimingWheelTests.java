@@ -0,0 +1,49 @@
+package com.smartuniversity.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTests {
+
+    private final List<String> expired = new ArrayList<>();
+    private final TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), 8, expired::add);
+
+    @Test
+    void timeoutsFireOnTheirDeadlineTick() {
+        wheel.schedule("soon", Duration.ofMillis(250));
+        wheel.advance();
+        wheel.advance();
+        assertThat(expired).isEmpty();
+
+        wheel.advance();
+        assertThat(expired).containsExactly("soon");
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void timeoutsBeyondOneRotationWaitForTheirRound() {
+        // 12 ticks on an 8-bucket wheel lands in the same bucket as tick 4
+        wheel.schedule("later", Duration.ofMillis(1200));
+        for (int tick = 1; tick < 12; tick++) {
+            wheel.advance();
+        }
+        assertThat(expired).isEmpty();
+
+        wheel.advance();
+        assertThat(expired).containsExactly("later");
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFire() {
+        TimingWheel.Timeout<String> timeout = wheel.schedule("cancelled", Duration.ofMillis(100));
+        wheel.cancel(timeout);
+        wheel.advance();
+        assertThat(expired).isEmpty();
+        assertThat(wheel.pending()).isZero();
+    }
+}
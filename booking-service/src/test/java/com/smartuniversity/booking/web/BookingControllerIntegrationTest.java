@@ -1,10 +1,22 @@
 package com.smartuniversity.booking.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartuniversity.booking.domain.RecurrenceFrequency;
 import com.smartuniversity.booking.domain.Resource;
 import com.smartuniversity.booking.repository.ReservationRepository;
+import com.smartuniversity.booking.repository.ReservationSeriesRepository;
 import com.smartuniversity.booking.repository.ResourceRepository;
+import com.smartuniversity.booking.repository.WaitlistEntryRepository;
+import com.smartuniversity.booking.service.ResourceCatalogCache;
+import com.smartuniversity.booking.service.WaitlistPromoter;
+import com.smartuniversity.booking.web.dto.CreateResourceRequest;
+import com.smartuniversity.booking.web.dto.BatchMode;
+import com.smartuniversity.booking.web.dto.BatchReservationRequest;
+import com.smartuniversity.booking.web.dto.CreateHoldRequest;
 import com.smartuniversity.booking.web.dto.CreateReservationRequest;
+import com.smartuniversity.booking.web.dto.CreateSeriesRequest;
+import com.smartuniversity.common.events.ReservationCanceledEvent;
+import com.smartuniversity.common.events.ReservationCreatedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,11 +25,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -27,14 +45,17 @@ import java.util.concurrent.Executors;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@RecordApplicationEvents
 class BookingControllerIntegrationTest {
 
     @Autowired
@@ -46,9 +67,24 @@ class BookingControllerIntegrationTest {
     @Autowired
     private ReservationRepository reservationRepository;
 
+    @Autowired
+    private ReservationSeriesRepository seriesRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Autowired
+    private ResourceCatalogCache resourceCatalogCache;
+
+    @Autowired
+    private WaitlistPromoter waitlistPromoter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
     private Resource resource;
     private final String tenantId = "engineering";
     private final String userId = UUID.randomUUID().toString();
@@ -56,8 +92,11 @@ class BookingControllerIntegrationTest {
     @BeforeEach
     void setUp() {
         // Clear reservations first to avoid FK violations when wiping resources
+        waitlistRepository.deleteAll();
+        seriesRepository.deleteAll();
         reservationRepository.deleteAll();
         resourceRepository.deleteAll();
+        resourceCatalogCache.clear();
 
         Resource res = new Resource();
         res.setTenantId(tenantId);
@@ -77,6 +116,42 @@ class BookingControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].name").value("Room 101"));
     }
 
+    @Test
+    void resourceListShouldRevalidateUntilAResourceIsCreated() throws Exception {
+        String etag = mockMvc.perform(get("/booking/resources")
+                .header("X-Tenant-Id", tenantId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/booking/resources")
+                .header("X-Tenant-Id", tenantId)
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        CreateResourceRequest lab = new CreateResourceRequest();
+        lab.setName("Lab B");
+        lab.setType("LAB");
+        lab.setCapacity(40);
+        mockMvc.perform(post("/booking/resources")
+                .header("X-Tenant-Id", tenantId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lab)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/booking/resources")
+                .header("X-Tenant-Id", tenantId)
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        // Other tenants have their own entry
+        mockMvc.perform(get("/booking/resources")
+                .header("X-Tenant-Id", "medicine"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
     @Test
     void createReservationShouldPreventOverbooking() throws Exception {
         Instant start = Instant.parse("2024-01-01T10:00:00Z");
@@ -157,4 +232,515 @@ class BookingControllerIntegrationTest {
         assertThat(success).isEqualTo(1);
         assertThat(conflict).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void availabilityShouldReturnFreeWindowsAroundReservations() throws Exception {
+        CreateReservationRequest request = new CreateReservationRequest();
+        request.setResourceId(resource.getId());
+        request.setStartTime(Instant.parse("2024-02-01T10:00:00Z"));
+        request.setEndTime(Instant.parse("2024-02-01T11:00:00Z"));
+
+        mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/booking/resources/availability")
+                .header("X-Tenant-Id", tenantId)
+                .param("from", "2024-02-01T09:00:00Z")
+                .param("to", "2024-02-01T12:00:00Z")
+                .param("type", "CLASSROOM")
+                .param("minCapacity", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].freeWindows", hasSize(2)))
+                .andExpect(jsonPath("$[0].freeWindows[0].startTime").value("2024-02-01T09:00:00Z"))
+                .andExpect(jsonPath("$[0].freeWindows[0].endTime").value("2024-02-01T10:00:00Z"))
+                .andExpect(jsonPath("$[0].freeWindows[0].availableSeats").value(30))
+                .andExpect(jsonPath("$[0].freeWindows[1].startTime").value("2024-02-01T11:00:00Z"))
+                .andExpect(jsonPath("$[0].freeWindows[1].endTime").value("2024-02-01T12:00:00Z"));
+
+        mockMvc.perform(get("/booking/resources/availability")
+                .header("X-Tenant-Id", tenantId)
+                .param("from", "2024-02-01T09:00:00Z")
+                .param("to", "2024-02-01T12:00:00Z")
+                .param("minCapacity", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void batchReservationShouldHonourAllOrNothingAndPartialModes() throws Exception {
+        Instant monday = Instant.parse("2024-03-04T08:00:00Z");
+
+        BatchReservationRequest batch = new BatchReservationRequest();
+        batch.setItems(List.of(
+                reservationRequest(monday, monday.plusSeconds(3600)),
+                reservationRequest(monday.plusSeconds(1800), monday.plusSeconds(5400)), // overlaps item 0
+                reservationRequest(monday.plusSeconds(7200), monday.plusSeconds(10800))));
+
+        batch.setMode(BatchMode.ALL_OR_NOTHING);
+        mockMvc.perform(post("/booking/reservations/batch")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.results[1].status").value("CONFLICT"))
+                .andExpect(jsonPath("$.results[0].status").value("ABORTED"));
+        assertThat(reservationRepository.count()).isZero();
+
+        batch.setMode(BatchMode.PARTIAL);
+        mockMvc.perform(post("/booking/reservations/batch")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[2].reservation.id", notNullValue()));
+        assertThat(reservationRepository.count()).isEqualTo(2);
+    }
+
+    private CreateReservationRequest reservationRequest(Instant start, Instant end) {
+        CreateReservationRequest request = new CreateReservationRequest();
+        request.setResourceId(resource.getId());
+        request.setStartTime(start);
+        request.setEndTime(end);
+        return request;
+    }
+
+    @Test
+    void seriesShouldBlockOccurrencesButNotExceptions() throws Exception {
+        CreateSeriesRequest series = new CreateSeriesRequest();
+        series.setResourceId(resource.getId());
+        series.setStartTime(Instant.parse("2024-04-01T09:00:00Z"));
+        series.setEndTime(Instant.parse("2024-04-01T10:30:00Z"));
+        series.setFrequency(RecurrenceFrequency.WEEKLY);
+        series.setUntilDate(LocalDate.parse("2024-04-22"));
+        series.setExceptionDates(Set.of(LocalDate.parse("2024-04-15")));
+
+        mockMvc.perform(post("/booking/series")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(series)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.occurrenceCount").value(3))
+                .andExpect(jsonPath("$.id", notNullValue()));
+
+        // Third week is an occurrence: single booking conflicts
+        mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(
+                        Instant.parse("2024-04-08T10:00:00Z"), Instant.parse("2024-04-08T11:00:00Z")))))
+                .andExpect(status().isConflict());
+
+        // Exception date is free
+        mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(
+                        Instant.parse("2024-04-15T09:00:00Z"), Instant.parse("2024-04-15T10:00:00Z")))))
+                .andExpect(status().isCreated());
+
+        // Re-submitting the same rule collides with the existing series and is rejected as a whole
+        mockMvc.perform(post("/booking/series")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(series)))
+                .andExpect(status().isConflict());
+        assertThat(seriesRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void seatReservationsShouldShareResourceUpToCapacity() throws Exception {
+        Instant start = Instant.parse("2024-05-06T09:00:00Z");
+        int[] seats = {20, 10, 1};
+        int[] expected = {201, 201, 409};
+        for (int i = 0; i < seats.length; i++) {
+            CreateReservationRequest request = reservationRequest(start.plusSeconds(600L * i), start.plusSeconds(3600));
+            request.setSeats(seats[i]);
+            mockMvc.perform(post("/booking/reservations")
+                    .header("X-Tenant-Id", tenantId)
+                    .header("X-User-Id", userId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().is(expected[i]));
+        }
+
+        // The whole room is taken once the seats are full, but is free again afterwards
+        mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(start.plusSeconds(1800), start.plusSeconds(5400)))))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(start.plusSeconds(3600), start.plusSeconds(5400)))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.seats").value(nullValue()));
+
+        CreateReservationRequest tooMany = reservationRequest(start.plusSeconds(7200), start.plusSeconds(9000));
+        tooMany.setSeats(31);
+        mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(tooMany)))
+                .andExpect(status().isBadRequest());
+        assertThat(reservationRepository.count()).isEqualTo(3);
+
+        // Availability counts seats: the room is free while any seat is, and says how many
+        mockMvc.perform(get("/booking/resources/availability")
+                .header("X-Tenant-Id", tenantId)
+                .param("from", "2024-05-06T09:00:00Z")
+                .param("to", "2024-05-06T11:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].freeWindows", hasSize(2)))
+                .andExpect(jsonPath("$[0].freeWindows[0].startTime").value("2024-05-06T09:00:00Z"))
+                .andExpect(jsonPath("$[0].freeWindows[0].endTime").value("2024-05-06T09:10:00Z"))
+                .andExpect(jsonPath("$[0].freeWindows[0].availableSeats").value(10))
+                .andExpect(jsonPath("$[0].freeWindows[1].startTime").value("2024-05-06T10:30:00Z"))
+                .andExpect(jsonPath("$[0].freeWindows[1].endTime").value("2024-05-06T11:00:00Z"))
+                .andExpect(jsonPath("$[0].freeWindows[1].availableSeats").value(30));
+    }
+
+    @Test
+    void reservationsShouldBeListedPageByPageAndFedAsCalendar() throws Exception {
+        Instant monday = Instant.parse("2024-06-03T08:00:00Z");
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/booking/reservations")
+                    .header("X-Tenant-Id", tenantId)
+                    .header("X-User-Id", userId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(reservationRequest(
+                            monday.plusSeconds(3600L * i), monday.plusSeconds(3600L * i + 1800)))))
+                    .andExpect(status().isCreated());
+        }
+
+        String firstPage = mockMvc.perform(get("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .param("resourceId", resource.getId().toString())
+                .param("from", monday.toString())
+                .param("to", monday.plusSeconds(86400).toString())
+                .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].startTime").value("2024-06-03T08:00:00Z"))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .param("resourceId", resource.getId().toString())
+                .param("from", monday.toString())
+                .param("to", monday.plusSeconds(86400).toString())
+                .param("limit", "2")
+                .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].startTime").value("2024-06-03T10:00:00Z"))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+
+        MockHttpServletResponse feed = mockMvc.perform(get("/booking/resources/{id}/calendar.ics", resource.getId())
+                .header("X-Tenant-Id", tenantId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists(ReservationCalendarController.SYNC_TOKEN_HEADER))
+                .andReturn().getResponse();
+        assertThat(feed.getContentAsString().split("BEGIN:VEVENT", -1)).hasSize(4);
+        String etag = feed.getHeader("ETag");
+        String syncToken = feed.getHeader(ReservationCalendarController.SYNC_TOKEN_HEADER);
+
+        // Unchanged calendar revalidates without a body
+        mockMvc.perform(get("/booking/resources/{id}/calendar.ics", resource.getId())
+                .header("X-Tenant-Id", tenantId)
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        String created = mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(
+                        monday.plusSeconds(36000), monday.plusSeconds(37800)))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String createdId = objectMapper.readTree(created).get("id").asText();
+
+        mockMvc.perform(get("/booking/resources/{id}/calendar.ics", resource.getId())
+                .header("X-Tenant-Id", tenantId)
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        String changes = mockMvc.perform(get("/booking/resources/{id}/calendar.ics", resource.getId())
+                .header("X-Tenant-Id", tenantId)
+                .param("syncToken", syncToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(changes).contains("UID:" + createdId + "@booking.smartuniversity");
+    }
+
+    @Test
+    void holdShouldKeepSlotForOwnerUntilConfirmed() throws Exception {
+        Instant start = Instant.parse("2024-07-01T09:00:00Z");
+        CreateHoldRequest holdRequest = new CreateHoldRequest();
+        holdRequest.setResourceId(resource.getId());
+        holdRequest.setStartTime(start);
+        holdRequest.setEndTime(start.plusSeconds(3600));
+        holdRequest.setTtlSeconds(120);
+
+        String hold = mockMvc.perform(post("/booking/holds")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(holdRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.expiresAt", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        String holdId = objectMapper.readTree(hold).get("id").asText();
+
+        // Another user can neither book nor hold the slot
+        String otherUser = UUID.randomUUID().toString();
+        mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", otherUser)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(start.plusSeconds(1800), start.plusSeconds(5400)))))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/booking/holds")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", otherUser)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(holdRequest)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.alternativeWindows").isArray());
+
+        // Nor take it through a batch or a series
+        BatchReservationRequest batch = new BatchReservationRequest();
+        batch.setItems(List.of(reservationRequest(start.plusSeconds(1800), start.plusSeconds(5400))));
+        batch.setMode(BatchMode.PARTIAL);
+        mockMvc.perform(post("/booking/reservations/batch")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", otherUser)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(jsonPath("$.results[0].status").value("CONFLICT"));
+        CreateSeriesRequest series = new CreateSeriesRequest();
+        series.setResourceId(resource.getId());
+        series.setStartTime(start.minus(7, ChronoUnit.DAYS));
+        series.setEndTime(start.minus(7, ChronoUnit.DAYS).plusSeconds(3600));
+        series.setFrequency(RecurrenceFrequency.WEEKLY);
+        series.setUntilDate(LocalDate.parse("2024-07-08"));
+        mockMvc.perform(post("/booking/series")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", otherUser)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(series)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(post("/booking/holds/{id}/confirm", holdId)
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", otherUser))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/booking/holds/{id}/confirm", holdId)
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.startTime").value("2024-07-01T09:00:00Z"));
+        assertThat(reservationRepository.count()).isEqualTo(1);
+
+        // A hold is confirmed once
+        mockMvc.perform(post("/booking/holds/{id}/confirm", holdId)
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void utilizationShouldReportOccupiedSlotsPerHour() throws Exception {
+        // Monday 09:10-10:00 rounds out to the four slots of 09:00-10:00
+        mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(
+                        Instant.parse("2024-08-05T09:10:00Z"), Instant.parse("2024-08-05T10:00:00Z")))))
+                .andExpect(status().isCreated());
+
+        CreateSeriesRequest series = new CreateSeriesRequest();
+        series.setResourceId(resource.getId());
+        series.setStartTime(Instant.parse("2024-08-05T14:00:00Z"));
+        series.setEndTime(Instant.parse("2024-08-05T15:30:00Z"));
+        series.setFrequency(RecurrenceFrequency.WEEKLY);
+        series.setUntilDate(LocalDate.parse("2024-08-12"));
+        mockMvc.perform(post("/booking/series")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(series)))
+                .andExpect(status().isCreated());
+
+        // One week: the reservation and the first occurrence, 1h + 1.5h
+        mockMvc.perform(get("/booking/resources/utilization")
+                .header("X-Tenant-Id", tenantId)
+                .param("from", "2024-08-05")
+                .param("to", "2024-08-12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].resourceId").value(resource.getId().toString()))
+                .andExpect(jsonPath("$[0].bookedHours").value(2.5))
+                .andExpect(jsonPath("$[0].hourly", hasSize(24)))
+                .andExpect(jsonPath("$[0].hourly[9]").value(0.1429))
+                .andExpect(jsonPath("$[0].weekdayHourly[0][9]").value(1.0))
+                .andExpect(jsonPath("$[0].weekdayHourly[0][15]").value(0.5))
+                .andExpect(jsonPath("$[0].weekdayHourly[1][9]").value(0.0));
+
+        mockMvc.perform(get("/booking/resources/utilization")
+                .header("X-Tenant-Id", tenantId)
+                .param("from", "2024-08-12")
+                .param("to", "2024-08-05"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void conflictShouldSuggestNearestWindowsAndSimilarResources() throws Exception {
+        Instant day = Instant.parse("2024-09-02T00:00:00Z");
+        for (Instant[] window : new Instant[][]{
+                {day.plusSeconds(10 * 3600), day.plusSeconds(11 * 3600)},
+                {day.plusSeconds(12 * 3600), day.plusSeconds(12 * 3600 + 1800)}}) {
+            mockMvc.perform(post("/booking/reservations")
+                    .header("X-Tenant-Id", tenantId)
+                    .header("X-User-Id", userId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(reservationRequest(window[0], window[1]))))
+                    .andExpect(status().isCreated());
+        }
+        resourceRepository.save(newResource("Room 202", "CLASSROOM", 40));
+        resourceRepository.save(newResource("Room 303", "CLASSROOM", 10));
+        resourceRepository.save(newResource("Lab C", "LAB", 50));
+
+        // 10:30-11:30 collides; 11:00 is nearest, then 09:00 and 12:30 (11:30 would hit the 12:00 booking)
+        mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(
+                        day.plusSeconds(10 * 3600 + 1800), day.plusSeconds(11 * 3600 + 1800)))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Resource already reserved for requested period"))
+                .andExpect(jsonPath("$.alternativeWindows", hasSize(3)))
+                .andExpect(jsonPath("$.alternativeWindows[0].startTime").value("2024-09-02T11:00:00Z"))
+                .andExpect(jsonPath("$.alternativeWindows[1].startTime").value("2024-09-02T09:00:00Z"))
+                .andExpect(jsonPath("$.alternativeWindows[2].startTime").value("2024-09-02T12:30:00Z"))
+                .andExpect(jsonPath("$.alternativeResources", hasSize(1)))
+                .andExpect(jsonPath("$.alternativeResources[0].name").value("Room 202"));
+    }
+
+    private Resource newResource(String name, String type, int capacity) {
+        Resource res = new Resource();
+        res.setTenantId(tenantId);
+        res.setName(name);
+        res.setType(type);
+        res.setCapacity(capacity);
+        return res;
+    }
+
+    @Test
+    void cancellationShouldPromoteWaitlistInOrder() throws Exception {
+        Instant start = Instant.now().plus(2, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        String booked = mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(start, start.plusSeconds(3600)))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String reservationId = objectMapper.readTree(booked).get("id").asText();
+
+        String waiter = UUID.randomUUID().toString();
+        String entry = mockMvc.perform(post("/booking/waitlist")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", waiter)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(start.plusSeconds(1800), start.plusSeconds(5400)))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("WAITING"))
+                .andReturn().getResponse().getContentAsString();
+        String entryId = objectMapper.readTree(entry).get("id").asText();
+
+        // Still taken: the entry keeps waiting
+        waitlistPromoter.promotePending();
+        mockMvc.perform(get("/booking/waitlist/{id}", entryId)
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", waiter))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("WAITING"));
+
+        // Only the owner can cancel
+        mockMvc.perform(post("/booking/reservations/{id}/cancel", reservationId)
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", waiter))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/booking/reservations/{id}/cancel", reservationId)
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELED"));
+
+        waitlistPromoter.promotePending();
+        mockMvc.perform(get("/booking/waitlist/{id}", entryId)
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", waiter))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PROMOTED"))
+                .andExpect(jsonPath("$.reservationId", notNullValue()));
+        assertThat(reservationRepository.findAll())
+                .filteredOn(reservation -> reservation.getUserId().toString().equals(waiter))
+                .hasSize(1);
+    }
+
+    @Test
+    void createAndCancelShouldRaiseReservationEvents() throws Exception {
+        Instant start = Instant.parse("2024-10-01T09:00:00Z");
+        String booked = mockMvc.perform(post("/booking/reservations")
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(reservationRequest(start, start.plusSeconds(3600)))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        UUID reservationId = UUID.fromString(objectMapper.readTree(booked).get("id").asText());
+
+        mockMvc.perform(post("/booking/reservations/{id}/cancel", reservationId)
+                .header("X-Tenant-Id", tenantId)
+                .header("X-User-Id", userId))
+                .andExpect(status().isOk());
+
+        assertThat(applicationEvents.stream(ReservationCreatedEvent.class))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.reservationId()).isEqualTo(reservationId);
+                    assertThat(event.tenantId()).isEqualTo(tenantId);
+                    assertThat(event.startTime()).isEqualTo(start);
+                });
+        assertThat(applicationEvents.stream(ReservationCanceledEvent.class))
+                .singleElement()
+                .satisfies(event -> assertThat(event.reservationId()).isEqualTo(reservationId));
+    }
+}
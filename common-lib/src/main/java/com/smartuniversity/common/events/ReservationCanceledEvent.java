@@ -0,0 +1,19 @@
+package com.smartuniversity.common.events;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Domain event published when a reservation in the Booking service is canceled.
+ */
+public record ReservationCanceledEvent(
+        UUID reservationId,
+        UUID resourceId,
+        UUID userId,
+        String tenantId,
+        Instant startTime,
+        Instant endTime,
+        Instant canceledAt
+) implements Serializable {
+}
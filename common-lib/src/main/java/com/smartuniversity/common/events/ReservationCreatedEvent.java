@@ -0,0 +1,21 @@
+package com.smartuniversity.common.events;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Domain event published when a reservation in the Booking service is created.
+ * {@code seats} is {@code null} when the reservation takes the whole resource.
+ */
+public record ReservationCreatedEvent(
+        UUID reservationId,
+        UUID resourceId,
+        UUID userId,
+        String tenantId,
+        Instant startTime,
+        Instant endTime,
+        Integer seats,
+        Instant createdAt
+) implements Serializable {
+}
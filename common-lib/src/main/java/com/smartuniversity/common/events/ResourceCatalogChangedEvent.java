@@ -0,0 +1,14 @@
+package com.smartuniversity.common.events;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Broadcast by the Booking service when a tenant's resource catalog changes, so every
+ * instance drops its cached copy.
+ */
+public record ResourceCatalogChangedEvent(
+        String tenantId,
+        Instant changedAt
+) implements Serializable {
+}
@@ -0,0 +1,29 @@
+package com.smartuniversity.market.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Worker pool for asynchronous checkouts ({@code Prefer: respond-async}). The queue is
+ * bounded so a backlog turns into 503 responses instead of unbounded memory; orders
+ * already accepted are finished on shutdown.
+ */
+@Configuration
+public class CheckoutExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor checkoutExecutor(
+            @Value("${market.checkout.async.pool-size:8}") int poolSize,
+            @Value("${market.checkout.async.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("checkout-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
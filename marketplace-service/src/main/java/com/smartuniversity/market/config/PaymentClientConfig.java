@@ -0,0 +1,224 @@
+package com.smartuniversity.market.config;
+
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client for payment-service: a shared Apache HttpClient 5 connection pool with
+ * keep-alive and bounded connect, read and pool-wait times, plus a deadline on the
+ * whole exchange. Built through {@link RestTemplateBuilder}, so every call is timed
+ * as {@code http.client.requests}.
+ */
+@Configuration
+public class PaymentClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient paymentHttpClient(
+            @Value("${payment.service.pool.max-total:50}") int maxTotal,
+            @Value("${payment.service.pool.max-per-route:20}") int maxPerRoute,
+            @Value("${payment.service.pool.acquire-timeout:500ms}") Duration acquireTimeout,
+            @Value("${payment.service.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${payment.service.read-timeout:3s}") Duration readTimeout,
+            @Value("${payment.service.keep-alive:30s}") Duration keepAlive) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                // Reuse connections for at most keep-alive, and close them once idle that long
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate paymentRestTemplate(RestTemplateBuilder builder, CloseableHttpClient paymentHttpClient,
+            @Value("${payment.service.deadline:5s}") Duration deadline) {
+        return builder
+                .requestFactory(() -> new DeadlineRequestFactory(paymentHttpClient, deadline))
+                .build();
+    }
+
+    /**
+     * Aborts any exchange still running after the deadline, however the time was spent:
+     * waiting for a pooled connection, connecting, or a server trickling its response.
+     * The aborted call fails with an I/O error. The deadline is dropped once the
+     * response is closed or the exchange fails, so finished requests are not kept
+     * queued until it would have fired.
+     */
+    static final class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        private static final ScheduledThreadPoolExecutor DEADLINES = deadlineExecutor();
+
+        private final Duration deadline;
+        /** Hands the deadline of the request being created from createHttpUriRequest to createRequest. */
+        private final ThreadLocal<ScheduledFuture<?>> scheduled = new ThreadLocal<>();
+
+        DeadlineRequestFactory(CloseableHttpClient httpClient, Duration deadline) {
+            super(httpClient);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+            try {
+                ClientHttpRequest request = super.createRequest(uri, httpMethod);
+                ScheduledFuture<?> abort = scheduled.get();
+                return abort != null ? new DeadlineRequest(request, abort) : request;
+            } catch (IOException | RuntimeException ex) {
+                ScheduledFuture<?> abort = scheduled.get();
+                if (abort != null) {
+                    abort.cancel(false);
+                }
+                throw ex;
+            } finally {
+                scheduled.remove();
+            }
+        }
+
+        @Override
+        protected ClassicHttpRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+            ClassicHttpRequest request = super.createHttpUriRequest(httpMethod, uri);
+            if (request instanceof HttpUriRequestBase cancellable) {
+                scheduled.set(DEADLINES.schedule(cancellable::cancel, deadline.toMillis(), TimeUnit.MILLISECONDS));
+            }
+            return request;
+        }
+
+        private static ScheduledThreadPoolExecutor deadlineExecutor() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+                Thread thread = new Thread(task, "payment-client-deadline");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // A cancelled deadline leaves the queue at once rather than when it was due
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Cancels the deadline of an exchange once it failed or its response is closed.
+     */
+    private static final class DeadlineRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest delegate;
+        private final ScheduledFuture<?> abort;
+
+        DeadlineRequest(ClientHttpRequest delegate, ScheduledFuture<?> abort) {
+            this.delegate = delegate;
+            this.abort = abort;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            ClientHttpResponse response;
+            try {
+                response = delegate.execute();
+            } catch (IOException | RuntimeException ex) {
+                abort.cancel(false);
+                throw ex;
+            }
+            return new DeadlineResponse(response, abort);
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+
+    private static final class DeadlineResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final ScheduledFuture<?> abort;
+
+        DeadlineResponse(ClientHttpResponse delegate, ScheduledFuture<?> abort) {
+            this.delegate = delegate;
+            this.abort = abort;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                abort.cancel(false);
+            }
+        }
+    }
+}
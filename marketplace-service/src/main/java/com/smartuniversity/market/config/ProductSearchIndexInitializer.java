@@ -0,0 +1,59 @@
+package com.smartuniversity.market.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Installs the PostgreSQL objects backing {@code market.search.index=postgres}: a
+ * generated {@code tsvector} column over the product name and description, and a GIN
+ * index on it.
+ * <p>
+ * Runs after Hibernate has created or updated the schema and before the web server
+ * accepts requests. All statements are idempotent.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "market.search.index", havingValue = "postgres")
+public class ProductSearchIndexInitializer {
+
+    public static final String INDEX_NAME = "idx_products_search_vector";
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexInitializer.class);
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductSearchIndexInitializer(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void install() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                throw new IllegalStateException(
+                        "market.search.index=postgres requires PostgreSQL but the database is " + product);
+            }
+        }
+
+        // 'simple' does not stem: product names mix languages, brands and course codes
+        jdbcTemplate.execute("""
+                ALTER TABLE products
+                    ADD COLUMN IF NOT EXISTS search_vector tsvector
+                    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, ''))) STORED
+                """);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + INDEX_NAME + " ON products USING gin (search_vector)");
+        logger.info("Product search: full-text index {} is installed", INDEX_NAME);
+    }
+}
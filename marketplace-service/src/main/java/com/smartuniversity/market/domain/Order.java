@@ -8,10 +8,12 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -20,7 +22,13 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_hold", columnList = "status, stock_held_until"),
+        @Index(name = "idx_orders_buyer_created", columnList = "tenant_id, buyer_id, created_at, id"),
+        @Index(name = "idx_orders_tenant_created", columnList = "tenant_id, created_at, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_orders_idempotency_key", columnNames = { "tenant_id", "buyer_id", "idempotency_key" })
+})
 public class Order {
 
     @Id
@@ -40,6 +48,40 @@ public class Order {
     @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
     private BigDecimal totalAmount;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "saga_state", length = 32)
+    private SagaState sagaState;
+
+    @Column(name = "failure_reason", length = 255)
+    private String failureReason;
+
+    /**
+     * While the order is PENDING its stock is already taken from the products; after
+     * this instant the hold may be released and the order canceled.
+     */
+    @Column(name = "stock_held_until")
+    private Instant stockHeldUntil;
+
+    /**
+     * The buyer's {@code Idempotency-Key} of the checkout that created the order, if any,
+     * and a hash of its items, so a retry with a different body can be told apart.
+     */
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    @Column(name = "idempotency_fingerprint", length = 64)
+    private String idempotencyFingerprint;
+
+    /**
+     * HTTP status and reason the checkout that created the order failed with, if it did,
+     * answered again to retries with the same key.
+     */
+    @Column(name = "idempotency_status")
+    private Integer idempotencyStatus;
+
+    @Column(name = "idempotency_reason", length = 255)
+    private String idempotencyReason;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items = new ArrayList<>();
 
@@ -101,6 +143,30 @@ public class Order {
         this.totalAmount = totalAmount;
     }
 
+    public SagaState getSagaState() {
+        return sagaState;
+    }
+
+    public void setSagaState(SagaState sagaState) {
+        this.sagaState = sagaState;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public void setFailureReason(String failureReason) {
+        this.failureReason = failureReason;
+    }
+
+    public Instant getStockHeldUntil() {
+        return stockHeldUntil;
+    }
+
+    public void setStockHeldUntil(Instant stockHeldUntil) {
+        this.stockHeldUntil = stockHeldUntil;
+    }
+
     public List<OrderItem> getItems() {
         return items;
     }
@@ -109,6 +175,38 @@ public class Order {
         this.items = items;
     }
 
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyFingerprint() {
+        return idempotencyFingerprint;
+    }
+
+    public void setIdempotencyFingerprint(String idempotencyFingerprint) {
+        this.idempotencyFingerprint = idempotencyFingerprint;
+    }
+
+    public Integer getIdempotencyStatus() {
+        return idempotencyStatus;
+    }
+
+    public void setIdempotencyStatus(Integer idempotencyStatus) {
+        this.idempotencyStatus = idempotencyStatus;
+    }
+
+    public String getIdempotencyReason() {
+        return idempotencyReason;
+    }
+
+    public void setIdempotencyReason(String idempotencyReason) {
+        this.idempotencyReason = idempotencyReason;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
@@ -14,7 +15,10 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_tenant_created", columnList = "tenant_id, created_at, id"),
+        @Index(name = "idx_products_seller", columnList = "seller_id")
+})
 public class Product {
 
     @Id
@@ -39,6 +43,17 @@ public class Product {
     @Column(nullable = false)
     private int stock;
 
+    /**
+     * Set while the product is in flash-sale mode: its stock is then counted in memory
+     * and written back periodically. The stock when the sale started is kept so the
+     * counter can be rebuilt from the orders placed since.
+     */
+    @Column(name = "flash_sale_started_at")
+    private Instant flashSaleStartedAt;
+
+    @Column(name = "flash_sale_base_stock")
+    private Integer flashSaleBaseStock;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -113,6 +128,22 @@ public class Product {
         this.stock = stock;
     }
 
+    public Instant getFlashSaleStartedAt() {
+        return flashSaleStartedAt;
+    }
+
+    public void setFlashSaleStartedAt(Instant flashSaleStartedAt) {
+        this.flashSaleStartedAt = flashSaleStartedAt;
+    }
+
+    public Integer getFlashSaleBaseStock() {
+        return flashSaleBaseStock;
+    }
+
+    public void setFlashSaleBaseStock(Integer flashSaleBaseStock) {
+        this.flashSaleBaseStock = flashSaleBaseStock;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
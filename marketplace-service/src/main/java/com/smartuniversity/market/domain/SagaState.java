@@ -0,0 +1,20 @@
+package com.smartuniversity.market.domain;
+
+/**
+ * Progress of the checkout Saga of an order, persisted so that an asynchronous
+ * checkout can be followed and a stranded one recovered.
+ */
+public enum SagaState {
+    /** Order created and its stock held; payment not authorized yet. */
+    STOCK_HELD,
+    /** Payment authorized; stock not confirmed yet. Needs a payment cancel if abandoned. */
+    PAYMENT_AUTHORIZED,
+    /** Order confirmed and {@code market.order.confirmed} published. */
+    COMPLETED,
+    /** Order canceled; stock returned and payment canceled where it had been authorized. */
+    COMPENSATED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == COMPENSATED;
+    }
+}
@@ -0,0 +1,10 @@
+package com.smartuniversity.market.repository;
+
+import java.util.UUID;
+
+/**
+ * The order created by an idempotent checkout, with the fingerprint of its request and,
+ * if that checkout failed after creating the order, the status and reason it answered.
+ */
+public record IdempotentOrder(UUID id, String fingerprint, Integer failureStatus, String failureReason) {
+}
@@ -0,0 +1,9 @@
+package com.smartuniversity.market.repository;
+
+import java.util.UUID;
+
+/**
+ * Product and quantity of one order line, read without loading items or products.
+ */
+public record OrderItemQuantity(UUID productId, int quantity) {
+}
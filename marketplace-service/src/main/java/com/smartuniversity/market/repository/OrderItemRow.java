@@ -0,0 +1,10 @@
+package com.smartuniversity.market.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One order line with the name of its product, read in the same query.
+ */
+public record OrderItemRow(UUID orderId, UUID productId, String productName, int quantity, BigDecimal price) {
+}
@@ -1,12 +1,175 @@
 package com.smartuniversity.market.repository;
 
 import com.smartuniversity.market.domain.Order;
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.SagaState;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     Optional<Order> findByIdAndTenantId(UUID id, String tenantId);
-}
\ No newline at end of file
+
+    /**
+     * Moves an order from {@code from} to {@code to} and ends its stock hold, only if it
+     * is still in {@code from}. Returns the number of orders changed, so exactly one
+     * caller wins when confirmation and hold expiry race.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Order o set o.status = :to, o.stockHeldUntil = null, o.updatedAt = :now
+            where o.id = :id and o.tenantId = :tenantId and o.status = :from
+            """)
+    int transition(@Param("id") UUID id, @Param("tenantId") String tenantId, @Param("from") OrderStatus from,
+            @Param("to") OrderStatus to, @Param("now") Instant now);
+
+    /**
+     * Records the next Saga state, only if the order is still in one of {@code from}.
+     * Returns the number of orders changed, so a step that lost a race with the hold
+     * expiry finds out instead of overwriting its compensation.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Order o set o.sagaState = :state, o.failureReason = :reason, o.updatedAt = :now
+            where o.id = :id and o.sagaState in :from
+            """)
+    int updateSagaState(@Param("id") UUID id, @Param("from") Collection<SagaState> from,
+            @Param("state") SagaState state, @Param("reason") String reason, @Param("now") Instant now);
+
+    /**
+     * Pending orders whose stock hold ran out. Served by {@code idx_orders_status_hold}.
+     */
+    @Query("""
+            select o from Order o
+            where o.status = com.smartuniversity.market.domain.OrderStatus.PENDING and o.stockHeldUntil < :now
+            order by o.stockHeldUntil
+            """)
+    List<Order> findExpiredHolds(@Param("now") Instant now, Pageable pageable);
+
+    @Query("""
+            select new com.smartuniversity.market.repository.OrderItemQuantity(i.product.id, i.quantity)
+            from OrderItem i where i.order.id = :orderId
+            """)
+    List<OrderItemQuantity> findItemQuantities(@Param("orderId") UUID orderId);
+
+    /**
+     * First history page of a buyer, newest first. Served by {@code idx_orders_buyer_created}.
+     */
+    @Query("""
+            select new com.smartuniversity.market.repository.OrderSummary(
+                o.id, o.totalAmount, o.status, o.sagaState, o.failureReason, o.createdAt)
+            from Order o
+            where o.tenantId = :tenantId and o.buyerId = :buyerId
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OrderSummary> findPageByBuyer(@Param("tenantId") String tenantId, @Param("buyerId") UUID buyerId,
+            Pageable pageable);
+
+    @Query("""
+            select new com.smartuniversity.market.repository.OrderSummary(
+                o.id, o.totalAmount, o.status, o.sagaState, o.failureReason, o.createdAt)
+            from Order o
+            where o.tenantId = :tenantId and o.buyerId = :buyerId
+              and (o.createdAt < :afterCreatedAt or (o.createdAt = :afterCreatedAt and o.id < :afterId))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OrderSummary> findPageByBuyerAfter(@Param("tenantId") String tenantId, @Param("buyerId") UUID buyerId,
+            @Param("afterCreatedAt") Instant afterCreatedAt, @Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * First history page of a seller: orders with at least one of the seller's products,
+     * newest first. Walks {@code idx_orders_tenant_created} in order, checking each order's
+     * items, rather than sorting the tenant's orders.
+     */
+    @Query("""
+            select new com.smartuniversity.market.repository.OrderSummary(
+                o.id, o.totalAmount, o.status, o.sagaState, o.failureReason, o.createdAt)
+            from Order o
+            where o.tenantId = :tenantId
+              and exists (select i.id from OrderItem i where i.order = o and i.product.sellerId = :sellerId)
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OrderSummary> findPageBySeller(@Param("tenantId") String tenantId, @Param("sellerId") UUID sellerId,
+            Pageable pageable);
+
+    @Query("""
+            select new com.smartuniversity.market.repository.OrderSummary(
+                o.id, o.totalAmount, o.status, o.sagaState, o.failureReason, o.createdAt)
+            from Order o
+            where o.tenantId = :tenantId
+              and exists (select i.id from OrderItem i where i.order = o and i.product.sellerId = :sellerId)
+              and (o.createdAt < :afterCreatedAt or (o.createdAt = :afterCreatedAt and o.id < :afterId))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OrderSummary> findPageBySellerAfter(@Param("tenantId") String tenantId, @Param("sellerId") UUID sellerId,
+            @Param("afterCreatedAt") Instant afterCreatedAt, @Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * The lines of several orders with their product names, in one query.
+     */
+    @Query("""
+            select new com.smartuniversity.market.repository.OrderItemRow(
+                i.order.id, p.id, p.name, i.quantity, i.price)
+            from OrderItem i join i.product p
+            where i.order.id in :orderIds
+            """)
+    List<OrderItemRow> findItemRows(@Param("orderIds") Collection<UUID> orderIds);
+
+    /**
+     * The lines of several orders that sell the seller's products.
+     */
+    @Query("""
+            select new com.smartuniversity.market.repository.OrderItemRow(
+                i.order.id, p.id, p.name, i.quantity, i.price)
+            from OrderItem i join i.product p
+            where i.order.id in :orderIds and p.sellerId = :sellerId
+            """)
+    List<OrderItemRow> findItemRowsOfSeller(@Param("orderIds") Collection<UUID> orderIds,
+            @Param("sellerId") UUID sellerId);
+
+    /**
+     * The order created by a checkout with this {@code Idempotency-Key}. Served by
+     * {@code uk_orders_idempotency_key}.
+     */
+    @Query("""
+            select new com.smartuniversity.market.repository.IdempotentOrder(
+                o.id, o.idempotencyFingerprint, o.idempotencyStatus, o.idempotencyReason)
+            from Order o
+            where o.tenantId = :tenantId and o.buyerId = :buyerId and o.idempotencyKey = :key
+            """)
+    Optional<IdempotentOrder> findIdempotentOrder(@Param("tenantId") String tenantId,
+            @Param("buyerId") UUID buyerId, @Param("key") String key);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Order o set o.idempotencyStatus = :status, o.idempotencyReason = :reason
+            where o.id = :id
+            """)
+    int recordIdempotentFailure(@Param("id") UUID id, @Param("status") int status, @Param("reason") String reason);
+
+    /**
+     * Units of a product taken by orders created since {@code since} that still hold or
+     * bought them, i.e. that were not canceled.
+     */
+    @Query("""
+            select coalesce(sum(i.quantity), 0) from OrderItem i
+            where i.product.id = :productId and i.order.createdAt >= :since
+              and i.order.status <> com.smartuniversity.market.domain.OrderStatus.CANCELED
+            """)
+    long sumActiveQuantitySince(@Param("productId") UUID productId, @Param("since") Instant since);
+
+    @Query("select o.createdAt from Order o where o.id = :id")
+    Instant findCreatedAtById(@Param("id") UUID id);
+}
@@ -0,0 +1,15 @@
+package com.smartuniversity.market.repository;
+
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.SagaState;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One order of a history page, read without its items.
+ */
+public record OrderSummary(UUID id, BigDecimal totalAmount, OrderStatus status, SagaState sagaState,
+        String failureReason, Instant createdAt) {
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,4 +21,15 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select p from Product p where p.id = :id and p.tenantId = :tenantId")
     Optional<Product> findByIdAndTenantIdForUpdate(@Param("id") UUID id, @Param("tenantId") String tenantId);
-}
\ No newline at end of file
+
+    @Query("select new com.smartuniversity.market.repository.ProductStock(p.id, p.stock) from Product p where p.tenantId = :tenantId")
+    List<ProductStock> findStockByTenantId(@Param("tenantId") String tenantId);
+
+    @Query("select new com.smartuniversity.market.repository.ProductStock(p.id, p.stock) from Product p where p.id in :ids")
+    List<ProductStock> findStockByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("select new com.smartuniversity.market.repository.ProductSearchText(p.id, p.name, p.description) from Product p where p.tenantId = :tenantId")
+    List<ProductSearchText> findSearchTextByTenantId(@Param("tenantId") String tenantId);
+
+    List<Product> findAllByFlashSaleStartedAtIsNotNull();
+}
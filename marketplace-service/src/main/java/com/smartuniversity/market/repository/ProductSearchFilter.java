@@ -0,0 +1,9 @@
+package com.smartuniversity.market.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Structured product search conditions; {@code null} bounds are not applied.
+ */
+public record ProductSearchFilter(BigDecimal minPrice, BigDecimal maxPrice, boolean inStock) {
+}
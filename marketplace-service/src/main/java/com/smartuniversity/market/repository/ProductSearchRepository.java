@@ -0,0 +1,101 @@
+package com.smartuniversity.market.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Product search as plain SQL projections, one page per query.
+ * <p>
+ * Pages are ordered newest first by {@code (created_at, id)} and continue after the
+ * last row of the previous page, so deep pages cost the same as the first one.
+ */
+@Repository
+public class ProductSearchRepository {
+
+    private static final RowMapper<ProductSearchRow> ROW_MAPPER = (rs, rowNum) -> new ProductSearchRow(
+            rs.getObject("id", UUID.class),
+            rs.getString("name"),
+            rs.getString("description"),
+            rs.getBigDecimal("price"),
+            rs.getInt("stock"),
+            rs.getObject("created_at", OffsetDateTime.class).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Products whose PostgreSQL {@code search_vector} matches every word of {@code text}.
+     */
+    public List<ProductSearchRow> searchFullText(String tenantId, String text, ProductSearchFilter filter,
+            Instant afterCreatedAt, UUID afterId, int limit) {
+        return search(tenantId, "search_vector @@ plainto_tsquery('simple', ?)", List.of(text), filter,
+                afterCreatedAt, afterId, limit);
+    }
+
+    /**
+     * Products among {@code ids}, typically the matches of an in-memory text index.
+     */
+    public List<ProductSearchRow> searchAmong(String tenantId, Collection<UUID> ids, ProductSearchFilter filter,
+            Instant afterCreatedAt, UUID afterId, int limit) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return search(tenantId, "id IN (" + placeholders + ")", new ArrayList<>(ids), filter, afterCreatedAt,
+                afterId, limit);
+    }
+
+    /**
+     * Products of the tenant matching the filter alone.
+     */
+    public List<ProductSearchRow> searchAll(String tenantId, ProductSearchFilter filter, Instant afterCreatedAt,
+            UUID afterId, int limit) {
+        return search(tenantId, null, List.of(), filter, afterCreatedAt, afterId, limit);
+    }
+
+    private List<ProductSearchRow> search(String tenantId, String textCondition, List<Object> textArguments,
+            ProductSearchFilter filter, Instant afterCreatedAt, UUID afterId, int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, name, description, price, stock, created_at FROM products WHERE tenant_id = ?");
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(tenantId);
+        if (textCondition != null) {
+            sql.append(" AND ").append(textCondition);
+            arguments.addAll(textArguments);
+        }
+        if (filter.minPrice() != null) {
+            sql.append(" AND price >= ?");
+            arguments.add(filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            sql.append(" AND price <= ?");
+            arguments.add(filter.maxPrice());
+        }
+        if (filter.inStock()) {
+            sql.append(" AND stock > 0");
+        }
+        if (afterCreatedAt != null) {
+            Timestamp after = Timestamp.from(afterCreatedAt);
+            sql.append(" AND (created_at < ? OR (created_at = ? AND id < ?))");
+            arguments.add(after);
+            arguments.add(after);
+            arguments.add(afterId);
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        arguments.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, arguments.toArray());
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartuniversity.market.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One product search result, read without loading the entity. {@code createdAt} is
+ * the keyset position of the row.
+ */
+public record ProductSearchRow(UUID id, String name, String description, BigDecimal price, int stock,
+        Instant createdAt) {
+}
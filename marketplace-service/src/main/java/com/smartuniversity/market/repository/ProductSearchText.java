@@ -0,0 +1,9 @@
+package com.smartuniversity.market.repository;
+
+import java.util.UUID;
+
+/**
+ * The searchable text of a product.
+ */
+public record ProductSearchText(UUID id, String name, String description) {
+}
@@ -0,0 +1,9 @@
+package com.smartuniversity.market.repository;
+
+import java.util.UUID;
+
+/**
+ * Current stock of a product, read without loading the entity.
+ */
+public record ProductStock(UUID id, int stock) {
+}
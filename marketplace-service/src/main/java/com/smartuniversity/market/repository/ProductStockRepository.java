@@ -0,0 +1,100 @@
+package com.smartuniversity.market.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stock updates issued as plain SQL, bypassing the persistence context.
+ */
+@Repository
+public class ProductStockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductStockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sends one conditional decrement per product as a single JDBC batch and returns the
+     * products whose row was not updated: unknown for the tenant, with less stock than
+     * requested, or in flash-sale mode, whose stock is counted elsewhere. Rows are
+     * touched in id order so concurrent batches lock them in the same order and cannot
+     * deadlock each other.
+     */
+    public List<UUID> decrementStock(String tenantId, Map<UUID, Integer> quantities) {
+        List<Map.Entry<UUID, Integer>> changes = new ArrayList<>(quantities.entrySet());
+        changes.sort(Map.Entry.comparingByKey());
+        Timestamp now = Timestamp.from(Instant.now());
+
+        List<Object[]> arguments = new ArrayList<>(changes.size());
+        for (Map.Entry<UUID, Integer> change : changes) {
+            arguments.add(new Object[] { change.getValue(), now, change.getKey(), tenantId, change.getValue() });
+        }
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE products SET stock = stock - ?, updated_at = ? WHERE id = ? AND tenant_id = ? AND stock >= ?"
+                        + " AND flash_sale_started_at IS NULL",
+                arguments);
+
+        List<UUID> rejected = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            // Anything but exactly one row, including a driver that cannot report counts, is a rejection
+            if (counts[i] != 1) {
+                rejected.add(changes.get(i).getKey());
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Gives stock back, one unconditional increment per product in a single batch.
+     */
+    public void incrementStock(String tenantId, Map<UUID, Integer> quantities) {
+        List<Map.Entry<UUID, Integer>> changes = new ArrayList<>(quantities.entrySet());
+        changes.sort(Map.Entry.comparingByKey());
+        Timestamp now = Timestamp.from(Instant.now());
+
+        List<Object[]> arguments = new ArrayList<>(changes.size());
+        for (Map.Entry<UUID, Integer> change : changes) {
+            arguments.add(new Object[] { change.getValue(), now, change.getKey(), tenantId });
+        }
+        jdbcTemplate.batchUpdate("UPDATE products SET stock = stock + ?, updated_at = ? WHERE id = ? AND tenant_id = ?",
+                arguments);
+    }
+
+    /**
+     * Applies net stock decrements computed elsewhere, one unconditional update per
+     * product in a single batch; a negative value adds stock.
+     */
+    public void applyDecrements(Map<UUID, Integer> decrements) {
+        List<Map.Entry<UUID, Integer>> changes = new ArrayList<>(decrements.entrySet());
+        changes.sort(Map.Entry.comparingByKey());
+        Timestamp now = Timestamp.from(Instant.now());
+
+        List<Object[]> arguments = new ArrayList<>(changes.size());
+        for (Map.Entry<UUID, Integer> change : changes) {
+            arguments.add(new Object[] { change.getValue(), now, change.getKey() });
+        }
+        jdbcTemplate.batchUpdate("UPDATE products SET stock = stock - ?, updated_at = ? WHERE id = ?", arguments);
+    }
+
+    /**
+     * Raises the base stock of a running flash sale, in the caller's transaction.
+     */
+    public void addFlashSaleBaseStock(UUID productId, int quantity) {
+        jdbcTemplate.update("UPDATE products SET flash_sale_base_stock = flash_sale_base_stock + ? WHERE id = ?",
+                quantity, productId);
+    }
+
+    public void setStock(UUID productId, int stock) {
+        jdbcTemplate.update("UPDATE products SET stock = ?, updated_at = ? WHERE id = ?",
+                stock, Timestamp.from(Instant.now()), productId);
+    }
+}
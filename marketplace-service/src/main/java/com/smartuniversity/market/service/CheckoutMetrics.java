@@ -0,0 +1,96 @@
+package com.smartuniversity.market.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the checkout Saga, available under {@code /actuator/metrics}:
+ * <ul>
+ *   <li>{@code market.checkout.step}: latency histogram per step
+ *   ({@code create}, {@code authorize}, {@code confirm}, {@code publish},
+ *   {@code compensate}) and outcome ({@code success}, {@code failure});</li>
+ *   <li>{@code market.checkout.saga}: end-to-end latency per mode and outcome;</li>
+ *   <li>{@code market.checkout.orders}: orders reaching each state ({@code pending},
+ *   {@code authorized}, {@code stock_confirmed}, {@code published}, {@code compensated}),
+ *   and checkout retries answered with an existing order ({@code replayed}).</li>
+ * </ul>
+ */
+@Component
+public class CheckoutMetrics {
+
+    public static final String PENDING = "pending";
+    public static final String AUTHORIZED = "authorized";
+    public static final String STOCK_CONFIRMED = "stock_confirmed";
+    public static final String PUBLISHED = "published";
+    public static final String COMPENSATED = "compensated";
+    public static final String REPLAYED = "replayed";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public CheckoutMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs one Saga step and records its latency, tagged with whether it threw.
+     */
+    public <T> T timeStep(String step, Supplier<T> body) {
+        return time("market.checkout.step", "step", step, body);
+    }
+
+    public void timeStep(String step, Runnable body) {
+        timeStep(step, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    public <T> T timeSaga(String mode, Supplier<T> body) {
+        return time("market.checkout.saga", "mode", mode, body);
+    }
+
+    /**
+     * Records an end-to-end duration measured by the caller, e.g. one that started on
+     * another thread.
+     */
+    public void recordSaga(String mode, String outcome, Duration duration) {
+        timer("market.checkout.saga", "mode", mode, outcome).record(duration);
+    }
+
+    public void count(String outcome) {
+        counters.computeIfAbsent(outcome, key -> Counter.builder("market.checkout.orders")
+                .description("Checkout orders reaching a Saga state")
+                .tag("outcome", key)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    private <T> T time(String name, String tagKey, String tagValue, Supplier<T> body) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = body.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer(name, tagKey, tagValue, outcome));
+        }
+    }
+
+    private Timer timer(String name, String tagKey, String tagValue, String outcome) {
+        return timers.computeIfAbsent(name + '|' + tagValue + '|' + outcome, key -> Timer.builder(name)
+                .tag(tagKey, tagValue)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,450 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.repository.ProductStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Stock of flash-sale products, counted in memory so that a crowd buying the same
+ * product does not queue on its row lock.
+ * <p>
+ * Each product's stock is spread over a few atomic slots. A checkout takes its units
+ * from one slot with a compare-and-set, without any lock, and falls back to gathering
+ * them from several slots when none has enough. Units taken in a transaction that rolls
+ * back are put back. Committed changes are added up per product and written to
+ * {@code products.stock} by a periodic flush, one batched update per pass.
+ * <p>
+ * The counters are the authority while a sale runs, so they must live in one place:
+ * flash-sale mode assumes a single marketplace instance. After a crash, the unflushed
+ * changes are lost, so on startup each counter is rebuilt from the sale's base stock
+ * minus the units of the orders placed since the sale started that were not canceled.
+ * The base is the stock when the sale started, raised in the same transaction whenever
+ * an order placed before the sale gives its units back during it. The stored stock is
+ * then corrected to match.
+ * <p>
+ * While a sale ends, its product's checkouts are refused until every counter change
+ * has been written, so the row never offers units the counter already sold.
+ * <p>
+ * While a sale starts, a checkout whose row decrement already failed on the flag waits
+ * for the counter rather than report the product as sold out.
+ */
+@Component
+public class FlashSaleStock {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleStock.class);
+
+    /**
+     * How long disabling waits for checkouts still using the counter to settle, and a
+     * checkout waits for a sale that is starting.
+     */
+    private static final Duration SETTLE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final ProductStockRepository productStockRepository;
+    private final ProductCatalogCache catalogCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int stripes;
+
+    private final ConcurrentMap<UUID, StripedStock> active = new ConcurrentHashMap<>();
+    /** Sales being enabled, released once their counter is active or enabling failed. */
+    private final ConcurrentMap<UUID, CountDownLatch> starting = new ConcurrentHashMap<>();
+
+    public FlashSaleStock(ProductRepository productRepository,
+            OrderRepository orderRepository,
+            ProductStockRepository productStockRepository,
+            ProductCatalogCache catalogCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${market.flash-sale.stripes:8}") int stripes) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.productStockRepository = productStockRepository;
+        this.catalogCache = catalogCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stripes = stripes;
+    }
+
+    /**
+     * Takes the units of the flash-sale products among {@code quantities}, all or none,
+     * and returns the quantities of the other products. The units go back if the
+     * surrounding transaction rolls back.
+     */
+    public Map<UUID, Integer> take(String tenantId, Map<UUID, Integer> quantities) {
+        Map<UUID, Integer> others = new HashMap<>();
+        List<Map.Entry<StripedStock, Integer>> taken = new ArrayList<>();
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            StripedStock stock = active.get(entry.getKey());
+            if (stock == null || !stock.tenantId.equals(tenantId)) {
+                others.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            // Counted before the closing check, so disable() cannot miss a take
+            stock.inFlight.incrementAndGet();
+            ResponseStatusException refusal = null;
+            if (stock.closing) {
+                refusal = new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Flash sale for product " + entry.getKey() + " is ending, try again");
+            } else if (!stock.take(entry.getValue())) {
+                refusal = new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Insufficient stock for product " + entry.getKey());
+            }
+            if (refusal != null) {
+                stock.inFlight.decrementAndGet();
+                for (Map.Entry<StripedStock, Integer> done : taken) {
+                    done.getKey().put(done.getValue());
+                    done.getKey().inFlight.decrementAndGet();
+                }
+                throw refusal;
+            }
+            taken.add(Map.entry(stock, entry.getValue()));
+        }
+        if (!taken.isEmpty()) {
+            afterCompletion(committed -> {
+                for (Map.Entry<StripedStock, Integer> done : taken) {
+                    if (committed) {
+                        done.getKey().unflushed.addAndGet(done.getValue());
+                    } else {
+                        done.getKey().put(done.getValue());
+                    }
+                    done.getKey().inFlight.decrementAndGet();
+                }
+            });
+        }
+        return others;
+    }
+
+    /**
+     * Like {@link #take}, for products whose row decrement was refused: first waits for a
+     * sale of any of them that is being enabled, whose flag may already be committed
+     * while its counter is not active yet.
+     */
+    public Map<UUID, Integer> takeOnceStarted(String tenantId, Map<UUID, Integer> quantities) {
+        for (UUID productId : quantities.keySet()) {
+            CountDownLatch started = starting.get(productId);
+            if (started == null) {
+                continue;
+            }
+            try {
+                if (!started.await(SETTLE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Flash sale for product " + productId + " is starting, try again");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting");
+            }
+        }
+        return take(tenantId, quantities);
+    }
+
+    /**
+     * Gives back the units of the flash-sale products among {@code quantities} once the
+     * surrounding transaction commits, and returns the quantities of the other products,
+     * including those of a sale that is ending. Units of an order placed before the sale
+     * started also raise the sale's base stock, so that recovery counts them.
+     */
+    public Map<UUID, Integer> giveBack(String tenantId, Map<UUID, Integer> quantities, Instant orderCreatedAt) {
+        Map<UUID, Integer> others = new HashMap<>();
+        List<Map.Entry<StripedStock, Integer>> returned = new ArrayList<>();
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            StripedStock stock = active.get(entry.getKey());
+            if (stock == null || !stock.tenantId.equals(tenantId)) {
+                others.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            stock.inFlight.incrementAndGet();
+            if (stock.closing) {
+                // The row takes them back; the counter is no longer selling
+                stock.inFlight.decrementAndGet();
+                others.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            if (orderCreatedAt.isBefore(stock.startedAt)) {
+                productStockRepository.addFlashSaleBaseStock(stock.productId, entry.getValue());
+            }
+            returned.add(Map.entry(stock, entry.getValue()));
+        }
+        if (!returned.isEmpty()) {
+            afterCompletion(committed -> {
+                for (Map.Entry<StripedStock, Integer> done : returned) {
+                    if (committed) {
+                        done.getKey().put(done.getValue());
+                        done.getKey().unflushed.addAndGet(-done.getValue());
+                    }
+                    done.getKey().inFlight.decrementAndGet();
+                }
+            });
+        }
+        return others;
+    }
+
+    /**
+     * Puts a product in flash-sale mode. Idempotent, but refused with 409 while the
+     * product's sale is ending.
+     */
+    public synchronized void enable(String tenantId, UUID productId) {
+        StripedStock current = active.get(productId);
+        if (current != null && current.closing) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Flash sale is still ending, try again");
+        }
+        // Registered before the flag commits: row decrements then fail on it, and their
+        // checkouts wait in takeOnceStarted until the counter below is active
+        CountDownLatch started = new CountDownLatch(1);
+        starting.put(productId, started);
+        try {
+            Product product = transactionTemplate.execute(status -> {
+                Product locked = findForUpdate(tenantId, productId);
+                if (locked.getFlashSaleStartedAt() == null) {
+                    locked.setFlashSaleStartedAt(Instant.now());
+                    locked.setFlashSaleBaseStock(locked.getStock());
+                }
+                return locked;
+            });
+            if (!active.containsKey(productId)) {
+                StripedStock stock = activate(product);
+                log.info("Flash sale started for product {} with {} units", productId, stock.available());
+            }
+        } finally {
+            starting.remove(productId, started);
+            started.countDown();
+        }
+    }
+
+    /**
+     * Ends flash-sale mode. The product's checkouts are refused with 503 until every
+     * take has completed and the counter's changes are written; only then is the product
+     * unflagged and handed back to the row. The wait holds no lock, so other products'
+     * sales keep starting, ending and flushing meanwhile.
+     */
+    public void disable(String tenantId, UUID productId) {
+        StripedStock stock;
+        synchronized (this) {
+            stock = active.get(productId);
+            if (stock == null || !stock.tenantId.equals(tenantId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No flash sale for this product");
+            }
+            if (stock.closing) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Flash sale is already ending");
+            }
+            stock.closing = true;
+        }
+        try {
+            long deadline = System.nanoTime() + SETTLE_TIMEOUT.toNanos();
+            while (true) {
+                // A completed take adds to unflushed before it leaves inFlight
+                if (stock.inFlight.get() == 0) {
+                    flush();
+                    if (stock.unflushed.get() == 0) {
+                        break;
+                    }
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Flash sale is still settling, try again");
+                }
+                Thread.sleep(20);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                Product locked = findForUpdate(tenantId, productId);
+                locked.setFlashSaleStartedAt(null);
+                locked.setFlashSaleBaseStock(null);
+            });
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            stock.closing = false;
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while settling");
+        } catch (RuntimeException ex) {
+            stock.closing = false;
+            throw ex;
+        }
+        active.remove(productId, stock);
+        log.info("Flash sale ended for product {}", productId);
+    }
+
+    /**
+     * Writes the net committed changes of every counter to {@code products.stock} in one
+     * batch. A failed write is retried on the next pass.
+     */
+    @Scheduled(fixedDelayString = "${market.flash-sale.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<StripedStock, Integer> deltas = new HashMap<>();
+        for (StripedStock stock : active.values()) {
+            collect(stock, deltas);
+        }
+        if (!deltas.isEmpty()) {
+            Map<UUID, Integer> decrements = new HashMap<>();
+            deltas.forEach((stock, delta) -> decrements.put(stock.productId, delta));
+            try {
+                productStockRepository.applyDecrements(decrements);
+            } catch (RuntimeException ex) {
+                deltas.forEach((stock, delta) -> stock.unflushed.addAndGet(delta));
+                log.warn("Could not write flash-sale stock of {} product(s)", deltas.size(), ex);
+                return;
+            }
+            deltas.keySet().forEach(stock -> catalogCache.stockChanged(stock.tenantId, List.of(stock.productId)));
+        }
+    }
+
+    /**
+     * Rebuilds the counters of every flagged product from its base stock and the orders
+     * placed since its sale started, and corrects the stored stock to match. Changes not
+     * flushed before a crash are recovered this way.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void recover() {
+        active.clear();
+        for (Product product : productRepository.findAllByFlashSaleStartedAtIsNotNull()) {
+            StripedStock stock = activate(product);
+            productStockRepository.setStock(product.getId(), stock.available());
+            catalogCache.stockChanged(product.getTenantId(), List.of(product.getId()));
+        }
+        if (!active.isEmpty()) {
+            log.info("Recovered flash-sale stock of {} product(s)", active.size());
+        }
+    }
+
+    private StripedStock activate(Product product) {
+        long sold = orderRepository.sumActiveQuantitySince(product.getId(), product.getFlashSaleStartedAt());
+        int available = (int) Math.max(0, product.getFlashSaleBaseStock() - sold);
+        StripedStock stock = new StripedStock(product.getTenantId(), product.getId(),
+                product.getFlashSaleStartedAt(), available, stripes);
+        active.put(product.getId(), stock);
+        return stock;
+    }
+
+    private Product findForUpdate(String tenantId, UUID productId) {
+        return productRepository.findByIdAndTenantIdForUpdate(productId, tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+    }
+
+    private static void collect(StripedStock stock, Map<StripedStock, Integer> deltas) {
+        int delta = stock.unflushed.getAndSet(0);
+        if (delta != 0) {
+            deltas.merge(stock, delta, Integer::sum);
+        }
+    }
+
+    private static void afterCompletion(Consumer<Boolean> callback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    callback.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            callback.accept(true);
+        }
+    }
+
+    /**
+     * One product's available units spread over several atomic slots, so concurrent
+     * buyers mostly update different memory.
+     */
+    static final class StripedStock {
+
+        private final String tenantId;
+        private final UUID productId;
+        private final Instant startedAt;
+        private final AtomicInteger[] slots;
+        /** Committed net decrements not yet written to the database. */
+        private final AtomicInteger unflushed = new AtomicInteger();
+        /** Takes and returns whose transaction has not completed yet. */
+        private final AtomicInteger inFlight = new AtomicInteger();
+        /** Set while the sale ends: takes are refused and returns go to the row. */
+        private volatile boolean closing;
+
+        StripedStock(String tenantId, UUID productId, Instant startedAt, int available, int stripes) {
+            this.tenantId = tenantId;
+            this.productId = productId;
+            this.startedAt = startedAt;
+            this.slots = new AtomicInteger[stripes];
+            for (int i = 0; i < stripes; i++) {
+                slots[i] = new AtomicInteger(available / stripes + (i < available % stripes ? 1 : 0));
+            }
+        }
+
+        boolean take(int quantity) {
+            int start = ThreadLocalRandom.current().nextInt(slots.length);
+            for (int i = 0; i < slots.length; i++) {
+                AtomicInteger slot = slots[(start + i) % slots.length];
+                int current = slot.get();
+                while (current >= quantity) {
+                    if (slot.compareAndSet(current, current - quantity)) {
+                        return true;
+                    }
+                    current = slot.get();
+                }
+            }
+            return gather(quantity);
+        }
+
+        /**
+         * Takes the units from several slots when none holds enough, or none at all.
+         * Serialized with other gathers; single-slot takes keep running meanwhile.
+         */
+        private synchronized boolean gather(int quantity) {
+            int[] takenFrom = new int[slots.length];
+            int missing = quantity;
+            for (int i = 0; i < slots.length && missing > 0; i++) {
+                int current = slots[i].get();
+                while (current > 0) {
+                    int part = Math.min(current, missing);
+                    if (slots[i].compareAndSet(current, current - part)) {
+                        takenFrom[i] = part;
+                        missing -= part;
+                        break;
+                    }
+                    current = slots[i].get();
+                }
+            }
+            if (missing > 0) {
+                for (int i = 0; i < slots.length; i++) {
+                    slots[i].addAndGet(takenFrom[i]);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        void put(int quantity) {
+            slots[ThreadLocalRandom.current().nextInt(slots.length)].addAndGet(quantity);
+        }
+
+        int available() {
+            int total = 0;
+            for (AtomicInteger slot : slots) {
+                total += slot.get();
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.repository.ProductSearchFilter;
+import com.smartuniversity.market.repository.ProductSearchRepository;
+import com.smartuniversity.market.repository.ProductSearchRow;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Matches text against the {@code search_vector} column of {@code products} through its
+ * GIN index, installed by {@link com.smartuniversity.market.config.ProductSearchIndexInitializer}.
+ * The column is generated by PostgreSQL, so new products are searchable as soon as
+ * they commit, on every instance.
+ */
+@Component
+@ConditionalOnProperty(name = "market.search.index", havingValue = "postgres")
+class FullTextProductSearchIndex implements ProductSearchIndex {
+
+    private final ProductSearchRepository productSearchRepository;
+
+    FullTextProductSearchIndex(ProductSearchRepository productSearchRepository) {
+        this.productSearchRepository = productSearchRepository;
+    }
+
+    @Override
+    public List<ProductSearchRow> search(String tenantId, String text, ProductSearchFilter filter,
+            KeysetCursor after, int limit) {
+        return productSearchRepository.searchFullText(tenantId, text, filter,
+                after == null ? null : after.createdAt(), after == null ? null : after.id(), limit);
+    }
+}
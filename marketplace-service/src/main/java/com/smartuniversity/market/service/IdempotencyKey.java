@@ -0,0 +1,8 @@
+package com.smartuniversity.market.service;
+
+/**
+ * A buyer's {@code Idempotency-Key} with the fingerprint of the request it was sent
+ * with, stored on the order the request creates.
+ */
+public record IdempotencyKey(String value, String fingerprint) {
+}
@@ -0,0 +1,207 @@
+package com.smartuniversity.market.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartuniversity.market.repository.IdempotentOrder;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderDto;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Checkout with an {@code Idempotency-Key}: the first request with a key runs the Saga,
+ * and any later request with the same tenant, buyer and key gets the order it created,
+ * in its current state, without a second order, authorization or compensation. If the
+ * first request failed after creating the order, e.g. with 402 for a declined payment,
+ * retries get the same status and reason instead.
+ * <p>
+ * The key is stored on the order under a unique constraint, which is the source of
+ * truth across instances and restarts. In front of it, a bounded in-memory map of
+ * recent keys lets a duplicate that arrives while the first request is still running
+ * wait for it on this instance, and answers recent retries without a lookup.
+ * <p>
+ * A request that failed without creating an order, e.g. for lack of stock, leaves no
+ * trace, so it may be retried with the same key.
+ */
+@Service
+public class IdempotentCheckoutService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    /** Response header marking an answer as the replay of an earlier request. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final OrderSagaService orderSagaService;
+    private final OrderRepository orderRepository;
+    private final CheckoutMetrics metrics;
+    private final Duration waitTimeout;
+
+    /** Per key, the order it created, or a future that completes once the first request is done. */
+    private final Cache<String, CompletableFuture<IdempotentOrder>> recentKeys;
+
+    public IdempotentCheckoutService(OrderSagaService orderSagaService,
+            OrderRepository orderRepository,
+            CheckoutMetrics metrics,
+            @Value("${market.checkout.idempotency.cache-ttl:10m}") Duration cacheTtl,
+            @Value("${market.checkout.idempotency.max-keys:10000}") long maxKeys,
+            @Value("${market.checkout.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.orderSagaService = orderSagaService;
+        this.orderRepository = orderRepository;
+        this.metrics = metrics;
+        this.waitTimeout = waitTimeout;
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    /**
+     * The outcome of an idempotent checkout; {@code replayed} when the order was created
+     * by an earlier request with the same key.
+     */
+    public record Result(OrderDto order, boolean replayed) {
+    }
+
+    public Result checkout(String tenantId, UUID buyerId, String key, CheckoutRequest request, boolean async) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        IdempotencyKey idempotencyKey = new IdempotencyKey(key, fingerprint(request));
+        String cacheKey = tenantId + '|' + buyerId + '|' + key;
+
+        CompletableFuture<IdempotentOrder> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotentOrder> first = recentKeys.asMap().putIfAbsent(cacheKey, mine);
+        if (first != null) {
+            return replay(tenantId, buyerId, idempotencyKey, await(first));
+        }
+
+        try {
+            Optional<IdempotentOrder> stored = orderRepository.findIdempotentOrder(tenantId, buyerId, key);
+            if (stored.isPresent()) {
+                mine.complete(stored.get());
+                return replay(tenantId, buyerId, idempotencyKey, stored.get());
+            }
+            OrderDto order = async
+                    ? orderSagaService.checkoutAsync(tenantId, buyerId, request, idempotencyKey)
+                    : orderSagaService.checkout(tenantId, buyerId, request, idempotencyKey);
+            mine.complete(new IdempotentOrder(order.getId(), idempotencyKey.fingerprint(), null, null));
+            return new Result(order, false);
+        } catch (RuntimeException ex) {
+            // Another instance stored the key first, or the Saga failed after creating the order
+            Optional<IdempotentOrder> stored = orderRepository.findIdempotentOrder(tenantId, buyerId, key);
+            if (stored.isEmpty()) {
+                recentKeys.asMap().remove(cacheKey, mine);
+                mine.completeExceptionally(ex);
+                throw ex;
+            }
+            if (ex instanceof DataIntegrityViolationException) {
+                mine.complete(stored.get());
+                return replay(tenantId, buyerId, idempotencyKey, stored.get());
+            }
+            IdempotentOrder failed = stored.get();
+            if (ex instanceof ResponseStatusException failure) {
+                int status = failure.getStatusCode().value();
+                orderRepository.recordIdempotentFailure(failed.id(), status, failure.getReason());
+                failed = new IdempotentOrder(failed.id(), failed.fingerprint(), status, failure.getReason());
+            }
+            mine.complete(failed);
+            throw ex;
+        }
+    }
+
+    /**
+     * Forgets the recent keys; stored orders still answer retries.
+     */
+    public void clear() {
+        recentKeys.invalidateAll();
+    }
+
+    private IdempotentOrder await(CompletableFuture<IdempotentOrder> first) {
+        try {
+            return first.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting");
+        } catch (ExecutionException ex) {
+            // The first request failed without an order; report the same failure
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private Result replay(String tenantId, UUID buyerId, IdempotencyKey idempotencyKey, IdempotentOrder order) {
+        if (!idempotencyKey.fingerprint().equals(order.fingerprint())) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request");
+        }
+        metrics.count(CheckoutMetrics.REPLAYED);
+        if (order.failureStatus() != null) {
+            throw new ReplayedFailureException(HttpStatusCode.valueOf(order.failureStatus()), order.failureReason());
+        }
+        return new Result(orderSagaService.getOrder(tenantId, buyerId, order.id()), true);
+    }
+
+    /**
+     * The failure of the first request with a key, answered again with {@value #REPLAYED_HEADER}.
+     */
+    static final class ReplayedFailureException extends ResponseStatusException {
+
+        ReplayedFailureException(HttpStatusCode status, String reason) {
+            super(status, reason);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(REPLAYED_HEADER, "true");
+            return headers;
+        }
+    }
+
+    /**
+     * SHA-256 of the requested quantities per product, independent of item order.
+     */
+    static String fingerprint(CheckoutRequest request) {
+        List<OrderItemRequest> items = request.getItems() == null ? List.of() : request.getItems().stream()
+                .sorted(Comparator.comparing((OrderItemRequest item) -> String.valueOf(item.getProductId()))
+                        .thenComparingInt(OrderItemRequest::getQuantity))
+                .toList();
+        StringBuilder canonical = new StringBuilder();
+        for (OrderItemRequest item : items) {
+            canonical.append(item.getProductId()).append(':').append(item.getQuantity()).append(';');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.repository.ProductSearchFilter;
+import com.smartuniversity.market.repository.ProductSearchRepository;
+import com.smartuniversity.market.repository.ProductSearchRow;
+import com.smartuniversity.market.repository.ProductSearchText;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Inverted index from words to product ids, built per tenant on its first search and
+ * kept in memory. Matching ids are then filtered, ordered and paged by the database.
+ * <p>
+ * Meant for single-instance setups without PostgreSQL, such as the H2 test profile:
+ * products created through another instance are not seen until a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "market.search.index", havingValue = "memory", matchIfMissing = true)
+class InMemoryProductSearchIndex implements ProductSearchIndex {
+
+    private final ProductRepository productRepository;
+    private final ProductSearchRepository productSearchRepository;
+    private final ConcurrentMap<String, TenantIndex> indexes = new ConcurrentHashMap<>();
+
+    InMemoryProductSearchIndex(ProductRepository productRepository,
+            ProductSearchRepository productSearchRepository) {
+        this.productRepository = productRepository;
+        this.productSearchRepository = productSearchRepository;
+    }
+
+    @Override
+    public List<ProductSearchRow> search(String tenantId, String text, ProductSearchFilter filter,
+            KeysetCursor after, int limit) {
+        Set<UUID> matches = indexes.computeIfAbsent(tenantId, this::load).match(tokenize(text));
+        return productSearchRepository.searchAmong(tenantId, matches, filter,
+                after == null ? null : after.createdAt(), after == null ? null : after.id(), limit);
+    }
+
+    @Override
+    public void productCreated(Product product) {
+        // Waits for a load in progress, which may or may not have seen the product
+        indexes.computeIfPresent(product.getTenantId(), (tenantId, index) -> {
+            index.add(new ProductSearchText(product.getId(), product.getName(), product.getDescription()));
+            return index;
+        });
+    }
+
+    private TenantIndex load(String tenantId) {
+        TenantIndex index = new TenantIndex();
+        for (ProductSearchText product : productRepository.findSearchTextByTenantId(tenantId)) {
+            index.add(product);
+        }
+        return index;
+    }
+
+    /**
+     * Lower-cased runs of letters and digits, matching PostgreSQL's {@code simple}
+     * text search configuration closely enough for exact word matches.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static final class TenantIndex {
+
+        private final Map<String, Set<UUID>> postings = new HashMap<>();
+
+        synchronized void add(ProductSearchText product) {
+            Set<String> tokens = tokenize(product.name());
+            tokens.addAll(tokenize(product.description()));
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, key -> new HashSet<>()).add(product.id());
+            }
+        }
+
+        /**
+         * Ids of the products containing every token, intersected from the rarest up.
+         */
+        synchronized Set<UUID> match(Set<String> tokens) {
+            List<Set<UUID>> lists = tokens.stream()
+                    .map(token -> postings.getOrDefault(token, Set.of()))
+                    .sorted((left, right) -> Integer.compare(left.size(), right.size()))
+                    .toList();
+            if (lists.isEmpty()) {
+                return Set.of();
+            }
+            Set<UUID> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.repository.OrderItemRow;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.OrderSummary;
+import com.smartuniversity.market.web.dto.OrderDto;
+import com.smartuniversity.market.web.dto.OrderItemDto;
+import com.smartuniversity.market.web.dto.OrderPageDto;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Order history of a buyer, or of a seller across the orders of their products.
+ * <p>
+ * A page is read with two projection queries, one for the orders and one for all of
+ * their items with product names, however many orders and items it holds.
+ */
+@Service
+public class OrderHistoryService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final OrderRepository orderRepository;
+
+    public OrderHistoryService(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Lists orders newest first. As a {@code buyer} the caller sees the orders they
+     * placed; as a {@code seller}, the orders containing their products, with only those
+     * items. The total amount is always the whole order's.
+     */
+    @Transactional(readOnly = true)
+    public OrderPageDto listOrders(String tenantId, UUID userId, String view, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "'limit' must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        boolean asSeller = switch (view.toLowerCase(Locale.ROOT)) {
+            case "buyer" -> false;
+            case "seller" -> true;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'as' must be buyer or seller");
+        };
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+
+        // One extra row tells whether another page follows without a count query
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<OrderSummary> orders;
+        if (asSeller) {
+            orders = after == null
+                    ? orderRepository.findPageBySeller(tenantId, userId, page)
+                    : orderRepository.findPageBySellerAfter(tenantId, userId, after.createdAt(), after.id(), page);
+        } else {
+            orders = after == null
+                    ? orderRepository.findPageByBuyer(tenantId, userId, page)
+                    : orderRepository.findPageByBuyerAfter(tenantId, userId, after.createdAt(), after.id(), page);
+        }
+
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = orders.subList(0, limit);
+            OrderSummary last = orders.get(limit - 1);
+            nextCursor = new KeysetCursor(last.createdAt(), last.id()).encode();
+        }
+        if (orders.isEmpty()) {
+            return new OrderPageDto(List.of(), null);
+        }
+
+        List<UUID> orderIds = orders.stream().map(OrderSummary::id).toList();
+        List<OrderItemRow> items = asSeller
+                ? orderRepository.findItemRowsOfSeller(orderIds, userId)
+                : orderRepository.findItemRows(orderIds);
+        return new OrderPageDto(toDtos(orders, items), nextCursor);
+    }
+
+    static List<OrderDto> toDtos(List<OrderSummary> orders, List<OrderItemRow> items) {
+        Map<UUID, List<OrderItemDto>> itemsByOrder = new HashMap<>();
+        for (OrderItemRow item : items) {
+            itemsByOrder.computeIfAbsent(item.orderId(), key -> new ArrayList<>())
+                    .add(new OrderItemDto(item.productId(), item.productName(), item.quantity(), item.price()));
+        }
+        List<OrderDto> dtos = new ArrayList<>(orders.size());
+        for (OrderSummary order : orders) {
+            OrderDto dto = new OrderDto(order.id(), order.totalAmount(), order.status(),
+                    itemsByOrder.getOrDefault(order.id(), List.of()));
+            dto.setSagaState(order.sagaState());
+            dto.setFailureReason(order.failureReason());
+            dto.setCreatedAt(order.createdAt());
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,88 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.web.dto.OrderProgressDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Pushes checkout Saga steps to Server-Sent Event streams, one event per step named
+ * after the {@link com.smartuniversity.market.domain.SagaState}. A stream ends after
+ * the terminal step.
+ * <p>
+ * Streams are kept in memory, so only steps run on this instance reach them. A client
+ * connected to another instance still gets the state at subscription time and can
+ * fall back to {@code GET /market/orders/{id}}.
+ */
+@Component
+public class OrderProgressBroadcaster {
+
+    private final Duration streamTimeout;
+    private final ConcurrentMap<UUID, List<SseEmitter>> streams = new ConcurrentHashMap<>();
+
+    public OrderProgressBroadcaster(@Value("${market.checkout.async.stream-timeout:60s}") Duration streamTimeout) {
+        this.streamTimeout = streamTimeout;
+    }
+
+    /**
+     * Opens a stream for the order. Registers before sending {@code current}, so a step
+     * completed in between is sent twice at worst, never lost.
+     */
+    public SseEmitter subscribe(UUID orderId, Supplier<OrderProgressDto> current) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        streams.compute(orderId, (key, emitters) -> {
+            List<SseEmitter> registered = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            registered.add(emitter);
+            return registered;
+        });
+        Runnable unregister = () -> remove(orderId, emitter);
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(error -> unregister.run());
+        send(emitter, current.get());
+        return emitter;
+    }
+
+    public void publish(OrderProgressDto progress) {
+        List<SseEmitter> emitters = streams.get(progress.getOrderId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, progress);
+        }
+    }
+
+    private void send(SseEmitter emitter, OrderProgressDto progress) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(progress.getSagaState() != null ? progress.getSagaState().name() : "UNKNOWN")
+                    .data(progress, MediaType.APPLICATION_JSON));
+            if (progress.getSagaState() == null || progress.getSagaState().isTerminal()) {
+                emitter.complete();
+            }
+        } catch (IOException ex) {
+            // Client went away
+            emitter.completeWithError(ex);
+        } catch (IllegalStateException ex) {
+            // Already completed, e.g. a step that raced with subscription
+        }
+    }
+
+    private void remove(UUID orderId, SseEmitter emitter) {
+        streams.computeIfPresent(orderId, (key, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
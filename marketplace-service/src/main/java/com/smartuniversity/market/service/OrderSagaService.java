@@ -1,181 +1,258 @@
 package com.smartuniversity.market.service;
 
-import com.smartuniversity.common.events.OrderConfirmedEvent;
 import com.smartuniversity.market.domain.Order;
-import com.smartuniversity.market.domain.OrderItem;
 import com.smartuniversity.market.domain.OrderStatus;
-import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.domain.SagaState;
 import com.smartuniversity.market.repository.OrderRepository;
-import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.repository.OrderSummary;
 import com.smartuniversity.market.web.dto.CheckoutRequest;
 import com.smartuniversity.market.web.dto.OrderDto;
 import com.smartuniversity.market.web.dto.OrderItemDto;
-import com.smartuniversity.market.web.dto.OrderItemRequest;
-import com.smartuniversity.market.web.dto.PaymentAuthorizationRequest;
-import com.smartuniversity.market.web.dto.PaymentResponse;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import com.smartuniversity.market.web.dto.OrderProgressDto;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.*;
+import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Orchestrates the multi-step Saga for Marketplace checkout.
+ * <p>
+ * The steps live in {@link OrderSagaSteps}, each with its own transaction, and are
+ * timed through {@link CheckoutMetrics}. Each step is recorded on the order as its
+ * {@link SagaState}. A checkout either runs the whole Saga on the request thread, or
+ * only creates the order and hands the remaining steps to the {@code checkoutExecutor}
+ * pool.
  */
 @Service
 public class OrderSagaService {
 
-    private final ProductRepository productRepository;
+    private static final Logger log = LoggerFactory.getLogger(OrderSagaService.class);
+
     private final OrderRepository orderRepository;
-    private final PaymentClient paymentClient;
-    private final RabbitTemplate rabbitTemplate;
-
-    public OrderSagaService(ProductRepository productRepository,
-            OrderRepository orderRepository,
-            PaymentClient paymentClient,
-            RabbitTemplate rabbitTemplate) {
-        this.productRepository = productRepository;
+    private final OrderSagaSteps steps;
+    private final CheckoutMetrics metrics;
+    private final OrderProgressBroadcaster progressBroadcaster;
+    private final TaskExecutor checkoutExecutor;
+
+    public OrderSagaService(OrderRepository orderRepository,
+            OrderSagaSteps steps,
+            CheckoutMetrics metrics,
+            OrderProgressBroadcaster progressBroadcaster,
+            @Qualifier("checkoutExecutor") TaskExecutor checkoutExecutor) {
         this.orderRepository = orderRepository;
-        this.paymentClient = paymentClient;
-        this.rabbitTemplate = rabbitTemplate;
+        this.steps = steps;
+        this.metrics = metrics;
+        this.progressBroadcaster = progressBroadcaster;
+        this.checkoutExecutor = checkoutExecutor;
     }
 
     public OrderDto checkout(String tenantId, UUID buyerId, CheckoutRequest request) {
+        return checkout(tenantId, buyerId, request, null);
+    }
+
+    /**
+     * Runs the whole Saga and returns the final order. An idempotency key, if given, is
+     * stored on the order; see {@link IdempotentCheckoutService}.
+     */
+    public OrderDto checkout(String tenantId, UUID buyerId, CheckoutRequest request, IdempotencyKey idempotencyKey) {
+        validate(request);
+        return metrics.timeSaga("sync", () -> {
+            Order order = createPendingOrder(tenantId, buyerId, request, idempotencyKey);
+            runSaga(tenantId, order.getId(), buyerId, order.getTotalAmount());
+
+            Order confirmed = orderRepository.findByIdAndTenantId(order.getId(), tenantId)
+                    .orElseThrow(() -> new IllegalStateException("Order disappeared during Saga"));
+            return readDto(confirmed);
+        });
+    }
+
+    /**
+     * Creates the pending order and returns it at once; payment, confirmation and the
+     * event run on the checkout pool. Validation and stock failures are still reported
+     * synchronously, as no order is kept for them.
+     */
+    public OrderDto checkoutAsync(String tenantId, UUID buyerId, CheckoutRequest request) {
+        return checkoutAsync(tenantId, buyerId, request, null);
+    }
+
+    public OrderDto checkoutAsync(String tenantId, UUID buyerId, CheckoutRequest request,
+            IdempotencyKey idempotencyKey) {
+        validate(request);
+        Instant accepted = Instant.now();
+        Order order = createPendingOrder(tenantId, buyerId, request, idempotencyKey);
+        UUID orderId = order.getId();
+        BigDecimal amount = order.getTotalAmount();
+        OrderDto dto = toDto(order);
+        try {
+            checkoutExecutor.execute(() -> runSagaInBackground(tenantId, orderId, buyerId, amount, accepted));
+        } catch (TaskRejectedException ex) {
+            cancelOrder(tenantId, orderId, "Checkout queue is full");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Checkout is busy, try again later");
+        }
+        return dto;
+    }
+
+    @Transactional(readOnly = true)
+    public OrderDto getOrder(String tenantId, UUID buyerId, UUID orderId) {
+        return readDto(findOwnOrder(tenantId, buyerId, orderId));
+    }
+
+    @Transactional(readOnly = true)
+    public OrderProgressDto getProgress(String tenantId, UUID buyerId, UUID orderId) {
+        Order order = findOwnOrder(tenantId, buyerId, orderId);
+        return new OrderProgressDto(order.getId(), order.getStatus(), order.getSagaState(), order.getFailureReason());
+    }
+
+    /**
+     * Cancels an order whose stock hold ran out before its Saga finished, cancelling the
+     * payment too when it had been authorized. Returns {@code false} if the order was
+     * no longer pending.
+     */
+    public boolean expireHold(Order order) {
+        if (!cancelOrder(order.getTenantId(), order.getId(), "Stock hold expired")) {
+            return false;
+        }
+        if (order.getSagaState() == SagaState.PAYMENT_AUTHORIZED) {
+            // The Saga may still cancel it as well; payment-service treats a repeated cancel as a no-op
+            cancelPayment(order.getTenantId(), order.getId());
+        }
+        return true;
+    }
+
+    private void validate(CheckoutRequest request) {
         if (request.getItems() == null || request.getItems().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one item is required");
         }
+    }
 
-        // Step 1: create pending order and items
-        Order order = createPendingOrder(tenantId, buyerId, request);
+    private Order findOwnOrder(String tenantId, UUID buyerId, UUID orderId) {
+        return orderRepository.findByIdAndTenantId(orderId, tenantId)
+                .filter(order -> order.getBuyerId().equals(buyerId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+    }
 
-        // Step 2: request payment authorization
-        PaymentAuthorizationRequest paymentRequest = new PaymentAuthorizationRequest();
-        paymentRequest.setOrderId(order.getId());
-        paymentRequest.setUserId(buyerId);
-        paymentRequest.setAmount(order.getTotalAmount());
+    private Order createPendingOrder(String tenantId, UUID buyerId, CheckoutRequest request,
+            IdempotencyKey idempotencyKey) {
+        return metrics.timeStep("create",
+                () -> steps.createPendingOrder(tenantId, buyerId, request, idempotencyKey));
+    }
 
-        PaymentResponse paymentResponse;
+    private void runSagaInBackground(String tenantId, UUID orderId, UUID buyerId, BigDecimal amount,
+            Instant accepted) {
+        String outcome = "failure";
         try {
-            paymentResponse = paymentClient.authorize(tenantId, paymentRequest);
+            runSaga(tenantId, orderId, buyerId, amount);
+            outcome = "success";
+        } catch (ResponseStatusException ex) {
+            // Business outcome, already recorded on the order
+            log.debug("Checkout of order {} ended with {}", orderId, ex.getReason());
+        } catch (RuntimeException ex) {
+            log.warn("Checkout of order {} failed unexpectedly", orderId, ex);
+        } finally {
+            // Includes the time spent queued for a worker
+            metrics.recordSaga("async", outcome, Duration.between(accepted, Instant.now()));
+        }
+    }
+
+    /**
+     * Steps 2 to 4 of the Saga for an order created by
+     * {@link OrderSagaSteps#createPendingOrder}. Business failures are compensated,
+     * recorded and rethrown.
+     */
+    private void runSaga(String tenantId, UUID orderId, UUID buyerId, BigDecimal amount) {
+        // Step 2: request payment authorization
+        boolean authorized;
+        try {
+            authorized = metrics.timeStep("authorize", () -> steps.authorize(tenantId, orderId, buyerId, amount));
+        } catch (CallNotPermittedException | BulkheadFullException ex) {
+            // Refused locally without reaching payment-service; the buyer may simply retry
+            cancelOrder(tenantId, orderId, "Payment service unavailable");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Payment service unavailable");
+        } catch (ResponseStatusException ex) {
+            // The hold expired and the order was compensated while payment-service
+            // authorized it; void the authorization nobody will confirm
+            cancelPayment(tenantId, orderId);
+            throw ex;
+        } catch (HttpClientErrorException ex) {
+            // payment-service answered and refused, so nothing was authorized
+            cancelOrder(tenantId, orderId, "Payment authorization failed");
+            throw new ResponseStatusException(HttpStatus.PAYMENT_REQUIRED, "Payment authorization failed");
         } catch (Exception ex) {
-            // Mark order as canceled due to payment failure
-            markOrderCanceled(tenantId, order.getId());
+            // A timeout or I/O error leaves the outcome unknown: payment-service may have
+            // authorized before the client gave up, so void it as well
+            cancelPayment(tenantId, orderId);
+            cancelOrder(tenantId, orderId, "Payment authorization failed");
             throw new ResponseStatusException(HttpStatus.PAYMENT_REQUIRED, "Payment authorization failed");
         }
-
-        if (!"AUTHORIZED".equalsIgnoreCase(paymentResponse.getStatus())) {
-            markOrderCanceled(tenantId, order.getId());
+        if (!authorized) {
+            cancelOrder(tenantId, orderId, "Payment not authorized");
             throw new ResponseStatusException(HttpStatus.PAYMENT_REQUIRED, "Payment not authorized");
         }
+        progress(orderId, OrderStatus.PENDING, SagaState.PAYMENT_AUTHORIZED, null);
 
-        // Step 3: decrement stock within transaction, compensate payment on failure
+        // Step 3: keep the held stock, compensate payment if the hold expired meanwhile
         try {
-            confirmOrderAndDecrementStock(tenantId, order.getId());
+            metrics.timeStep("confirm", () -> steps.confirm(tenantId, orderId));
         } catch (RuntimeException ex) {
-            paymentClient.cancel(tenantId, order.getId().toString());
-            markOrderCanceled(tenantId, order.getId());
+            cancelPayment(tenantId, orderId);
+            cancelOrder(tenantId, orderId,
+                    ex instanceof ResponseStatusException rse ? rse.getReason() : "Order confirmation failed");
             throw ex;
         }
 
-        Order confirmed = orderRepository.findByIdAndTenantId(order.getId(), tenantId)
-                .orElseThrow(() -> new IllegalStateException("Order disappeared during Saga"));
-
         // Step 4: publish order.confirmed event
-        OrderConfirmedEvent event = new OrderConfirmedEvent(
-                confirmed.getId(),
-                confirmed.getBuyerId(),
-                tenantId,
-                confirmed.getTotalAmount(),
-                Instant.now());
-        rabbitTemplate.convertAndSend("university.events", "market.order.confirmed", event);
-
-        return toDto(confirmed);
-    }
-
-    @Transactional
-    protected Order createPendingOrder(String tenantId, UUID buyerId, CheckoutRequest request) {
-        Map<UUID, Integer> quantities = new HashMap<>();
-        for (OrderItemRequest item : request.getItems()) {
-            if (item.getQuantity() <= 0) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be positive");
-            }
-            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
-        }
-
-        List<Product> products = productRepository.findAllById(quantities.keySet());
-        if (products.size() != quantities.size()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "One or more products not found");
-        }
-
-        BigDecimal total = BigDecimal.ZERO;
-        Order order = new Order();
-        order.setTenantId(tenantId);
-        order.setBuyerId(buyerId);
-        order.setStatus(OrderStatus.PENDING);
-
-        List<OrderItem> items = new ArrayList<>();
-        for (Product product : products) {
-            if (!tenantId.equals(product.getTenantId())) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cross-tenant product access is not allowed");
-            }
-            int quantity = quantities.get(product.getId());
-            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(quantity));
-            total = total.add(itemTotal);
-
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(order);
-            orderItem.setProduct(product);
-            orderItem.setQuantity(quantity);
-            orderItem.setPrice(product.getPrice());
-            items.add(orderItem);
-        }
-
-        order.setTotalAmount(total);
-        order.setItems(items);
-
-        return orderRepository.save(order);
+        metrics.timeStep("publish", () -> steps.publish(tenantId, orderId, buyerId, amount));
+        progress(orderId, OrderStatus.CONFIRMED, SagaState.COMPLETED, null);
     }
 
-    @Transactional
-    protected void confirmOrderAndDecrementStock(String tenantId, UUID orderId) {
-        Order order = orderRepository.findByIdAndTenantId(orderId, tenantId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
-
-        if (order.getStatus() != OrderStatus.PENDING) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order is not pending");
+    private void cancelPayment(String tenantId, UUID orderId) {
+        try {
+            metrics.timeStep("compensate", () -> steps.cancelPayment(tenantId, orderId));
+        } catch (HttpClientErrorException.NotFound ex) {
+            // No payment was recorded for the order, so there is nothing to void
+            log.debug("No payment to cancel for order {}", orderId);
+        } catch (RuntimeException ex) {
+            // Still cancel the order and return its stock; the payment needs a manual void
+            log.error("Could not cancel payment of order {}", orderId, ex);
         }
+    }
 
-        // Decrement stock; in this sample we rely on single-node execution and simple
-        // stock checks
-        for (OrderItem item : order.getItems()) {
-            UUID productId = item.getProduct().getId();
-            Product product = productRepository.findByIdAndTenantId(productId, tenantId)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
-
-            if (product.getStock() < item.getQuantity()) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT,
-                        "Insufficient stock for product " + product.getName());
-            }
-
-            product.setStock(product.getStock() - item.getQuantity());
-            productRepository.save(product);
+    private boolean cancelOrder(String tenantId, UUID orderId, String reason) {
+        boolean canceled = metrics.timeStep("compensate", () -> steps.cancelOrder(tenantId, orderId, reason));
+        if (canceled) {
+            progress(orderId, OrderStatus.CANCELED, SagaState.COMPENSATED, reason);
         }
+        return canceled;
+    }
 
-        order.setStatus(OrderStatus.CONFIRMED);
-        orderRepository.save(order);
+    private void progress(UUID orderId, OrderStatus status, SagaState state, String reason) {
+        progressBroadcaster.publish(new OrderProgressDto(orderId, status, state, reason));
     }
 
-    @Transactional
-    protected void markOrderCanceled(String tenantId, UUID orderId) {
-        orderRepository.findByIdAndTenantId(orderId, tenantId).ifPresent(order -> {
-            order.setStatus(OrderStatus.CANCELED);
-            orderRepository.save(order);
-        });
+    /**
+     * Reads the items of a stored order with their product names in one query, rather
+     * than loading each item's product.
+     */
+    private OrderDto readDto(Order order) {
+        OrderSummary summary = new OrderSummary(order.getId(), order.getTotalAmount(), order.getStatus(),
+                order.getSagaState(), order.getFailureReason(), order.getCreatedAt());
+        return OrderHistoryService.toDtos(List.of(summary), orderRepository.findItemRows(List.of(order.getId())))
+                .get(0);
     }
 
     public OrderDto toDto(Order order) {
@@ -187,6 +264,10 @@ public class OrderSagaService {
                         i.getPrice()))
                 .collect(Collectors.toList());
 
-        return new OrderDto(order.getId(), order.getTotalAmount(), order.getStatus(), itemDtos);
+        OrderDto dto = new OrderDto(order.getId(), order.getTotalAmount(), order.getStatus(), itemDtos);
+        dto.setSagaState(order.getSagaState());
+        dto.setFailureReason(order.getFailureReason());
+        dto.setCreatedAt(order.getCreatedAt());
+        return dto;
     }
 }
\ No newline at end of file
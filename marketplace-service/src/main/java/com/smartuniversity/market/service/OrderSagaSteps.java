@@ -0,0 +1,206 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.common.events.OrderConfirmedEvent;
+import com.smartuniversity.market.config.MessagingConfig;
+import com.smartuniversity.market.domain.Order;
+import com.smartuniversity.market.domain.OrderItem;
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.domain.SagaState;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import com.smartuniversity.market.web.dto.PaymentAuthorizationRequest;
+import com.smartuniversity.market.web.dto.PaymentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The individual steps of the checkout Saga. Each local step is one transaction that
+ * also records the resulting {@link SagaState}; remote calls run outside of any
+ * transaction so no connection is held while payment-service or the broker answers.
+ * Kept apart from {@link OrderSagaService} so that the transactional proxy applies.
+ */
+@Component
+public class OrderSagaSteps {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSagaSteps.class);
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final StockService stockService;
+    private final PaymentClient paymentClient;
+    private final RabbitTemplate rabbitTemplate;
+    private final CheckoutMetrics metrics;
+    private final Duration stockHoldTtl;
+
+    public OrderSagaSteps(ProductRepository productRepository,
+            OrderRepository orderRepository,
+            StockService stockService,
+            PaymentClient paymentClient,
+            RabbitTemplate rabbitTemplate,
+            CheckoutMetrics metrics,
+            @Value("${market.stock-hold.ttl:5m}") Duration stockHoldTtl) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.stockService = stockService;
+        this.paymentClient = paymentClient;
+        this.rabbitTemplate = rabbitTemplate;
+        this.metrics = metrics;
+        this.stockHoldTtl = stockHoldTtl;
+    }
+
+    /**
+     * Step 1: creates the pending order and holds its stock, together or not at all. A
+     * sold-out product fails here, before payment-service is involved. With an
+     * idempotency key, a concurrent checkout that stored the same key first makes this
+     * fail with a {@link org.springframework.dao.DataIntegrityViolationException}.
+     */
+    @Transactional
+    public Order createPendingOrder(String tenantId, UUID buyerId, CheckoutRequest request,
+            IdempotencyKey idempotencyKey) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        for (OrderItemRequest item : request.getItems()) {
+            if (item.getQuantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be positive");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        List<Product> products = productRepository.findAllById(quantities.keySet());
+        if (products.size() != quantities.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "One or more products not found");
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        Order order = new Order();
+        order.setTenantId(tenantId);
+        order.setBuyerId(buyerId);
+        order.setStatus(OrderStatus.PENDING);
+        order.setSagaState(SagaState.STOCK_HELD);
+        if (idempotencyKey != null) {
+            order.setIdempotencyKey(idempotencyKey.value());
+            order.setIdempotencyFingerprint(idempotencyKey.fingerprint());
+        }
+
+        List<OrderItem> items = new ArrayList<>();
+        for (Product product : products) {
+            if (!tenantId.equals(product.getTenantId())) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cross-tenant product access is not allowed");
+            }
+            int quantity = quantities.get(product.getId());
+            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(quantity));
+            total = total.add(itemTotal);
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setProduct(product);
+            orderItem.setQuantity(quantity);
+            orderItem.setPrice(product.getPrice());
+            items.add(orderItem);
+        }
+
+        order.setTotalAmount(total);
+        order.setItems(items);
+        order.setStockHeldUntil(Instant.now().plus(stockHoldTtl));
+
+        stockService.decrement(tenantId, quantities);
+        Order saved = orderRepository.save(order);
+        metrics.count(CheckoutMetrics.PENDING);
+        return saved;
+    }
+
+    /**
+     * Step 2: asks payment-service to authorize the order amount. Returns {@code false}
+     * if payment-service declined; transport errors propagate. Fails with 409 if the
+     * order was canceled while payment-service answered, leaving the caller to void the
+     * authorization.
+     */
+    public boolean authorize(String tenantId, UUID orderId, UUID buyerId, BigDecimal amount) {
+        PaymentAuthorizationRequest paymentRequest = new PaymentAuthorizationRequest();
+        paymentRequest.setOrderId(orderId);
+        paymentRequest.setUserId(buyerId);
+        paymentRequest.setAmount(amount);
+
+        PaymentResponse paymentResponse = paymentClient.authorize(tenantId, paymentRequest);
+        if (!"AUTHORIZED".equalsIgnoreCase(paymentResponse.getStatus())) {
+            return false;
+        }
+        if (orderRepository.updateSagaState(orderId, EnumSet.of(SagaState.STOCK_HELD),
+                SagaState.PAYMENT_AUTHORIZED, null, Instant.now()) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order is no longer pending; its stock hold expired");
+        }
+        metrics.count(CheckoutMetrics.AUTHORIZED);
+        return true;
+    }
+
+    /**
+     * Step 3: confirms the order, keeping the stock taken with the hold. Fails with 409
+     * if the hold expired in the meantime.
+     */
+    @Transactional
+    public void confirm(String tenantId, UUID orderId) {
+        if (!stockService.confirmHold(tenantId, orderId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Order is no longer pending; its stock hold expired");
+        }
+        metrics.count(CheckoutMetrics.STOCK_CONFIRMED);
+    }
+
+    /**
+     * Step 4: publishes {@code market.order.confirmed} and completes the Saga.
+     */
+    public void publish(String tenantId, UUID orderId, UUID buyerId, BigDecimal amount) {
+        OrderConfirmedEvent event = new OrderConfirmedEvent(
+                orderId,
+                buyerId,
+                tenantId,
+                amount,
+                Instant.now());
+        rabbitTemplate.convertAndSend(MessagingConfig.EXCHANGE_NAME, "market.order.confirmed", event);
+        if (orderRepository.updateSagaState(orderId, EnumSet.of(SagaState.PAYMENT_AUTHORIZED),
+                SagaState.COMPLETED, null, Instant.now()) == 0) {
+            // The order is already confirmed, so nothing can have compensated it
+            log.warn("Order {} left {} before its Saga completed", orderId, SagaState.PAYMENT_AUTHORIZED);
+        }
+        metrics.count(CheckoutMetrics.PUBLISHED);
+    }
+
+    /**
+     * Compensation for an authorized payment.
+     */
+    public void cancelPayment(String tenantId, UUID orderId) {
+        paymentClient.cancel(tenantId, orderId.toString());
+    }
+
+    /**
+     * Compensation for the order: cancels it, returns its held stock and records why.
+     * Returns {@code false}, changing nothing, if the order is no longer pending.
+     */
+    @Transactional
+    public boolean cancelOrder(String tenantId, UUID orderId, String reason) {
+        if (!stockService.releaseHold(tenantId, orderId)) {
+            return false;
+        }
+        orderRepository.updateSagaState(orderId, EnumSet.of(SagaState.STOCK_HELD, SagaState.PAYMENT_AUTHORIZED),
+                SagaState.COMPENSATED, reason, Instant.now());
+        metrics.count(CheckoutMetrics.COMPENSATED);
+        return true;
+    }
+}
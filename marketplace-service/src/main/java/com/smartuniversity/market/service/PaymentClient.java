@@ -2,6 +2,9 @@ package com.smartuniversity.market.service;
 
 import com.smartuniversity.market.web.dto.PaymentAuthorizationRequest;
 import com.smartuniversity.market.web.dto.PaymentResponse;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -14,19 +17,30 @@ import org.springframework.web.client.RestTemplate;
 import java.util.Objects;
 
 /**
- * Simple HTTP client for interacting with the Payment service.
+ * HTTP client for interacting with the Payment service.
+ * <p>
+ * Calls go through the pooled {@code paymentRestTemplate} and a Resilience4j bulkhead
+ * that caps concurrent calls, so a slow payment-service cannot take every checkout
+ * thread. Authorizations also pass a circuit breaker that fails fast while
+ * payment-service is failing or slow. Cancels skip the breaker: compensation should
+ * still be attempted while new authorizations are being refused.
  */
 @Component
 public class PaymentClient {
 
+    static final String RESILIENCE_NAME = "payment";
+
     private final RestTemplate restTemplate;
     private final String baseUrl;
 
-    public PaymentClient(@Value("${payment.service.base-url:http://localhost:8084}") String baseUrl) {
-        this.restTemplate = new RestTemplate();
+    public PaymentClient(@Qualifier("paymentRestTemplate") RestTemplate restTemplate,
+            @Value("${payment.service.base-url:http://localhost:8084}") String baseUrl) {
+        this.restTemplate = restTemplate;
         this.baseUrl = baseUrl;
     }
 
+    @Bulkhead(name = RESILIENCE_NAME)
+    @CircuitBreaker(name = RESILIENCE_NAME)
     public PaymentResponse authorize(String tenantId, PaymentAuthorizationRequest request) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -42,17 +56,20 @@ public class PaymentClient {
         return Objects.requireNonNull(response.getBody());
     }
 
+    @Bulkhead(name = RESILIENCE_NAME)
     public PaymentResponse cancel(String tenantId, String orderId) {
         HttpHeaders headers = new HttpHeaders();
         headers.add("X-Tenant-Id", tenantId);
 
         HttpEntity<Void> entity = new HttpEntity<>(headers);
+        // URI template, so the request metrics are tagged per endpoint rather than per order
         ResponseEntity<PaymentResponse> response = restTemplate.exchange(
-                baseUrl + "/payment/payments/cancel/" + orderId,
+                baseUrl + "/payment/payments/cancel/{orderId}",
                 HttpMethod.POST,
                 entity,
-                PaymentResponse.class
+                PaymentResponse.class,
+                orderId
         );
         return Objects.requireNonNull(response.getBody());
     }
-}
\ No newline at end of file
+}
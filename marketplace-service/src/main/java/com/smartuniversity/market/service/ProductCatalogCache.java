@@ -0,0 +1,165 @@
+package com.smartuniversity.market.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.repository.ProductStock;
+import com.smartuniversity.market.web.dto.ProductDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Product catalog per tenant, bounded in size and age, with stock kept current.
+ * <p>
+ * A catalog is loaded once and then served from memory until it expires or a product
+ * is created. Stock changes do not evict it. Committed stock changes mark the affected
+ * products, and the next read refreshes only their stock with one small projection
+ * query. A change whose products are unknown to the cached catalog, e.g. one committed
+ * while it was loading, refreshes the stock of the whole tenant instead. Changes made
+ * by other instances are only picked up when the catalog expires.
+ * <p>
+ * Hits and misses are counted per tenant as {@code market.catalog.requests}; the
+ * underlying cache is also exposed as {@code cache.*} metrics named {@code productCatalog}.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private final ProductRepository productRepository;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Catalog> catalogs;
+    /** Bumped on every stock change of a tenant; a catalog behind it refreshes its stock. */
+    private final ConcurrentMap<String, AtomicLong> stockVersions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> requestCounters = new ConcurrentHashMap<>();
+
+    public ProductCatalogCache(ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${market.catalog-cache.ttl:60s}") Duration ttl,
+            @Value("${market.catalog-cache.max-tenants:1000}") long maxTenants) {
+        this.productRepository = productRepository;
+        this.meterRegistry = meterRegistry;
+        this.catalogs = Caffeine.newBuilder()
+                .maximumSize(maxTenants)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, catalogs, "productCatalog");
+    }
+
+    public List<ProductDto> list(String tenantId) {
+        AtomicLong version = stockVersion(tenantId);
+        boolean[] loaded = new boolean[1];
+        Catalog catalog = catalogs.get(tenantId, key -> {
+            loaded[0] = true;
+            // Read the version first: a change committed during the load makes it stale
+            long loadedVersion = version.get();
+            return new Catalog(productRepository.findAllByTenantId(key), loadedVersion);
+        });
+        count(tenantId, loaded[0] ? "miss" : "hit");
+        return catalog.read(version.get(), productRepository::findStockByIdIn,
+                () -> productRepository.findStockByTenantId(tenantId));
+    }
+
+    /**
+     * Records that the stock of the given products changed in a committed transaction.
+     */
+    public void stockChanged(String tenantId, Collection<UUID> productIds) {
+        Catalog catalog = catalogs.getIfPresent(tenantId);
+        if (catalog != null) {
+            catalog.markDirty(productIds);
+        }
+        // After marking, so a reader that sees the new version also sees the products
+        stockVersion(tenantId).incrementAndGet();
+    }
+
+    public void evict(String tenantId) {
+        catalogs.invalidate(tenantId);
+    }
+
+    public void clear() {
+        catalogs.invalidateAll();
+    }
+
+    private AtomicLong stockVersion(String tenantId) {
+        return stockVersions.computeIfAbsent(tenantId, key -> new AtomicLong());
+    }
+
+    private void count(String tenantId, String result) {
+        requestCounters.computeIfAbsent(tenantId + '|' + result, key -> Counter.builder("market.catalog.requests")
+                .description("Product catalog reads served from memory (hit) or loaded (miss)")
+                .tag("tenant", tenantId)
+                .tag("result", result)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * One tenant's products with their latest known stock.
+     */
+    static final class Catalog {
+
+        /** Stock as loaded; the current value is in {@link #stock}. */
+        private final List<ProductDto> products = new ArrayList<>();
+        private final Map<UUID, Integer> stock = new HashMap<>();
+        private final Set<UUID> dirty = new HashSet<>();
+        private long syncedVersion;
+
+        Catalog(List<Product> products, long syncedVersion) {
+            this.syncedVersion = syncedVersion;
+            for (Product product : products) {
+                this.products.add(new ProductDto(product.getId(), product.getName(), product.getDescription(),
+                        product.getPrice(), product.getStock()));
+                stock.put(product.getId(), product.getStock());
+            }
+        }
+
+        synchronized void markDirty(Collection<UUID> productIds) {
+            for (UUID productId : productIds) {
+                if (stock.containsKey(productId)) {
+                    dirty.add(productId);
+                }
+            }
+        }
+
+        /**
+         * Brings the stock up to {@code currentVersion} if behind, then returns the
+         * products. Concurrent readers of a catalog wait for a single refresh.
+         */
+        synchronized List<ProductDto> read(long currentVersion,
+                Function<Collection<UUID>, List<ProductStock>> stockOf,
+                Supplier<List<ProductStock>> allStock) {
+            if (currentVersion != syncedVersion) {
+                syncedVersion = currentVersion;
+                List<ProductStock> fresh = dirty.isEmpty() ? allStock.get() : stockOf.apply(new ArrayList<>(dirty));
+                dirty.clear();
+                for (ProductStock current : fresh) {
+                    stock.computeIfPresent(current.id(), (id, previous) -> current.stock());
+                }
+            }
+            List<ProductDto> result = new ArrayList<>(products.size());
+            for (ProductDto product : products) {
+                result.add(new ProductDto(product.getId(), product.getName(), product.getDescription(),
+                        product.getPrice(), stock.get(product.getId())));
+            }
+            return result;
+        }
+    }
+}
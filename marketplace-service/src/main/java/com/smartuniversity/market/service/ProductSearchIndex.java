@@ -0,0 +1,28 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.ProductSearchFilter;
+import com.smartuniversity.market.repository.ProductSearchRow;
+
+import java.util.List;
+
+/**
+ * Text matching behind product search, selected with {@code market.search.index}:
+ * {@code postgres} for the full-text index in the database, {@code memory} for an
+ * inverted index held by this instance.
+ * <p>
+ * Both match products containing every word of the text, case-insensitively, and
+ * return one page ordered newest first.
+ */
+interface ProductSearchIndex {
+
+    List<ProductSearchRow> search(String tenantId, String text, ProductSearchFilter filter,
+            KeysetCursor after, int limit);
+
+    /**
+     * Makes a newly committed product searchable, for indexes that are not maintained
+     * by the database.
+     */
+    default void productCreated(Product product) {
+    }
+}
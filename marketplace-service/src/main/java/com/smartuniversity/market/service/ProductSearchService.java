@@ -0,0 +1,71 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.ProductSearchFilter;
+import com.smartuniversity.market.repository.ProductSearchRepository;
+import com.smartuniversity.market.repository.ProductSearchRow;
+import com.smartuniversity.market.web.dto.ProductDto;
+import com.smartuniversity.market.web.dto.ProductPageDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Searches the products of a tenant by text, price and availability, one keyset page
+ * at a time, newest first.
+ */
+@Service
+public class ProductSearchService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSearchRepository productSearchRepository;
+
+    ProductSearchService(ProductSearchIndex productSearchIndex, ProductSearchRepository productSearchRepository) {
+        this.productSearchIndex = productSearchIndex;
+        this.productSearchRepository = productSearchRepository;
+    }
+
+    public ProductPageDto search(String tenantId, String text, BigDecimal minPrice, BigDecimal maxPrice,
+            boolean inStock, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "'limit' must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'minPrice' must not exceed 'maxPrice'");
+        }
+        ProductSearchFilter filter = new ProductSearchFilter(minPrice, maxPrice, inStock);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+
+        // One extra row tells whether another page follows without a count query
+        List<ProductSearchRow> rows;
+        if (StringUtils.hasText(text)) {
+            rows = productSearchIndex.search(tenantId, text, filter, after, limit + 1);
+        } else {
+            rows = productSearchRepository.searchAll(tenantId, filter,
+                    after == null ? null : after.createdAt(), after == null ? null : after.id(), limit + 1);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            ProductSearchRow last = rows.get(limit - 1);
+            nextCursor = new KeysetCursor(last.createdAt(), last.id()).encode();
+        }
+        List<ProductDto> items = rows.stream()
+                .map(row -> new ProductDto(row.id(), row.name(), row.description(), row.price(), row.stock()))
+                .collect(Collectors.toList());
+        return new ProductPageDto(items, nextCursor);
+    }
+
+    public void productCreated(Product product) {
+        productSearchIndex.productCreated(product);
+    }
+}
@@ -0,0 +1,63 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.domain.Order;
+import com.smartuniversity.market.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Cancels pending orders whose stock hold ran out and returns their stock, covering
+ * checkouts that never finished: a crashed instance or worker, or a payment call that
+ * outlived the hold. Each order is released in its own transaction through
+ * {@link OrderSagaService#expireHold}, so an order confirmed meanwhile is left alone.
+ */
+@Component
+public class StockHoldReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(StockHoldReaper.class);
+
+    /** Orders released per query; a pass keeps going while pages come back full. */
+    static final int BATCH_SIZE = 100;
+
+    private final OrderRepository orderRepository;
+    private final OrderSagaService orderSagaService;
+
+    public StockHoldReaper(OrderRepository orderRepository, OrderSagaService orderSagaService) {
+        this.orderRepository = orderRepository;
+        this.orderSagaService = orderSagaService;
+    }
+
+    @Scheduled(fixedDelayString = "${market.stock-hold.sweep-interval-ms:30000}")
+    public void releaseExpired() {
+        Instant now = Instant.now();
+        int released = 0;
+        List<Order> expired;
+        do {
+            expired = orderRepository.findExpiredHolds(now, PageRequest.of(0, BATCH_SIZE));
+            int releasedInPage = 0;
+            for (Order order : expired) {
+                try {
+                    if (orderSagaService.expireHold(order)) {
+                        releasedInPage++;
+                    }
+                } catch (RuntimeException ex) {
+                    log.warn("Could not release stock hold of order {}", order.getId(), ex);
+                }
+            }
+            released += releasedInPage;
+            if (releasedInPage == 0) {
+                // Nothing in this page could be released; retry on the next pass instead of spinning
+                break;
+            }
+        } while (expired.size() == BATCH_SIZE);
+        if (released > 0) {
+            log.info("Released stock holds of {} expired orders", released);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.repository.OrderItemQuantity;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.ProductStockRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies the stock side of a checkout atomically.
+ * <p>
+ * Stock is taken when the order is created and held while payment runs. The order
+ * status is the hold: a PENDING order owns its units until it is confirmed, which keeps
+ * them, or canceled, which gives them back. Both are conditional status transitions,
+ * so a hold is released at most once even when cancellation and expiry race.
+ * <p>
+ * Committed stock changes are reported to the {@link ProductCatalogCache}, so product
+ * listings show the new stock without reloading the whole catalog.
+ * <p>
+ * Products in flash-sale mode are counted by {@link FlashSaleStock} instead of their
+ * row; only the remaining products reach the database here.
+ */
+@Service
+public class StockService {
+
+    private final ProductStockRepository productStockRepository;
+    private final OrderRepository orderRepository;
+    private final ProductCatalogCache catalogCache;
+    private final FlashSaleStock flashSaleStock;
+
+    public StockService(ProductStockRepository productStockRepository, OrderRepository orderRepository,
+            ProductCatalogCache catalogCache, FlashSaleStock flashSaleStock) {
+        this.productStockRepository = productStockRepository;
+        this.orderRepository = orderRepository;
+        this.catalogCache = catalogCache;
+        this.flashSaleStock = flashSaleStock;
+    }
+
+    /**
+     * Decrements the stock of every product by the given quantity, or of none. The
+     * {@code stock >= quantity} guard is evaluated by the database under the row lock,
+     * so two concurrent checkouts can never both take the last unit.
+     */
+    @Transactional
+    public void decrement(String tenantId, Map<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        // Flash-sale units go back on rollback, including when a row below is short
+        Map<UUID, Integer> rowQuantities = flashSaleStock.take(tenantId, quantities);
+        if (rowQuantities.isEmpty()) {
+            return;
+        }
+        List<UUID> rejected = productStockRepository.decrementStock(tenantId, rowQuantities);
+        if (!rejected.isEmpty()) {
+            // A flash sale may have started since the products were routed
+            Map<UUID, Integer> retry = new HashMap<>();
+            rejected.forEach(productId -> retry.put(productId, rowQuantities.get(productId)));
+            List<UUID> unavailable = List.copyOf(flashSaleStock.takeOnceStarted(tenantId, retry).keySet());
+            if (!unavailable.isEmpty()) {
+                // Rolls back the decrements that did apply
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Insufficient stock for product " + unavailable.get(0));
+            }
+        }
+        stockChangedAfterCommit(tenantId, rowQuantities);
+    }
+
+    /**
+     * Gives stock back for an order created at {@code orderCreatedAt}.
+     */
+    @Transactional
+    public void increment(String tenantId, Map<UUID, Integer> quantities, Instant orderCreatedAt) {
+        if (!quantities.isEmpty()) {
+            quantities = flashSaleStock.giveBack(tenantId, quantities, orderCreatedAt);
+        }
+        if (!quantities.isEmpty()) {
+            productStockRepository.incrementStock(tenantId, quantities);
+            stockChangedAfterCommit(tenantId, quantities);
+        }
+    }
+
+    /**
+     * Turns the hold of a pending order into a sale. Returns {@code false} if the order
+     * is no longer pending, typically because its hold expired and the stock went back.
+     */
+    @Transactional
+    public boolean confirmHold(String tenantId, UUID orderId) {
+        return orderRepository.transition(orderId, tenantId, OrderStatus.PENDING, OrderStatus.CONFIRMED,
+                Instant.now()) == 1;
+    }
+
+    /**
+     * Cancels a pending order and gives its stock back. Returns {@code false}, and
+     * changes nothing, if the order is not pending.
+     */
+    @Transactional
+    public boolean releaseHold(String tenantId, UUID orderId) {
+        if (orderRepository.transition(orderId, tenantId, OrderStatus.PENDING, OrderStatus.CANCELED,
+                Instant.now()) == 0) {
+            return false;
+        }
+        Map<UUID, Integer> quantities = new HashMap<>();
+        for (OrderItemQuantity item : orderRepository.findItemQuantities(orderId)) {
+            quantities.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+        increment(tenantId, quantities, orderRepository.findCreatedAtById(orderId));
+        return true;
+    }
+
+    /**
+     * Reports the change once the surrounding transaction commits, so a refresh cannot
+     * read the stock from before it.
+     */
+    private void stockChangedAfterCommit(String tenantId, Map<UUID, Integer> quantities) {
+        List<UUID> productIds = List.copyOf(quantities.keySet());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    catalogCache.stockChanged(tenantId, productIds);
+                }
+            });
+        } else {
+            catalogCache.stockChanged(tenantId, productIds);
+        }
+    }
+}
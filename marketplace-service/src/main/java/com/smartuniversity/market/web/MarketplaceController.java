@@ -2,29 +2,42 @@ package com.smartuniversity.market.web;
 
 import com.smartuniversity.market.domain.Product;
 import com.smartuniversity.market.repository.ProductRepository;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import com.smartuniversity.market.service.FlashSaleStock;
+import com.smartuniversity.market.service.IdempotentCheckoutService;
+import com.smartuniversity.market.service.OrderHistoryService;
+import com.smartuniversity.market.service.OrderProgressBroadcaster;
 import com.smartuniversity.market.service.OrderSagaService;
+import com.smartuniversity.market.service.ProductCatalogCache;
+import com.smartuniversity.market.service.ProductSearchService;
 import com.smartuniversity.market.web.dto.CheckoutRequest;
 import com.smartuniversity.market.web.dto.OrderDto;
+import com.smartuniversity.market.web.dto.OrderPageDto;
 import com.smartuniversity.market.web.dto.ProductDto;
+import com.smartuniversity.market.web.dto.ProductPageDto;
 import com.smartuniversity.market.web.dto.ProductRequest;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.math.BigDecimal;
+import java.net.URI;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * REST API for Marketplace products and orders.
@@ -34,26 +47,56 @@ import java.util.stream.Collectors;
 @Tag(name = "Marketplace", description = "Products catalog and Saga-based checkout")
 public class MarketplaceController {
 
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final ProductRepository productRepository;
     private final OrderSagaService orderSagaService;
+    private final OrderProgressBroadcaster progressBroadcaster;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchService productSearchService;
+    private final OrderHistoryService orderHistoryService;
+    private final IdempotentCheckoutService idempotentCheckoutService;
+    private final FlashSaleStock flashSaleStock;
 
     public MarketplaceController(ProductRepository productRepository,
-            OrderSagaService orderSagaService) {
+            OrderSagaService orderSagaService,
+            OrderProgressBroadcaster progressBroadcaster,
+            ProductCatalogCache productCatalogCache,
+            ProductSearchService productSearchService,
+            OrderHistoryService orderHistoryService,
+            IdempotentCheckoutService idempotentCheckoutService,
+            FlashSaleStock flashSaleStock) {
         this.productRepository = productRepository;
         this.orderSagaService = orderSagaService;
+        this.progressBroadcaster = progressBroadcaster;
+        this.productCatalogCache = productCatalogCache;
+        this.productSearchService = productSearchService;
+        this.orderHistoryService = orderHistoryService;
+        this.idempotentCheckoutService = idempotentCheckoutService;
+        this.flashSaleStock = flashSaleStock;
     }
 
     @GetMapping("/products")
-    @Cacheable(cacheNames = "productsByTenant", key = "#root.args[0]")
     @Operation(summary = "List products", description = "Returns all products for the current tenant")
     public List<ProductDto> listProducts(@RequestHeader("X-Tenant-Id") String tenantId) {
-        return productRepository.findAllByTenantId(tenantId).stream()
-                .map(p -> new ProductDto(p.getId(), p.getName(), p.getDescription(), p.getPrice(), p.getStock()))
-                .collect(Collectors.toList());
+        return productCatalogCache.list(tenantId);
+    }
+
+    @GetMapping("/products/search")
+    @Operation(summary = "Search products", description = "Full-text search over product names and descriptions, "
+            + "filtered by price and availability and paged newest first using an opaque cursor")
+    public ProductPageDto searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+        return productSearchService.search(tenantId, q, minPrice, maxPrice, inStock, cursor, limit);
     }
 
     @PostMapping("/products")
-    @CacheEvict(cacheNames = "productsByTenant", key = "#root.args[3]")
     @Operation(summary = "Create product", description = "Creates a new product (TEACHER/ADMIN only, enforced at gateway)")
     public ResponseEntity<ProductDto> createProduct(@Valid @RequestBody ProductRequest request,
             @RequestHeader("X-User-Id") String userIdHeader,
@@ -80,23 +123,120 @@ public class MarketplaceController {
         product.setStock(request.getStock());
 
         Product saved = productRepository.save(product);
+        productCatalogCache.evict(tenantId);
+        productSearchService.productCreated(saved);
         ProductDto dto = new ProductDto(saved.getId(), saved.getName(), saved.getDescription(), saved.getPrice(),
                 saved.getStock());
         return ResponseEntity.status(HttpStatus.CREATED).body(dto);
     }
 
+    @PostMapping("/products/{id}/flash-sale")
+    @Operation(summary = "Start flash sale", description = "Counts the product's stock in memory so a burst of checkouts "
+            + "does not queue on its row lock; the stored stock is updated in the background (seller or ADMIN only)")
+    public ResponseEntity<Void> startFlashSale(@PathVariable("id") UUID id,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-User-Role") String role,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+        requireSellerOrAdmin(tenantId, id, userIdHeader, role);
+        flashSaleStock.enable(tenantId, id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/products/{id}/flash-sale")
+    @Operation(summary = "End flash sale", description = "Writes the counted stock back and returns the product to "
+            + "regular row-locked checkout (seller or ADMIN only)")
+    public ResponseEntity<Void> endFlashSale(@PathVariable("id") UUID id,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-User-Role") String role,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+        requireSellerOrAdmin(tenantId, id, userIdHeader, role);
+        flashSaleStock.disable(tenantId, id);
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/orders/checkout")
-    @Operation(summary = "Checkout order", description = "Orchestrates the Saga across payment and stock updates for the given items")
+    @Operation(summary = "Checkout order", description = "Orchestrates the Saga across payment and stock updates for the given items. "
+            + "With 'Prefer: respond-async' the order is accepted with 202 and the Saga finishes in the background. "
+            + "Retries with the same 'Idempotency-Key' return the order created by the first request with 200")
     public ResponseEntity<OrderDto> checkout(@Valid @RequestBody CheckoutRequest request,
             @RequestHeader("X-User-Id") String userIdHeader,
-            @RequestHeader("X-Tenant-Id") String tenantId) {
+            @RequestHeader("X-Tenant-Id") String tenantId,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
         if (!StringUtils.hasText(userIdHeader)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
         UUID buyerId = UUID.fromString(userIdHeader);
-        OrderDto order = orderSagaService.checkout(tenantId, buyerId, request);
+        boolean async = prefer != null && prefer.toLowerCase().contains(RESPOND_ASYNC);
+        OrderDto order;
+        if (idempotencyKey != null) {
+            IdempotentCheckoutService.Result result = idempotentCheckoutService.checkout(tenantId, buyerId,
+                    idempotencyKey, request, async);
+            order = result.order();
+            if (result.replayed()) {
+                return ResponseEntity.ok()
+                        .location(URI.create("/market/orders/" + order.getId()))
+                        .header(IdempotentCheckoutService.REPLAYED_HEADER, "true")
+                        .body(order);
+            }
+        } else {
+            order = async
+                    ? orderSagaService.checkoutAsync(tenantId, buyerId, request)
+                    : orderSagaService.checkout(tenantId, buyerId, request);
+        }
+        if (async) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/market/orders/" + order.getId()))
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(order);
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/orders")
+    @Operation(summary = "List orders", description = "Pages through the caller's orders newest first using an opaque cursor; "
+            + "with as=seller, the orders containing the caller's products")
+    public OrderPageDto listOrders(
+            @RequestParam(name = "as", defaultValue = "buyer") String view,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+        return orderHistoryService.listOrders(tenantId, UUID.fromString(userIdHeader), view, cursor, limit);
+    }
+
+    @GetMapping("/orders/{id}")
+    @Operation(summary = "Get order", description = "Returns one of the caller's orders, including the Saga progress")
+    public OrderDto getOrder(@PathVariable("id") UUID id,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+        return orderSagaService.getOrder(tenantId, UUID.fromString(userIdHeader), id);
+    }
+
+    @GetMapping(value = "/orders/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream order progress", description = "Server-Sent Events with one event per Saga step; "
+            + "the stream ends after the order is completed or compensated")
+    public SseEmitter streamOrder(@PathVariable("id") UUID id,
+            @RequestHeader("X-User-Id") String userIdHeader,
+            @RequestHeader("X-Tenant-Id") String tenantId) {
+        UUID buyerId = UUID.fromString(userIdHeader);
+        // Fails with 404 before a stream is opened
+        orderSagaService.getProgress(tenantId, buyerId, id);
+        return progressBroadcaster.subscribe(id, () -> orderSagaService.getProgress(tenantId, buyerId, id));
+    }
+
+    private void requireSellerOrAdmin(String tenantId, UUID productId, String userIdHeader, String role) {
+        if (!StringUtils.hasText(userIdHeader) || !StringUtils.hasText(role)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        Product product = productRepository.findByIdAndTenantId(productId, tenantId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+        boolean isSeller = ("TEACHER".equals(role) || "ADMIN".equals(role))
+                && product.getSellerId().toString().equals(userIdHeader);
+        if (!isSeller && !"ADMIN".equals(role)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.smartuniversity.market.web.dto;
 
 import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.SagaState;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,6 +14,9 @@ public class OrderDto {
     private BigDecimal totalAmount;
     private OrderStatus status;
     private List<OrderItemDto> items;
+    private SagaState sagaState;
+    private String failureReason;
+    private Instant createdAt;
 
     public OrderDto() {
     }
@@ -54,4 +59,28 @@ public class OrderDto {
     public void setItems(List<OrderItemDto> items) {
         this.items = items;
     }
-}
\ No newline at end of file
+
+    public SagaState getSagaState() {
+        return sagaState;
+    }
+
+    public void setSagaState(SagaState sagaState) {
+        this.sagaState = sagaState;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public void setFailureReason(String failureReason) {
+        this.failureReason = failureReason;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
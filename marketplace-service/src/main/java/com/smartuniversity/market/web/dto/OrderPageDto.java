@@ -0,0 +1,37 @@
+package com.smartuniversity.market.web.dto;
+
+import java.util.List;
+
+public class OrderPageDto {
+
+    private List<OrderDto> items;
+
+    /**
+     * Cursor for the next page, or {@code null} when this is the last page.
+     */
+    private String nextCursor;
+
+    public OrderPageDto() {
+    }
+
+    public OrderPageDto(List<OrderDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OrderDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
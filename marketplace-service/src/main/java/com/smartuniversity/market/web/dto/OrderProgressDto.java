@@ -0,0 +1,59 @@
+package com.smartuniversity.market.web.dto;
+
+import com.smartuniversity.market.domain.OrderStatus;
+import com.smartuniversity.market.domain.SagaState;
+
+import java.util.UUID;
+
+/**
+ * One step of a checkout Saga as pushed to order event streams.
+ */
+public class OrderProgressDto {
+
+    private UUID orderId;
+    private OrderStatus status;
+    private SagaState sagaState;
+    private String failureReason;
+
+    public OrderProgressDto() {
+    }
+
+    public OrderProgressDto(UUID orderId, OrderStatus status, SagaState sagaState, String failureReason) {
+        this.orderId = orderId;
+        this.status = status;
+        this.sagaState = sagaState;
+        this.failureReason = failureReason;
+    }
+
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(UUID orderId) {
+        this.orderId = orderId;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public SagaState getSagaState() {
+        return sagaState;
+    }
+
+    public void setSagaState(SagaState sagaState) {
+        this.sagaState = sagaState;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public void setFailureReason(String failureReason) {
+        this.failureReason = failureReason;
+    }
+}
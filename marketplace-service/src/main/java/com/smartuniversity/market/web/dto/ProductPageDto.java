@@ -0,0 +1,37 @@
+package com.smartuniversity.market.web.dto;
+
+import java.util.List;
+
+public class ProductPageDto {
+
+    private List<ProductDto> items;
+
+    /**
+     * Cursor for the next page, or {@code null} when this is the last page.
+     */
+    private String nextCursor;
+
+    public ProductPageDto() {
+    }
+
+    public ProductPageDto(List<ProductDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ProductDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
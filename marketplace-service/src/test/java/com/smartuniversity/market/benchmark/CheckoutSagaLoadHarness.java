@@ -0,0 +1,327 @@
+package com.smartuniversity.market.benchmark;
+
+import com.smartuniversity.market.MarketplaceServiceApplication;
+import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.repository.OrderRepository;
+import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.service.FlashSaleStock;
+import com.smartuniversity.market.service.OrderSagaService;
+import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderItemRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load harness for the checkout Saga, driving {@link OrderSagaService#checkout} directly
+ * without the compose stack.
+ * <p>
+ * Runs each {@link Workload} in a fresh application context. Payment-service is
+ * replaced by a {@link StubPaymentProvider} on a local port, so the pooled client,
+ * bulkhead and circuit breaker stay in the path, and events are serialized but not
+ * sent. Prints throughput, end-to-end latency percentiles, time per Saga step,
+ * compensations per second and checkout outcomes, then checks that no product sold
+ * more than its stock. Opt-in, since a run takes minutes:
+ * <pre>
+ * mvn -pl marketplace-service test -Dtest=CheckoutSagaLoadHarness -Dmarket.load.enabled=true
+ * </pre>
+ * Without {@code market.load.jdbc-url} the harness runs against in-memory H2 in
+ * PostgreSQL mode; lock behaviour differs from PostgreSQL, so compare numbers only
+ * within one database. Other knobs: {@code market.load.threads}, {@code .requests},
+ * {@code .products}, {@code .hot-stock}, {@code .wide-stock}, {@code .pool-size},
+ * {@code .payment-latency-ms}, {@code .payment-failure-rate},
+ * {@code .payment-decline-rate}, and any service property such as
+ * {@code -Dresilience4j.bulkhead.instances.payment.maxConcurrentCalls=50}.
+ */
+@EnabledIfSystemProperty(named = "market.load.enabled", matches = "true")
+class CheckoutSagaLoadHarness {
+
+    private static final int THREADS = Integer.getInteger("market.load.threads", 64);
+    private static final int REQUESTS = Integer.getInteger("market.load.requests", 10_000);
+    private static final int PRODUCTS = Integer.getInteger("market.load.products", 1_000);
+    private static final int HOT_STOCK = Integer.getInteger("market.load.hot-stock", REQUESTS / 2);
+    private static final int WIDE_STOCK = Integer.getInteger("market.load.wide-stock", 1_000);
+    private static final int POOL_SIZE = Integer.getInteger("market.load.pool-size", 50);
+    private static final long PAYMENT_LATENCY_MS = Long.getLong("market.load.payment-latency-ms", 20);
+    private static final double PAYMENT_FAILURE_RATE =
+            Double.parseDouble(System.getProperty("market.load.payment-failure-rate", "0.02"));
+    private static final double PAYMENT_DECLINE_RATE =
+            Double.parseDouble(System.getProperty("market.load.payment-decline-rate", "0.05"));
+
+    enum Workload {
+        /** Every checkout buys one unit of the same product, which sells out halfway. */
+        HOT,
+        /** As {@link #HOT}, with the product in flash-sale mode. */
+        FLASH_SALE,
+        /** Each checkout buys one to three random products of a large catalog. */
+        WIDE
+    }
+
+    @ParameterizedTest
+    @EnumSource(Workload.class)
+    void run(Workload workload) throws InterruptedException, IOException {
+        try (StubPaymentProvider payment = new StubPaymentProvider(PAYMENT_LATENCY_MS, PAYMENT_FAILURE_RATE,
+                PAYMENT_DECLINE_RATE);
+                ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                        MarketplaceServiceApplication.class, NoBroker.class)
+                        .web(WebApplicationType.SERVLET)
+                        .run(arguments(payment.baseUrl()))) {
+            OrderSagaService orderSagaService = context.getBean(OrderSagaService.class);
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            FlashSaleStock flashSaleStock = context.getBean(FlashSaleStock.class);
+            String tenantId = "load-" + UUID.randomUUID();
+            Map<UUID, Integer> initialStock = createProducts(context.getBean(ProductRepository.class), tenantId,
+                    workload == Workload.WIDE ? PRODUCTS : 1, workload == Workload.WIDE ? WIDE_STOCK : HOT_STOCK);
+            List<UUID> products = List.copyOf(initialStock.keySet());
+            if (workload == Workload.FLASH_SALE) {
+                flashSaleStock.enable(tenantId, products.get(0));
+            }
+
+            // Client-side percentiles, so the numbers do not depend on the registry in use
+            Timer latencies = Timer.builder("market.load.checkout")
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .register(new SimpleMeterRegistry());
+            Map<Integer, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+            AtomicInteger errors = new AtomicInteger();
+            AtomicInteger sequence = new AtomicInteger();
+            CountDownLatch ready = new CountDownLatch(THREADS);
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(THREADS);
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                executor.submit(() -> {
+                    ready.countDown();
+                    try {
+                        start.await();
+                        while (sequence.getAndIncrement() < REQUESTS) {
+                            CheckoutRequest request = nextRequest(workload, products);
+                            long begin = System.nanoTime();
+                            int status;
+                            try {
+                                orderSagaService.checkout(tenantId, UUID.randomUUID(), request);
+                                status = 201;
+                            } catch (ResponseStatusException ex) {
+                                status = ex.getStatusCode().value();
+                            } catch (RuntimeException ex) {
+                                status = 500;
+                                errors.incrementAndGet();
+                            } finally {
+                                latencies.record(System.nanoTime() - begin, TimeUnit.NANOSECONDS);
+                            }
+                            outcomes.computeIfAbsent(status, key -> new AtomicInteger()).incrementAndGet();
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            ready.await();
+            long startedAt = System.nanoTime();
+            start.countDown();
+            done.await();
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+
+            // Writes flash-sale counters back so the stored stock can be checked
+            flashSaleStock.flush();
+            int oversold = countOversold(context, initialStock);
+
+            Counter compensated = meterRegistry.find("market.checkout.orders").tag("outcome", "compensated").counter();
+            System.out.printf(Locale.ROOT,
+                    "%-10s threads=%d requests=%d throughput=%.0f req/s%s "
+                            + "compensations=%.1f/s outcomes=%s payment[authorize=%d cancel=%d] oversold=%d%n",
+                    workload, THREADS, REQUESTS, REQUESTS / seconds, percentiles(latencies.takeSnapshot()),
+                    compensated != null ? compensated.count() / seconds : 0, new TreeMap<>(outcomes),
+                    payment.authorizations(), payment.cancels(), oversold);
+            printSteps(meterRegistry);
+
+            assertThat(errors.get()).isZero();
+            assertThat(oversold).isZero();
+        }
+    }
+
+    /**
+     * Counts products whose stored stock is negative or does not match their initial
+     * stock minus the units of their orders that were not canceled.
+     */
+    private static int countOversold(ConfigurableApplicationContext context, Map<UUID, Integer> initialStock) {
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        OrderRepository orderRepository = context.getBean(OrderRepository.class);
+        int oversold = 0;
+        for (Product product : productRepository.findAllById(initialStock.keySet())) {
+            long sold = orderRepository.sumActiveQuantitySince(product.getId(), Instant.EPOCH);
+            if (product.getStock() < 0 || sold > initialStock.get(product.getId())
+                    || product.getStock() != initialStock.get(product.getId()) - sold) {
+                oversold++;
+            }
+        }
+        return oversold;
+    }
+
+    private static void printSteps(MeterRegistry meterRegistry) {
+        List<Timer> steps = new ArrayList<>(meterRegistry.find("market.checkout.step").timers());
+        steps.sort(Comparator.comparing((Timer timer) -> timer.getId().getTag("step"))
+                .thenComparing(timer -> timer.getId().getTag("outcome")));
+        for (Timer step : steps) {
+            HistogramSnapshot snapshot = step.takeSnapshot();
+            System.out.printf(Locale.ROOT, "    step %-10s %-7s count=%d mean=%.2f ms%s max=%.2f ms%n",
+                    step.getId().getTag("step"), step.getId().getTag("outcome"), snapshot.count(),
+                    snapshot.mean(TimeUnit.MILLISECONDS), percentiles(snapshot), snapshot.max(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static String percentiles(HistogramSnapshot snapshot) {
+        StringBuilder percentiles = new StringBuilder();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            percentiles.append(String.format(Locale.ROOT, " p%s=%.2f ms",
+                    BigDecimal.valueOf(value.percentile() * 100).stripTrailingZeros().toPlainString().replace(".", ""),
+                    value.value(TimeUnit.MILLISECONDS)));
+        }
+        return percentiles.toString();
+    }
+
+    private static CheckoutRequest nextRequest(Workload workload, List<UUID> products) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<UUID> picked = new LinkedHashSet<>();
+        if (workload == Workload.WIDE) {
+            int count = 1 + random.nextInt(3);
+            while (picked.size() < count) {
+                picked.add(products.get(random.nextInt(products.size())));
+            }
+        } else {
+            picked.add(products.get(0));
+        }
+        List<OrderItemRequest> items = new ArrayList<>(picked.size());
+        for (UUID productId : picked) {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setProductId(productId);
+            item.setQuantity(workload == Workload.WIDE ? 1 + random.nextInt(2) : 1);
+            items.add(item);
+        }
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(items);
+        return request;
+    }
+
+    private static Map<UUID, Integer> createProducts(ProductRepository productRepository, String tenantId,
+            int count, int stock) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setTenantId(tenantId);
+            product.setSellerId(UUID.randomUUID());
+            product.setName("Load product " + i);
+            product.setDescription("Load product " + i);
+            product.setPrice(BigDecimal.valueOf(5.0));
+            product.setStock(stock);
+            products.add(product);
+        }
+        Map<UUID, Integer> initialStock = new ConcurrentHashMap<>();
+        for (Product product : productRepository.saveAll(products)) {
+            initialStock.put(product.getId(), product.getStock());
+        }
+        return initialStock;
+    }
+
+    /**
+     * Passed as command-line arguments, which take precedence over {@code application.yml};
+     * builder default properties would not.
+     */
+    private static String[] arguments(String paymentBaseUrl) {
+        List<String> properties = new ArrayList<>();
+        String jdbcUrl = System.getProperty("market.load.jdbc-url");
+        if (jdbcUrl != null) {
+            properties.add("spring.datasource.url=" + jdbcUrl);
+            properties.add("spring.datasource.username=" + System.getProperty("market.load.username", "market"));
+            properties.add("spring.datasource.password=" + System.getProperty("market.load.password", "market"));
+        } else {
+            // Fresh database per run; LOCK_TIMEOUT keeps H2 from failing queued row-lock waiters
+            properties.add("spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID()
+                    + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;LOCK_TIMEOUT=60000");
+            properties.add("spring.datasource.driver-class-name=org.h2.Driver");
+            properties.add("spring.datasource.username=sa");
+            properties.add("spring.datasource.password=");
+            properties.add("spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+            // The tsvector column is PostgreSQL-only
+            properties.add("market.search.index=memory");
+        }
+        properties.add("spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE);
+        properties.add("spring.datasource.hikari.connection-timeout=120000");
+        // SecurityConfig needs a servlet context; the port is not used
+        properties.add("server.port=0");
+        properties.add("payment.service.base-url=" + paymentBaseUrl);
+        properties.add("management.metrics.distribution.percentiles.market.checkout.step=0.5,0.99");
+        return properties.stream().map(property -> "--" + property).toArray(String[]::new);
+    }
+
+    /**
+     * Swaps the broker-backed template for one that still converts events to messages,
+     * then drops them. Not a {@code @Configuration}, so component scanning in other tests
+     * skips it.
+     */
+    static class NoBroker {
+
+        @Bean
+        static BeanPostProcessor noBrokerRabbitTemplate() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof RabbitTemplate template)) {
+                        return bean;
+                    }
+                    RabbitTemplate dropping = new RabbitTemplate(template.getConnectionFactory()) {
+                        @Override
+                        public void send(String exchange, String routingKey, Message message,
+                                CorrelationData correlationData) {
+                            // No broker in the harness
+                        }
+                    };
+                    dropping.setMessageConverter(template.getMessageConverter());
+                    return dropping;
+                }
+            };
+        }
+    }
+}
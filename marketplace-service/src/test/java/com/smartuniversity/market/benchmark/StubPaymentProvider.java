@@ -0,0 +1,109 @@
+package com.smartuniversity.market.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for payment-service, serving the two endpoints {@code PaymentClient}
+ * calls on an ephemeral port.
+ * <p>
+ * Each call takes a uniformly random time between half and one and a half times the
+ * configured latency. A share of authorizations fails with {@code 500}, which the
+ * client treats as an error, and another share is answered {@code DECLINED}. Not
+ * {@code 503}: the HTTP client retries that after a pause instead of failing.
+ */
+final class StubPaymentProvider implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long latencyMillis;
+    private final double failureRate;
+    private final double declineRate;
+    private final AtomicInteger authorizations = new AtomicInteger();
+    private final AtomicInteger cancels = new AtomicInteger();
+
+    StubPaymentProvider(long latencyMillis, double failureRate, double declineRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+        this.declineRate = declineRate;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/payment/payments/authorize", this::authorize);
+        server.createContext("/payment/payments/cancel/", this::cancel);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    int authorizations() {
+        return authorizations.get();
+    }
+
+    int cancels() {
+        return cancels.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void authorize(HttpExchange exchange) throws IOException {
+        authorizations.incrementAndGet();
+        simulateLatency(exchange);
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < failureRate) {
+            respond(exchange, 500, null);
+        } else {
+            String status = roll < failureRate + declineRate ? "DECLINED" : "AUTHORIZED";
+            respond(exchange, 200, "{\"paymentId\":\"" + UUID.randomUUID() + "\",\"status\":\"" + status + "\"}");
+        }
+    }
+
+    private void cancel(HttpExchange exchange) throws IOException {
+        cancels.incrementAndGet();
+        simulateLatency(exchange);
+        respond(exchange, 200, "{\"status\":\"CANCELED\"}");
+    }
+
+    private void simulateLatency(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+        }
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(latencyMillis / 2, latencyMillis * 3 / 2 + 1));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.smartuniversity.market.service;
+
+import com.smartuniversity.market.web.dto.PaymentAuthorizationRequest;
+import com.smartuniversity.market.web.dto.PaymentResponse;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentClientCircuitBreakerTest {
+
+    @Autowired
+    private PaymentClient paymentClient;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @MockBean(name = "paymentRestTemplate")
+    private RestTemplate paymentRestTemplate;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @AfterEach
+    void resetBreaker() {
+        circuitBreakerRegistry.circuitBreaker(PaymentClient.RESILIENCE_NAME).reset();
+    }
+
+    @Test
+    void openBreakerShouldRejectAuthorizationWithoutCallingPaymentService() {
+        circuitBreakerRegistry.circuitBreaker(PaymentClient.RESILIENCE_NAME).transitionToOpenState();
+
+        assertThatThrownBy(() -> paymentClient.authorize("engineering", new PaymentAuthorizationRequest()))
+                .isInstanceOf(CallNotPermittedException.class);
+        verifyNoInteractions(paymentRestTemplate);
+    }
+
+    @Test
+    void cancelShouldStillBeAttemptedWhileBreakerIsOpen() {
+        CircuitBreaker breaker = circuitBreakerRegistry.circuitBreaker(PaymentClient.RESILIENCE_NAME);
+        breaker.transitionToOpenState();
+        PaymentResponse canceled = new PaymentResponse();
+        canceled.setStatus("CANCELED");
+        when(paymentRestTemplate.exchange(anyString(), any(), any(), eq(PaymentResponse.class), any(Object[].class)))
+                .thenReturn(ResponseEntity.ok(canceled));
+
+        PaymentResponse response = paymentClient.cancel("engineering", UUID.randomUUID().toString());
+
+        assertThat(response.getStatus()).isEqualTo("CANCELED");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void fullBulkheadShouldRejectCallsWithoutCallingPaymentService() {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(PaymentClient.RESILIENCE_NAME);
+        int permits = bulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        for (int i = 0; i < permits; i++) {
+            assertThat(bulkhead.tryAcquirePermission()).isTrue();
+        }
+        try {
+            assertThatThrownBy(() -> paymentClient.authorize("engineering", new PaymentAuthorizationRequest()))
+                    .isInstanceOf(BulkheadFullException.class);
+            assertThatThrownBy(() -> paymentClient.cancel("engineering", UUID.randomUUID().toString()))
+                    .isInstanceOf(BulkheadFullException.class);
+            verifyNoInteractions(paymentRestTemplate);
+        } finally {
+            for (int i = 0; i < permits; i++) {
+                bulkhead.onComplete();
+            }
+        }
+    }
+}
@@ -2,14 +2,29 @@ package com.smartuniversity.market.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartuniversity.market.domain.Order;
+import com.smartuniversity.market.domain.OrderItem;
 import com.smartuniversity.market.domain.OrderStatus;
 import com.smartuniversity.market.domain.Product;
+import com.smartuniversity.market.domain.SagaState;
 import com.smartuniversity.market.repository.OrderRepository;
 import com.smartuniversity.market.repository.ProductRepository;
+import com.smartuniversity.market.service.FlashSaleStock;
+import com.smartuniversity.market.service.IdempotentCheckoutService;
+import com.smartuniversity.market.service.OrderSagaService;
 import com.smartuniversity.market.service.PaymentClient;
+import com.smartuniversity.market.service.ProductCatalogCache;
+import com.smartuniversity.market.service.StockService;
+import com.smartuniversity.market.service.StockHoldReaper;
 import com.smartuniversity.market.web.dto.CheckoutRequest;
+import com.smartuniversity.market.web.dto.OrderDto;
 import com.smartuniversity.market.web.dto.OrderItemRequest;
+import com.smartuniversity.market.web.dto.OrderPageDto;
 import com.smartuniversity.market.web.dto.PaymentResponse;
+import com.smartuniversity.market.web.dto.ProductPageDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -18,21 +33,37 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -59,10 +90,39 @@ class MarketplaceControllerIntegrationTest {
         @Autowired
         private OrderRepository orderRepository;
 
+        @Autowired
+        private StockHoldReaper stockHoldReaper;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        @Autowired
+        private ProductCatalogCache productCatalogCache;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private FlashSaleStock flashSaleStock;
+
+        @Autowired
+        private StockService stockService;
+
+        @Autowired
+        private TransactionTemplate transactionTemplate;
+
+        @Autowired
+        private OrderSagaService orderSagaService;
+
+        @Autowired
+        private IdempotentCheckoutService idempotentCheckoutService;
+
         @BeforeEach
         void setUp() {
                 orderRepository.deleteAll();
                 productRepository.deleteAll();
+                productCatalogCache.clear();
+                flashSaleStock.recover();
         }
 
         @Test
@@ -100,6 +160,7 @@ class MarketplaceControllerIntegrationTest {
         void checkoutShouldInvokeSagaAndPublishEvent() throws Exception {
                 String tenantId = "engineering";
                 String buyerId = UUID.randomUUID().toString();
+                double published = meterRegistry.counter("market.checkout.orders", "outcome", "published").count();
 
                 // Insert product directly
                 Product product = new Product();
@@ -132,10 +193,72 @@ class MarketplaceControllerIntegrationTest {
                                 .content(objectMapper.writeValueAsString(checkoutRequest)))
                                 .andExpect(status().isCreated())
                                 .andExpect(jsonPath("$.id", notNullValue()))
-                                .andExpect(jsonPath("$.items[0].productId", notNullValue()));
+                                .andExpect(jsonPath("$.items[0].productId", notNullValue()))
+                                .andExpect(jsonPath("$.sagaState").value("COMPLETED"));
 
                 // Ensure we did not trigger compensation
                 Mockito.verify(paymentClient, Mockito.never()).cancel(eq(tenantId), any());
+
+                // Every step is timed and counted
+                assertThat(meterRegistry.counter("market.checkout.orders", "outcome", "published").count())
+                                .isEqualTo(published + 1);
+                assertThat(meterRegistry.find("market.checkout.step").tags("step", "authorize", "outcome", "success")
+                                .timer()).isNotNull();
+        }
+
+        @Test
+        void asyncCheckoutShouldAcceptAndCompleteInBackground() throws Exception {
+                String tenantId = "engineering";
+                String buyerId = UUID.randomUUID().toString();
+                Product product = newProduct(tenantId, "Notebook", 10);
+
+                PaymentResponse paymentResponse = new PaymentResponse();
+                paymentResponse.setPaymentId(UUID.randomUUID());
+                paymentResponse.setStatus("AUTHORIZED");
+                Mockito.when(paymentClient.authorize(eq(tenantId), any()))
+                                .thenReturn(paymentResponse);
+
+                CheckoutRequest checkoutRequest = new CheckoutRequest();
+                OrderItemRequest item = new OrderItemRequest();
+                item.setProductId(product.getId());
+                item.setQuantity(2);
+                checkoutRequest.setItems(List.of(item));
+
+                String body = mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .header("Prefer", "respond-async")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutRequest)))
+                                .andExpect(status().isAccepted())
+                                .andExpect(header().string("Preference-Applied", "respond-async"))
+                                .andExpect(jsonPath("$.status").value("PENDING"))
+                                .andReturn().getResponse().getContentAsString();
+                UUID orderId = objectMapper.readValue(body, OrderDto.class).getId();
+
+                // The Saga finishes on the checkout pool
+                Instant deadline = Instant.now().plusSeconds(10);
+                while (orderRepository.findById(orderId).orElseThrow().getSagaState() != SagaState.COMPLETED) {
+                        assertThat(Instant.now()).isBefore(deadline);
+                        Thread.sleep(20);
+                }
+
+                mockMvc.perform(get("/market/orders/" + orderId)
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.status").value("CONFIRMED"))
+                                .andExpect(jsonPath("$.sagaState").value("COMPLETED"));
+
+                // Other buyers cannot see it
+                mockMvc.perform(get("/market/orders/" + orderId)
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", UUID.randomUUID().toString()))
+                                .andExpect(status().isNotFound());
+
+                Mockito.verify(rabbitTemplate).convertAndSend(eq("university.events"), eq("market.order.confirmed"),
+                                any(Object.class));
+                assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(8);
         }
 
         @Test
@@ -160,7 +283,8 @@ class MarketplaceControllerIntegrationTest {
 
                 // Simulate payment authorization failure via HTTP 402
                 Mockito.when(paymentClient.authorize(eq(tenantId), any()))
-                                .thenThrow(new RuntimeException("Payment gateway down"));
+                                .thenThrow(HttpClientErrorException.create(HttpStatus.PAYMENT_REQUIRED, "Payment Required",
+                                                HttpHeaders.EMPTY, new byte[0], null));
 
                 mockMvc.perform(post("/market/orders/checkout")
                                 .header("X-Tenant-Id", tenantId)
@@ -173,12 +297,67 @@ class MarketplaceControllerIntegrationTest {
                 List<Order> orders = orderRepository.findAll();
                 assertThat(orders).hasSize(1);
                 assertThat(orders.get(0).getStatus()).isEqualTo(OrderStatus.CANCELED);
+                // ...and the stock they held goes back
+                assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(100);
 
                 Mockito.verify(paymentClient, Mockito.never()).cancel(eq(tenantId), any());
         }
 
         @Test
-        void checkoutShouldCompensatePaymentWhenStockInsufficient() throws Exception {
+        void checkoutShouldVoidPaymentWhenAuthorizationTimesOut() throws Exception {
+                String tenantId = "engineering";
+                String buyerId = UUID.randomUUID().toString();
+                Product product = newProduct(tenantId, "Notebook", 10);
+
+                // The client gave up, but payment-service may have authorized anyway
+                Mockito.when(paymentClient.authorize(eq(tenantId), any()))
+                                .thenThrow(new ResourceAccessException("Read timed out"));
+
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutOf(product, 1))))
+                                .andExpect(status().isPaymentRequired());
+
+                Order order = orderRepository.findAll().get(0);
+                assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELED);
+                assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(10);
+                Mockito.verify(paymentClient).cancel(tenantId, order.getId().toString());
+        }
+
+        @Test
+        void checkoutShouldVoidPaymentAuthorizedAfterTheHoldExpired() throws Exception {
+                String tenantId = "engineering";
+                String buyerId = UUID.randomUUID().toString();
+                Product product = newProduct(tenantId, "Notebook", 10);
+
+                // The hold runs out and is released while payment-service is still authorizing
+                PaymentResponse paymentResponse = new PaymentResponse();
+                paymentResponse.setPaymentId(UUID.randomUUID());
+                paymentResponse.setStatus("AUTHORIZED");
+                Mockito.when(paymentClient.authorize(eq(tenantId), any())).thenAnswer(invocation -> {
+                        assertThat(orderSagaService.expireHold(orderRepository.findAll().get(0))).isTrue();
+                        return paymentResponse;
+                });
+
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutOf(product, 1))))
+                                .andExpect(status().isConflict());
+
+                Order order = orderRepository.findAll().get(0);
+                assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELED);
+                assertThat(order.getSagaState()).isEqualTo(SagaState.COMPENSATED);
+                assertThat(order.getFailureReason()).isEqualTo("Stock hold expired");
+                assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(10);
+                Mockito.verify(paymentClient).cancel(tenantId, order.getId().toString());
+        }
+
+        @Test
+        void checkoutShouldRejectInsufficientStockBeforePayment() throws Exception {
                 String tenantId = "engineering";
                 String buyerId = UUID.randomUUID().toString();
 
@@ -197,26 +376,560 @@ class MarketplaceControllerIntegrationTest {
                 item.setQuantity(2); // request more than available stock
                 checkoutRequest.setItems(List.of(item));
 
-                // Payment authorization succeeds
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutRequest)))
+                                .andExpect(status().isConflict());
+
+                // The stock hold fails first, so no order is kept and payment-service is never called
+                assertThat(orderRepository.findAll()).isEmpty();
+                assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(1);
+                Mockito.verify(paymentClient, Mockito.never()).authorize(eq(tenantId), any());
+                Mockito.verify(paymentClient, Mockito.never()).cancel(eq(tenantId), any());
+        }
+
+        @Test
+        void expiredStockHoldShouldBeReleased() throws Exception {
+                String tenantId = "engineering";
+                Product product = newProduct(tenantId, "Notebook", 8);
+
+                // A checkout that held 2 units and never finished
+                Order order = new Order();
+                order.setTenantId(tenantId);
+                order.setBuyerId(UUID.randomUUID());
+                order.setStatus(OrderStatus.PENDING);
+                order.setSagaState(SagaState.STOCK_HELD);
+                order.setTotalAmount(BigDecimal.TEN);
+                order.setStockHeldUntil(Instant.now().minusSeconds(60));
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrder(order);
+                orderItem.setProduct(product);
+                orderItem.setQuantity(2);
+                orderItem.setPrice(product.getPrice());
+                order.setItems(List.of(orderItem));
+                order = orderRepository.save(order);
+
+                stockHoldReaper.releaseExpired();
+
+                Order released = orderRepository.findById(order.getId()).orElseThrow();
+                assertThat(released.getStatus()).isEqualTo(OrderStatus.CANCELED);
+                assertThat(released.getStockHeldUntil()).isNull();
+                assertThat(released.getSagaState()).isEqualTo(SagaState.COMPENSATED);
+                assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(10);
+
+                // Released once only
+                stockHoldReaper.releaseExpired();
+                assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(10);
+        }
+
+        @Test
+        void checkoutShouldDecrementStockOfAllItemsOrNone() throws Exception {
+                String tenantId = "engineering";
+                String buyerId = UUID.randomUUID().toString();
+
+                Product plenty = newProduct(tenantId, "Notebook", 10);
+                Product scarce = newProduct(tenantId, "Hoodie", 1);
+
                 PaymentResponse paymentResponse = new PaymentResponse();
                 paymentResponse.setPaymentId(UUID.randomUUID());
-                paymentResponse.setOrderId(UUID.randomUUID());
                 paymentResponse.setStatus("AUTHORIZED");
                 Mockito.when(paymentClient.authorize(eq(tenantId), any()))
                                 .thenReturn(paymentResponse);
 
+                // The hoodie is short, so the notebook decrement must be rolled back too
                 mockMvc.perform(post("/market/orders/checkout")
                                 .header("X-Tenant-Id", tenantId)
                                 .header("X-User-Id", buyerId)
                                 .contentType(MediaType.APPLICATION_JSON)
-                                .content(objectMapper.writeValueAsString(checkoutRequest)))
+                                .content(objectMapper.writeValueAsString(checkoutOf(plenty, 3, scarce, 2))))
                                 .andExpect(status().isConflict());
 
-                // Saga should have canceled the order and invoked payment cancellation
-                List<Order> orders = orderRepository.findAll();
-                assertThat(orders).hasSize(1);
-                assertThat(orders.get(0).getStatus()).isEqualTo(OrderStatus.CANCELED);
+                assertThat(productRepository.findById(plenty.getId()).orElseThrow().getStock()).isEqualTo(10);
+                assertThat(productRepository.findById(scarce.getId()).orElseThrow().getStock()).isEqualTo(1);
+
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutOf(plenty, 3, scarce, 1))))
+                                .andExpect(status().isCreated());
+
+                assertThat(productRepository.findById(plenty.getId()).orElseThrow().getStock()).isEqualTo(7);
+                assertThat(productRepository.findById(scarce.getId()).orElseThrow().getStock()).isEqualTo(0);
+        }
+
+        @Test
+        void cachedCatalogShouldShowStockAfterCheckout() throws Exception {
+                String tenantId = "catalog-" + UUID.randomUUID();
+                String buyerId = UUID.randomUUID().toString();
+
+                Product notebook = newProduct(tenantId, "Notebook", 10);
+                Product hoodie = newProduct(tenantId, "Hoodie", 4);
+
+                mockMvc.perform(get("/market/products")
+                                .header("X-Tenant-Id", tenantId))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$", hasSize(2)));
+
+                PaymentResponse paymentResponse = new PaymentResponse();
+                paymentResponse.setPaymentId(UUID.randomUUID());
+                paymentResponse.setStatus("AUTHORIZED");
+                Mockito.when(paymentClient.authorize(eq(tenantId), any()))
+                                .thenReturn(paymentResponse);
+
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutOf(notebook, 3, hoodie, 1))))
+                                .andExpect(status().isCreated());
+
+                // Served from the cached catalog, with the stock refreshed
+                mockMvc.perform(get("/market/products")
+                                .header("X-Tenant-Id", tenantId))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[?(@.name == 'Notebook')].stock").value(7))
+                                .andExpect(jsonPath("$[?(@.name == 'Hoodie')].stock").value(3));
+
+                assertThat(meterRegistry.counter("market.catalog.requests", "tenant", tenantId, "result", "miss")
+                                .count()).isEqualTo(1);
+                assertThat(meterRegistry.counter("market.catalog.requests", "tenant", tenantId, "result", "hit")
+                                .count()).isEqualTo(1);
+        }
+
+        @Test
+        void searchShouldFilterAndPageProducts() throws Exception {
+                String tenantId = "search-" + UUID.randomUUID();
+                newProduct(tenantId, "Algorithms Textbook", 2);
+                newProduct(tenantId, "Data Structures Textbook", 0);
+                newProduct(tenantId, "Campus Hoodie", 5);
+
+                mockMvc.perform(get("/market/products/search")
+                                .header("X-Tenant-Id", tenantId)
+                                .param("q", "TEXTBOOK")
+                                .param("inStock", "true"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(1)))
+                                .andExpect(jsonPath("$.items[0].name").value("Algorithms Textbook"))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+                String firstPage = mockMvc.perform(get("/market/products/search")
+                                .header("X-Tenant-Id", tenantId)
+                                .param("q", "textbook")
+                                .param("limit", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(1)))
+                                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                                .andReturn().getResponse().getContentAsString();
+                ProductPageDto first = objectMapper.readValue(firstPage, ProductPageDto.class);
+
+                String secondPage = mockMvc.perform(get("/market/products/search")
+                                .header("X-Tenant-Id", tenantId)
+                                .param("q", "textbook")
+                                .param("limit", "1")
+                                .param("cursor", first.getNextCursor()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(1)))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                                .andReturn().getResponse().getContentAsString();
+                ProductPageDto second = objectMapper.readValue(secondPage, ProductPageDto.class);
+                assertThat(second.getItems().get(0).getId()).isNotEqualTo(first.getItems().get(0).getId());
+
+                // Products created through the API are searchable right away
+                mockMvc.perform(post("/market/products")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", UUID.randomUUID().toString())
+                                .header("X-User-Role", "TEACHER")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("""
+                                                {
+                                                  "name": "Lab Coat",
+                                                  "description": "Cotton, size M",
+                                                  "price": 20.0,
+                                                  "stock": 3
+                                                }
+                                                """))
+                                .andExpect(status().isCreated());
+
+                mockMvc.perform(get("/market/products/search")
+                                .header("X-Tenant-Id", tenantId)
+                                .param("q", "cotton coat")
+                                .param("maxPrice", "25"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(1)))
+                                .andExpect(jsonPath("$.items[0].name").value("Lab Coat"));
+        }
+
+        @Test
+        void orderHistoryShouldPageWithConstantQueries() throws Exception {
+                String tenantId = "history-" + UUID.randomUUID();
+                String buyerId = UUID.randomUUID().toString();
+                Product notebook = newProduct(tenantId, "Notebook", 10);
+                Product hoodie = newProduct(tenantId, "Hoodie", 10);
+
+                PaymentResponse paymentResponse = new PaymentResponse();
+                paymentResponse.setPaymentId(UUID.randomUUID());
+                paymentResponse.setStatus("AUTHORIZED");
+                Mockito.when(paymentClient.authorize(eq(tenantId), any()))
+                                .thenReturn(paymentResponse);
+                for (int i = 0; i < 3; i++) {
+                        mockMvc.perform(post("/market/orders/checkout")
+                                        .header("X-Tenant-Id", tenantId)
+                                        .header("X-User-Id", buyerId)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(checkoutOf(notebook, 1, hoodie, 1))))
+                                        .andExpect(status().isCreated());
+                }
+
+                // One query for the orders and one for all of their items, whatever the page holds
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                statistics.clear();
+                String firstPage = mockMvc.perform(get("/market/orders")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .param("limit", "2"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(2)))
+                                .andExpect(jsonPath("$.items[0].items", hasSize(2)))
+                                .andExpect(jsonPath("$.items[0].items[0].productName", notNullValue()))
+                                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                                .andReturn().getResponse().getContentAsString();
+                assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+                OrderPageDto first = objectMapper.readValue(firstPage, OrderPageDto.class);
+                mockMvc.perform(get("/market/orders")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .param("limit", "2")
+                                .param("cursor", first.getNextCursor()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(1)))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+                // The seller sees every order of their product, with only their own items
+                mockMvc.perform(get("/market/orders")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", notebook.getSellerId().toString())
+                                .param("as", "seller"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(3)))
+                                .andExpect(jsonPath("$.items[0].items", hasSize(1)))
+                                .andExpect(jsonPath("$.items[0].items[0].productName").value("Notebook"));
+        }
+
+        @Test
+        void checkoutRetryWithIdempotencyKeyShouldReplayOrder() throws Exception {
+                String tenantId = "engineering";
+                String buyerId = UUID.randomUUID().toString();
+                Product notebook = newProduct(tenantId, "Notebook", 10);
+                Product hoodie = newProduct(tenantId, "Hoodie", 10);
+
+                PaymentResponse paymentResponse = new PaymentResponse();
+                paymentResponse.setPaymentId(UUID.randomUUID());
+                paymentResponse.setStatus("AUTHORIZED");
+                Mockito.when(paymentClient.authorize(eq(tenantId), any()))
+                                .thenReturn(paymentResponse);
+
+                String body = objectMapper.writeValueAsString(checkoutOf(notebook, 2, hoodie, 1));
+                String created = mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .header("Idempotency-Key", "retry-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isCreated())
+                                .andReturn().getResponse().getContentAsString();
+                UUID orderId = objectMapper.readValue(created, OrderDto.class).getId();
+
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .header("Idempotency-Key", "retry-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Idempotent-Replayed", "true"))
+                                .andExpect(jsonPath("$.id").value(orderId.toString()))
+                                .andExpect(jsonPath("$.sagaState").value("COMPLETED"));
+
+                // Same key, different items
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .header("Idempotency-Key", "retry-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutOf(notebook, 1, hoodie, 1))))
+                                .andExpect(status().isUnprocessableEntity());
+
+                assertThat(orderRepository.count()).isEqualTo(1);
+                assertThat(productRepository.findById(notebook.getId()).orElseThrow().getStock()).isEqualTo(8);
+                Mockito.verify(paymentClient, Mockito.times(1)).authorize(eq(tenantId), any());
+        }
+
+        @Test
+        void concurrentCheckoutRetriesShouldShareOneOrder() throws Exception {
+                String tenantId = "engineering";
+                String buyerId = UUID.randomUUID().toString();
+                Product notebook = newProduct(tenantId, "Notebook", 10);
+                Product hoodie = newProduct(tenantId, "Hoodie", 10);
+
+                // Payment stays slow until the duplicate has been sent
+                CountDownLatch release = new CountDownLatch(1);
+                PaymentResponse paymentResponse = new PaymentResponse();
+                paymentResponse.setPaymentId(UUID.randomUUID());
+                paymentResponse.setStatus("AUTHORIZED");
+                Mockito.when(paymentClient.authorize(eq(tenantId), any()))
+                                .thenAnswer(invocation -> {
+                                        release.await(5, TimeUnit.SECONDS);
+                                        return paymentResponse;
+                                });
+
+                String body = objectMapper.writeValueAsString(checkoutOf(notebook, 1, hoodie, 1));
+                Callable<MvcResult> attempt = () -> mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .header("Idempotency-Key", "flaky-wifi")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andReturn();
+                ExecutorService clients = Executors.newFixedThreadPool(2);
+                try {
+                        Future<MvcResult> first = clients.submit(attempt);
+                        Future<MvcResult> retry = clients.submit(attempt);
+                        Thread.sleep(200);
+                        release.countDown();
+
+                        List<Integer> statuses = List.of(first.get(10, TimeUnit.SECONDS).getResponse().getStatus(),
+                                        retry.get(10, TimeUnit.SECONDS).getResponse().getStatus());
+                        assertThat(statuses).containsExactlyInAnyOrder(201, 200);
+                } finally {
+                        clients.shutdownNow();
+                }
+
+                assertThat(orderRepository.count()).isEqualTo(1);
+                assertThat(productRepository.findById(notebook.getId()).orElseThrow().getStock()).isEqualTo(9);
+                Mockito.verify(paymentClient, Mockito.times(1)).authorize(eq(tenantId), any());
+        }
+
+        @Test
+        void checkoutRetryWithIdempotencyKeyShouldReplayFailure() throws Exception {
+                String tenantId = "engineering";
+                String buyerId = UUID.randomUUID().toString();
+                Product product = newProduct(tenantId, "Notebook", 10);
+
+                Mockito.when(paymentClient.authorize(eq(tenantId), any()))
+                                .thenThrow(HttpClientErrorException.create(HttpStatus.PAYMENT_REQUIRED, "Payment Required",
+                                                HttpHeaders.EMPTY, new byte[0], null));
+
+                String body = objectMapper.writeValueAsString(checkoutOf(product, 1));
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .header("Idempotency-Key", "declined-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isPaymentRequired());
+
+                // The retry gets the declined answer again, not the canceled order with 200
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .header("Idempotency-Key", "declined-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isPaymentRequired())
+                                .andExpect(status().reason("Payment authorization failed"))
+                                .andExpect(header().string("Idempotent-Replayed", "true"));
+
+                // Also once the key is no longer in memory
+                idempotentCheckoutService.clear();
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .header("Idempotency-Key", "declined-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isPaymentRequired())
+                                .andExpect(header().string("Idempotent-Replayed", "true"));
+
+                assertThat(orderRepository.count()).isEqualTo(1);
+                Mockito.verify(paymentClient, Mockito.times(1)).authorize(eq(tenantId), any());
+        }
+
+        @Test
+        void flashSaleShouldCountStockInMemoryAndRecoverFromOrders() throws Exception {
+                String tenantId = "engineering";
+                String buyerId = UUID.randomUUID().toString();
+                Product product = newProduct(tenantId, "Launch Hoodie", 5);
+
+                PaymentResponse paymentResponse = new PaymentResponse();
+                paymentResponse.setPaymentId(UUID.randomUUID());
+                paymentResponse.setStatus("AUTHORIZED");
+                Mockito.when(paymentClient.authorize(eq(tenantId), any()))
+                                .thenReturn(paymentResponse);
+
+                mockMvc.perform(post("/market/products/{id}/flash-sale", product.getId())
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", UUID.randomUUID().toString())
+                                .header("X-User-Role", "ADMIN"))
+                                .andExpect(status().isNoContent());
+
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutOf(product, 2))))
+                                .andExpect(status().isCreated());
+
+                // As after a restart that lost the unflushed decrement: rebuilt from the orders
+                flashSaleStock.recover();
+                assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(3);
+
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutOf(product, 4))))
+                                .andExpect(status().isConflict());
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", buyerId)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutOf(product, 3))))
+                                .andExpect(status().isCreated());
+
+                flashSaleStock.flush();
+                assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(0);
+
+                mockMvc.perform(delete("/market/products/{id}/flash-sale", product.getId())
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", product.getSellerId().toString())
+                                .header("X-User-Role", "TEACHER"))
+                                .andExpect(status().isNoContent());
+
+                Product ended = productRepository.findById(product.getId()).orElseThrow();
+                assertThat(ended.getFlashSaleStartedAt()).isNull();
+                assertThat(ended.getStock()).isEqualTo(0);
+        }
+
+        @Test
+        void endingFlashSaleShouldWaitForTakesAndRefuseCheckoutsMeanwhile() throws Exception {
+                String tenantId = "engineering";
+                Product product = newProduct(tenantId, "Launch Hoodie", 5);
+                flashSaleStock.enable(tenantId, product.getId());
+
+                // A checkout that took 2 units from the counter and has not committed yet
+                CountDownLatch taken = new CountDownLatch(1);
+                CountDownLatch commit = new CountDownLatch(1);
+                ExecutorService workers = Executors.newFixedThreadPool(2);
+                try {
+                        Future<?> buyer = workers.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                                stockService.decrement(tenantId, Map.of(product.getId(), 2));
+                                taken.countDown();
+                                try {
+                                        commit.await(5, TimeUnit.SECONDS);
+                                } catch (InterruptedException ex) {
+                                        Thread.currentThread().interrupt();
+                                }
+                        }));
+                        assertThat(taken.await(5, TimeUnit.SECONDS)).isTrue();
+                        Future<?> ending = workers.submit(() -> flashSaleStock.disable(tenantId, product.getId()));
+                        Thread.sleep(200);
+
+                        // Neither the counter nor the row, which still shows 5 units, may sell now
+                        assertThat(ending.isDone()).isFalse();
+                        mockMvc.perform(post("/market/orders/checkout")
+                                        .header("X-Tenant-Id", tenantId)
+                                        .header("X-User-Id", UUID.randomUUID().toString())
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(checkoutOf(product, 4))))
+                                        .andExpect(status().isServiceUnavailable());
+
+                        // Other products' sales keep starting and flushing without waiting for it
+                        Product other = newProduct(tenantId, "Launch Cap", 5);
+                        flashSaleStock.enable(tenantId, other.getId());
+                        flashSaleStock.flush();
+                        assertThat(ending.isDone()).isFalse();
+
+                        commit.countDown();
+                        buyer.get(5, TimeUnit.SECONDS);
+                        ending.get(10, TimeUnit.SECONDS);
+                } finally {
+                        workers.shutdownNow();
+                }
+
+                Product ended = productRepository.findById(product.getId()).orElseThrow();
+                assertThat(ended.getFlashSaleStartedAt()).isNull();
+                assertThat(ended.getStock()).isEqualTo(3);
+                mockMvc.perform(post("/market/orders/checkout")
+                                .header("X-Tenant-Id", tenantId)
+                                .header("X-User-Id", UUID.randomUUID().toString())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkoutOf(product, 4))))
+                                .andExpect(status().isConflict());
+        }
+
+        @Test
+        void flashSaleRecoveryShouldCountHoldsReleasedDuringTheSale() throws Exception {
+                String tenantId = "engineering";
+                Product product = newProduct(tenantId, "Launch Hoodie", 8);
+
+                // Placed before the sale, holding 2 of the 10 units
+                Order order = new Order();
+                order.setTenantId(tenantId);
+                order.setBuyerId(UUID.randomUUID());
+                order.setStatus(OrderStatus.PENDING);
+                order.setSagaState(SagaState.STOCK_HELD);
+                order.setTotalAmount(BigDecimal.TEN);
+                order.setStockHeldUntil(Instant.now().minusSeconds(60));
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrder(order);
+                orderItem.setProduct(product);
+                orderItem.setQuantity(2);
+                orderItem.setPrice(product.getPrice());
+                order.setItems(List.of(orderItem));
+                orderRepository.save(order);
+
+                flashSaleStock.enable(tenantId, product.getId());
+                stockHoldReaper.releaseExpired();
+
+                // As after a restart that lost the counter: the released units are still there
+                flashSaleStock.recover();
+                assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(10);
+        }
+
+        private Product newProduct(String tenantId, String name, int stock) {
+                Product product = new Product();
+                product.setTenantId(tenantId);
+                product.setSellerId(UUID.randomUUID());
+                product.setName(name);
+                product.setDescription(name);
+                product.setPrice(BigDecimal.valueOf(5.0));
+                product.setStock(stock);
+                return productRepository.save(product);
+        }
+
+        private static CheckoutRequest checkoutOf(Product product, int quantity) {
+                OrderItemRequest item = new OrderItemRequest();
+                item.setProductId(product.getId());
+                item.setQuantity(quantity);
+                CheckoutRequest request = new CheckoutRequest();
+                request.setItems(List.of(item));
+                return request;
+        }
 
-                Mockito.verify(paymentClient).cancel(eq(tenantId), any());
+        private static CheckoutRequest checkoutOf(Product first, int firstQuantity, Product second,
+                        int secondQuantity) {
+                OrderItemRequest firstItem = new OrderItemRequest();
+                firstItem.setProductId(first.getId());
+                firstItem.setQuantity(firstQuantity);
+                OrderItemRequest secondItem = new OrderItemRequest();
+                secondItem.setProductId(second.getId());
+                secondItem.setQuantity(secondQuantity);
+                CheckoutRequest request = new CheckoutRequest();
+                request.setItems(List.of(firstItem, secondItem));
+                return request;
         }
-}
\ No newline at end of file
+}